@@ -0,0 +1,55 @@
+package es.test.demo.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import es.test.demo.entity.ProductEntity;
+import es.test.demo.loadtest.ProductSeeder;
+import es.test.demo.model.ProductDTO;
+
+/**
+ * BenchmarkProducts
+ * Deterministic product fixtures shared by the benchmarks, matching the rows
+ * inserted by {@link ProductSeeder}.
+ */
+final class BenchmarkProducts {
+
+    private BenchmarkProducts() {
+    }
+
+    static ProductEntity entity(final int id) {
+        return ProductEntity.builder()
+                .id(id)
+                .name(ProductSeeder.name(id))
+                .description(ProductSeeder.description(id))
+                .price(ProductSeeder.price(id))
+                .version(0L)
+                .build();
+    }
+
+    static ProductDTO dto(final int id) {
+        return ProductDTO.builder()
+                .id(id)
+                .name(ProductSeeder.name(id))
+                .description(ProductSeeder.description(id))
+                .price(ProductSeeder.price(id))
+                .version(0L)
+                .build();
+    }
+
+    static List<ProductEntity> entities(final int count) {
+        final List<ProductEntity> entities = new ArrayList<>(count);
+        for (int id = 1; id <= count; id++) {
+            entities.add(entity(id));
+        }
+        return entities;
+    }
+
+    static List<ProductDTO> dtos(final int count) {
+        final List<ProductDTO> dtos = new ArrayList<>(count);
+        for (int id = 1; id <= count; id++) {
+            dtos.add(dto(id));
+        }
+        return dtos;
+    }
+}
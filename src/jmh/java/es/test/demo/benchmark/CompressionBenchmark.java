@@ -0,0 +1,111 @@
+package es.test.demo.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * CompressionBenchmark
+ * CPU cost of gzip-compressing the NDJSON export of a 100k-product catalog at
+ * different deflate levels, written in chunks as
+ * {@link es.test.demo.filter.CompressionFilter} receives it.
+ * <p>
+ * The compressed size and ratio of each level are reported as the
+ * {@code compressedBytes} and {@code compressedPercent} secondary results, to
+ * weigh the time per export against the bandwidth saved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompressionBenchmark {
+
+    private static final int PRODUCTS = 100_000;
+    private static final int CHUNK_SIZE = 8192;
+
+    @Param({ "1", "6", "9" })
+    private int level;
+
+    private byte[] export;
+
+    @Setup
+    public void setup() throws IOException {
+        final ObjectWriter writer = new ObjectMapper().writer();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int id = 1; id <= PRODUCTS; id++) {
+            out.write(writer.writeValueAsBytes(BenchmarkProducts.dto(id)));
+            out.write('\n');
+        }
+        export = out.toByteArray();
+    }
+
+    @Benchmark
+    public long compressExport(final CompressedSize size) throws IOException {
+        final CountingOutputStream compressed = new CountingOutputStream();
+        compress(compressed);
+        size.compressedBytes = compressed.count;
+        size.compressedPercent = 100D * compressed.count / export.length;
+        return compressed.count;
+    }
+
+    private void compress(final OutputStream target) throws IOException {
+        try (GZIPOutputStream gzip = new GZIPOutputStream(target, CHUNK_SIZE, true) {
+            {
+                def.setLevel(level);
+            }
+        }) {
+            for (int offset = 0; offset < export.length; offset += CHUNK_SIZE) {
+                gzip.write(export, offset, Math.min(CHUNK_SIZE, export.length - offset));
+            }
+        }
+    }
+
+    /**
+     * Size of the last compressed export, reported next to the timings.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class CompressedSize {
+
+        public long compressedBytes;
+        public double compressedPercent;
+    }
+
+    /**
+     * Discards the compressed bytes, only counting them.
+     */
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(final int b) {
+            count++;
+        }
+
+        @Override
+        public void write(final byte[] bytes, final int offset, final int length) {
+            count += length;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package es.test.demo.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import es.test.demo.exception.GlobalExceptionHandler;
+import es.test.demo.exception.product.ProductNotFoundException;
+import es.test.demo.model.ErrorResponseDTO;
+
+/**
+ * GlobalExceptionHandlerBenchmark
+ * Cost of answering a missing product, with and without building the
+ * exception.
+ * <p>
+ * {@code legacyThrowAndHandleNotFound} reproduces the former error path: an
+ * exception with a stack trace, the status name parsed with
+ * {@link String#split(String)} and the timestamp read from the default time
+ * zone clock. Run with {@code -prof gc} and compare {@code gc.alloc.rate.norm}
+ * to see the bytes allocated per 404.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GlobalExceptionHandlerBenchmark {
+
+    private static final String MESSAGE = "Could not find product by that id";
+
+    private GlobalExceptionHandler handler;
+    private MockHttpServletRequest request;
+    private ProductNotFoundException exception;
+
+    @Setup
+    public void setup() {
+        handler = new GlobalExceptionHandler();
+        request = new MockHttpServletRequest("GET", "/product/42");
+        exception = new ProductNotFoundException(MESSAGE);
+    }
+
+    @Benchmark
+    public ResponseEntity<ErrorResponseDTO> handleNotFound() {
+        return handler.handleProductNotFoundException(exception, request);
+    }
+
+    @Benchmark
+    public ResponseEntity<ErrorResponseDTO> throwAndHandleNotFound() {
+        try {
+            throw new ProductNotFoundException(MESSAGE);
+        } catch (ProductNotFoundException e) {
+            return handler.handleProductNotFoundException(e, request);
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<ErrorResponseDTO> legacyThrowAndHandleNotFound() {
+        try {
+            throw new IllegalStateException(MESSAGE);
+        } catch (IllegalStateException e) {
+            return ResponseEntity
+                    .status(HttpStatus.NOT_FOUND)
+                    .body(ErrorResponseDTO.builder()
+                            .timestamp(LocalDateTime.now())
+                            .error(HttpStatus.NOT_FOUND.toString().split(" ")[1])
+                            .status(HttpStatus.NOT_FOUND)
+                            .message(e.getLocalizedMessage())
+                            .path(request.getRequestURI())
+                            .build());
+        }
+    }
+}
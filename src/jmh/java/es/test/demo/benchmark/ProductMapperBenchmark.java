@@ -0,0 +1,65 @@
+package es.test.demo.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import es.test.demo.entity.ProductEntity;
+import es.test.demo.mapper.ProductMapper;
+import es.test.demo.model.ProductDTO;
+
+/**
+ * ProductMapperBenchmark
+ * Cost of the MapStruct conversions done on every request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductMapperBenchmark {
+
+    @Param({ "20", "1000" })
+    private int listSize;
+
+    private ProductMapper mapper;
+    private ProductEntity entity;
+    private ProductDTO dto;
+    private List<ProductEntity> entities;
+
+    @Setup
+    public void setup() {
+        mapper = Mappers.getMapper(ProductMapper.class);
+        entity = BenchmarkProducts.entity(1);
+        dto = BenchmarkProducts.dto(1);
+        entities = BenchmarkProducts.entities(listSize);
+    }
+
+    @Benchmark
+    public ProductDTO toDTO() {
+        return mapper.toDTO(entity);
+    }
+
+    @Benchmark
+    public ProductEntity toEntity() {
+        return mapper.toEntity(dto);
+    }
+
+    @Benchmark
+    public List<ProductDTO> toDTOList() {
+        return mapper.toDTO(entities);
+    }
+}
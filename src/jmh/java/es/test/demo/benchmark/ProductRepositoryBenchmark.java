@@ -0,0 +1,157 @@
+package es.test.demo.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import es.test.demo.DemoApplication;
+import es.test.demo.entity.ProductEntity;
+import es.test.demo.loadtest.ProductSeeder;
+import es.test.demo.model.ProductBatchResultDTO;
+import es.test.demo.model.ProductDTO;
+import es.test.demo.model.ProductField;
+import es.test.demo.model.ProductSort;
+import es.test.demo.repository.ProductRepository;
+import es.test.demo.service.ProductService;
+
+/**
+ * ProductRepositoryBenchmark
+ * The JPA and JDBC implementations of {@link ProductRepository}, selected with
+ * {@code product.repository.type}, against an H2 database seeded with
+ * {@code rows} products.
+ * <p>
+ * Reads call the repository directly, so the numbers leave the cache out.
+ * Writes go through {@link ProductService}, so both implementations run under
+ * the same transactions: a bulk creation of {@value #BATCH} products and
+ * single updates of random products. Startup time is measured by
+ * {@link ProductRepositoryStartupBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class ProductRepositoryBenchmark {
+
+    private static final int LOOKUP = 100;
+    private static final int PAGE = 100;
+    private static final int BATCH = 500;
+
+    @Param({ "jpa", "jdbc" })
+    private String type;
+
+    @Param({ "10000", "100000" })
+    private int rows;
+
+    private final AtomicInteger version = new AtomicInteger();
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private ProductRepository productRepository;
+    private TransactionTemplate readOnlyTransaction;
+    private List<ProductDTO> batch;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(DemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.sql.init.mode=never",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "product.repository.type=" + type,
+                        "product.search.enabled=false",
+                        "product.price-index.enabled=false",
+                        "product.stats.enabled=false")
+                .run();
+        productService = context.getBean(ProductService.class);
+        productRepository = context.getBean(ProductRepository.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+        ProductSeeder.seed(context, rows);
+
+        batch = new ArrayList<>(BATCH);
+        for (int id = 1; id <= BATCH; id++) {
+            final ProductDTO product = BenchmarkProducts.dto(id);
+            product.setId(null);
+            product.setVersion(null);
+            batch.add(product);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object findById() {
+        return productRepository.findById(randomId());
+    }
+
+    @Benchmark
+    public List<ProductEntity> findAllById() {
+        final List<Integer> ids = new ArrayList<>(LOOKUP);
+        for (int i = 0; i < LOOKUP; i++) {
+            ids.add(randomId());
+        }
+        return productRepository.findAllById(ids);
+    }
+
+    @Benchmark
+    public List<ProductDTO> findFirstPage() {
+        return productRepository.findFirstPage(ProductSort.PRICE, ProductField.ALL, PAGE);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Measurement(iterations = 5)
+    public double streamAll() {
+        return readOnlyTransaction.execute(_ -> {
+            try (Stream<ProductEntity> products = productRepository.streamAll()) {
+                return products.mapToDouble(ProductEntity::getPrice).sum();
+            }
+        });
+    }
+
+    @Benchmark
+    public ProductBatchResultDTO addProducts() {
+        return productService.addProducts(batch.iterator());
+    }
+
+    @Benchmark
+    public ProductDTO updateProductById() {
+        final int id = randomId();
+        final ProductDTO product = BenchmarkProducts.dto(id);
+        product.setPrice(version.incrementAndGet() % 10_000 / 100D);
+        return productService.updateProductById(product, id, null);
+    }
+
+    private int randomId() {
+        return ThreadLocalRandom.current().nextInt(1, rows + 1);
+    }
+}
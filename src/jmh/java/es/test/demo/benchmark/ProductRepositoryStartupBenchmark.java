@@ -0,0 +1,72 @@
+package es.test.demo.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import es.test.demo.DemoApplication;
+import es.test.demo.repository.ProductRepository;
+
+/**
+ * ProductRepositoryStartupBenchmark
+ * Time to start the application context with each
+ * {@code product.repository.type}, up to the first product read.
+ * <p>
+ * Every measurement starts a new context on its own in-memory database, seeded
+ * by {@code data.sql}. The first iterations of a fork include class loading,
+ * so look at the later ones for a warm start; run with several forks for cold
+ * starts. Hibernate is bootstrapped in both modes, since the transaction
+ * manager and the write paths still use JPA, so the difference is the cost of
+ * the repository layer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@Fork(value = 3, jvmArgs = { "-Xms512m", "-Xmx512m" })
+public class ProductRepositoryStartupBenchmark {
+
+    private final AtomicInteger databases = new AtomicInteger();
+
+    @Param({ "jpa", "jdbc" })
+    private String type;
+
+    private ConfigurableApplicationContext context;
+
+    @Benchmark
+    public Object startup() {
+        context = new SpringApplicationBuilder(DemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:startup" + databases.incrementAndGet(),
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "product.repository.type=" + type)
+                .run();
+        return context.getBean(ProductRepository.class).findById(1);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        if (context != null) {
+            context.close();
+            context = null;
+        }
+    }
+}
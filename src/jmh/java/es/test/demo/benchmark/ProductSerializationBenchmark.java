@@ -0,0 +1,98 @@
+package es.test.demo.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import es.test.demo.model.ProductDTO;
+
+/**
+ * ProductSerializationBenchmark
+ * Jackson serialization of product lists, as written by the listing endpoints,
+ * in JSON and in the binary formats negotiated by
+ * {@link es.test.demo.config.BinaryFormatConfig}.
+ * <p>
+ * The payload size of each format and list size is reported as the
+ * {@code bytes} secondary result of {@link #writeList(PayloadSize)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductSerializationBenchmark {
+
+    @Param({ "20", "100", "1000" })
+    private int listSize;
+
+    @Param({ "json", "cbor", "smile" })
+    private String format;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private List<ProductDTO> products;
+    private byte[] payload;
+
+    @Setup
+    public void setup() throws JsonProcessingException {
+        final ObjectMapper objectMapper = new ObjectMapper(factory(format));
+        final JavaType listType = objectMapper.getTypeFactory().constructCollectionType(List.class, ProductDTO.class);
+        writer = objectMapper.writerFor(listType);
+        reader = objectMapper.readerFor(listType);
+        products = BenchmarkProducts.dtos(listSize);
+        payload = writer.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] writeList(final PayloadSize size) throws JsonProcessingException {
+        final byte[] written = writer.writeValueAsBytes(products);
+        size.bytes = written.length;
+        return written;
+    }
+
+    @Benchmark
+    public List<ProductDTO> readList() throws IOException {
+        return reader.readValue(payload);
+    }
+
+    /**
+     * Size of the last payload written, reported next to the timings.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadSize {
+
+        public long bytes;
+    }
+
+    private static JsonFactory factory(final String format) {
+        return switch (format) {
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default -> new JsonFactory();
+        };
+    }
+}
@@ -0,0 +1,128 @@
+package es.test.demo.benchmark;
+
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import es.test.demo.DemoApplication;
+import es.test.demo.loadtest.ProductSeeder;
+import es.test.demo.model.ProductDTO;
+import es.test.demo.model.ProductField;
+import es.test.demo.model.ProductPageDTO;
+import es.test.demo.model.ProductSort;
+import es.test.demo.repository.ProductRepository;
+import es.test.demo.service.ProductCursor;
+import es.test.demo.service.ProductService;
+
+/**
+ * ProductServiceBenchmark
+ * Service and repository read paths against an H2 database seeded with
+ * {@code rows} products.
+ * <p>
+ * The application context is started without a web server and the in-memory
+ * indexes are disabled, so the numbers cover the JPA path only. Reads by ID
+ * pick random products; with a large catalog most of them miss the cache.
+ * The large page benchmarks read the maximum page size with every field and
+ * with a three-field projection; run them with {@code -prof gc} to compare the
+ * bytes allocated per page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class ProductServiceBenchmark {
+
+    private static final int LARGE_PAGE = 100;
+    private static final Set<ProductField> PROJECTED_FIELDS = ProductField.fromValues("id,name,price");
+
+    @Param({ "1000", "100000", "1000000" })
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private ProductRepository productRepository;
+    private String deepCursor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(DemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.sql.init.mode=never",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "product.search.enabled=false",
+                        "product.price-index.enabled=false")
+                .run();
+        productService = context.getBean(ProductService.class);
+        productRepository = context.getBean(ProductRepository.class);
+        ProductSeeder.seed(context, rows);
+
+        // Start listings half way through the catalog, as a client paging deep would
+        deepCursor = ProductCursor.after(ProductSort.ID, BenchmarkProducts.dto(rows / 2)).encode();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ProductDTO getProductById() {
+        return productService.getProductById(randomId());
+    }
+
+    @Benchmark
+    public Object findByIdUncached() {
+        return productRepository.findById(randomId());
+    }
+
+    @Benchmark
+    public ProductPageDTO getProductsFirstPage() {
+        return productService.getProducts(ProductSort.ID, null, 20);
+    }
+
+    @Benchmark
+    public ProductPageDTO getProductsDeepPage() {
+        return productService.getProducts(null, deepCursor, 20);
+    }
+
+    @Benchmark
+    public ProductPageDTO getProductsLargePage() {
+        return productService.getProducts(ProductSort.ID, null, LARGE_PAGE);
+    }
+
+    @Benchmark
+    public ProductPageDTO getProductsLargePageProjected() {
+        return productService.getProducts(ProductSort.ID, null, LARGE_PAGE, PROJECTED_FIELDS);
+    }
+
+    @Benchmark
+    public ProductPageDTO getProductsByPrice() {
+        return productService.getProducts(ProductSort.PRICE, null, 20);
+    }
+
+    private int randomId() {
+        return ThreadLocalRandom.current().nextInt(1, rows + 1);
+    }
+}
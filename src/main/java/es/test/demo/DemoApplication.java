@@ -2,12 +2,21 @@ package es.test.demo;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 /**
  * {@link DemoApplication}
  * Main class, main entry point for the application
+ * <p>
+ * The R2DBC auto-configuration is excluded: the reactive API opens its own
+ * connection pool (see {@link es.test.demo.repository.ReactiveProductRepository}),
+ * so no {@code ConnectionFactory} or reactive transaction manager bean competes
+ * with the JPA ones.
  */
-@SpringBootApplication
+@SpringBootApplication(exclude = { R2dbcAutoConfiguration.class, R2dbcTransactionManagerAutoConfiguration.class })
+@ConfigurationPropertiesScan
 public class DemoApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,144 @@
+package es.test.demo.concurrent;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * {@link SingleFlight}
+ * Coalesces concurrent loads of the same key into a single call.
+ * <p>
+ * The first caller for a key runs the loader; callers arriving while it runs
+ * wait for its outcome instead of loading again, and receive the same value or
+ * the same exception. The key is released as soon as the load completes, so a
+ * failed load is never reused and the next caller tries again.
+ * <p>
+ * Waiting is bounded: a caller whose leader does not finish in time gets the
+ * exception built by the configured supplier. The loader itself runs on the
+ * caller's thread and never under a lock, so it is safe for virtual threads.
+ *
+ * @param <K> the type of the keys.
+ * @param <V> the type of the loaded values.
+ */
+public class SingleFlight<K, V> implements MeterBinder {
+
+    private final String name;
+    private final Duration maxWait;
+    private final Supplier<? extends RuntimeException> timeoutException;
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    /**
+     * @param name             the prefix of the published metrics.
+     * @param maxWait          how long a caller waits for a load started by
+     *                         another one.
+     * @param timeoutException builds the exception thrown when that wait times
+     *                         out.
+     */
+    public SingleFlight(final String name, final Duration maxWait,
+            final Supplier<? extends RuntimeException> timeoutException) {
+        this.name = name;
+        this.maxWait = maxWait;
+        this.timeoutException = timeoutException;
+    }
+
+    /**
+     * Loads the value of a key, sharing the load with concurrent callers.
+     *
+     * @param key    the key to load.
+     * @param loader loads the value, only called when no load of the same key
+     *               is in flight.
+     * @return the loaded value.
+     */
+    public V load(final K key, final Supplier<V> loader) {
+        final CompletableFuture<V> flight = new CompletableFuture<>();
+        final CompletableFuture<V> leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            coalesced.increment();
+            return await(leader);
+        }
+
+        loads.increment();
+        try {
+            final V value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Number of loads actually run.
+     */
+    public long loads() {
+        return loads.sum();
+    }
+
+    /**
+     * Number of calls served by a load started by another caller.
+     */
+    public long coalesced() {
+        return coalesced.sum();
+    }
+
+    /**
+     * Number of calls that gave up waiting for another caller's load.
+     */
+    public long timeouts() {
+        return timeouts.sum();
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        FunctionCounter.builder(name + ".loads", loads, LongAdder::sum)
+                .description("Loads run by the first caller of a key")
+                .register(registry);
+        FunctionCounter.builder(name + ".coalesced", coalesced, LongAdder::sum)
+                .description("Calls that shared a load already in flight")
+                .register(registry);
+        FunctionCounter.builder(name + ".timeouts", timeouts, LongAdder::sum)
+                .description("Calls that gave up waiting for a shared load")
+                .register(registry);
+        Gauge.builder(name + ".in.flight", inFlight, ConcurrentMap::size)
+                .description("Keys being loaded")
+                .register(registry);
+    }
+
+    private V await(final CompletableFuture<V> leader) {
+        try {
+            return leader.get(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            throw timeoutException.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw timeoutException.get();
+        } catch (ExecutionException e) {
+            // Rethrow what the leader got, so every caller sees the same outcome
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
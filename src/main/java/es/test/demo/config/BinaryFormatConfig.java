@@ -0,0 +1,54 @@
+package es.test.demo.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * {@link BinaryFormatConfig}
+ * Registers the binary formats the product endpoints can read and write
+ * besides JSON: CBOR ({@code application/cbor}) and Smile
+ * ({@code application/x-jackson-smile}), selected by the {@code Accept} and
+ * {@code Content-Type} headers.
+ * <p>
+ * Both encode numbers in binary and Smile also back-references repeated field
+ * names, which makes large listings cheaper to write and smaller on the wire
+ * for service-to-service callers.
+ * <p>
+ * The converters are built from the Spring Boot configured
+ * {@link Jackson2ObjectMapperBuilder}, so they honour the same
+ * {@code spring.jackson.*} settings as JSON. Spring Boot puts them in place of
+ * the default CBOR and Smile converters, after the JSON one, so JSON stays the
+ * answer to requests without an {@code Accept} header or accepting anything.
+ */
+@Configuration
+public class BinaryFormatConfig {
+
+    /**
+     * Media type of Smile, which Spring does not declare as a constant.
+     */
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    /**
+     * Media type of Smile.
+     */
+    public static final MediaType APPLICATION_SMILE = MediaType.valueOf(APPLICATION_SMILE_VALUE);
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(
+            final Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        return new MappingJackson2CborHttpMessageConverter(objectMapperBuilder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(
+            final Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        return new MappingJackson2SmileHttpMessageConverter(objectMapperBuilder.factory(new SmileFactory()).build());
+    }
+}
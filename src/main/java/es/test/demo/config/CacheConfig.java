@@ -0,0 +1,40 @@
+package es.test.demo.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import es.test.demo.concurrent.SingleFlight;
+import es.test.demo.exception.product.ProductLoadTimeoutException;
+import es.test.demo.model.ProductDTO;
+
+/**
+ * {@link CacheConfig}
+ * Enables Spring's cache abstraction, backed by Caffeine.
+ * <p>
+ * Caffeine evicts with W-TinyLFU, so the size bound keeps the most frequently
+ * read products. Size, TTL and statistics recording are set through
+ * {@code spring.cache.caffeine.spec}, and hit, miss and eviction counts are
+ * published as {@code cache.*} metrics on the Actuator endpoints.
+ * <p>
+ * Cache misses for the same product are coalesced by {@link SingleFlight}, so
+ * a burst of reads of a cold product runs a single query; the number of shared
+ * loads is published as {@code product.load.*} metrics.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /**
+     * Cache of {@link es.test.demo.model.ProductDTO} keyed by product ID.
+     */
+    public static final String PRODUCTS = "products";
+
+    private static final String LOAD_TIMEOUT = "Timed out waiting for the product to be loaded";
+
+    @Bean
+    public SingleFlight<Integer, ProductDTO> productLoads(final ProductLoadProperties loadProperties) {
+        return new SingleFlight<>("product.load", loadProperties.maxWait(),
+                () -> new ProductLoadTimeoutException(LOAD_TIMEOUT));
+    }
+}
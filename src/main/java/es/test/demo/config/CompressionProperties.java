@@ -0,0 +1,30 @@
+package es.test.demo.config;
+
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * {@link CompressionProperties}
+ * Settings for the gzip compression of responses, bound from the
+ * {@code product.compression} prefix.
+ *
+ * @param enabled         whether responses are compressed for clients sending
+ *                        {@code Accept-Encoding: gzip}.
+ * @param level           the deflate level, from 1 (fastest) to 9 (smallest).
+ * @param minResponseSize the smallest body worth compressing; shorter bodies
+ *                        are sent as they are.
+ * @param mimeTypes       the content types to compress. Binary formats such
+ *                        as CBOR and streams such as Server-Sent Events are
+ *                        left out by default.
+ */
+@ConfigurationProperties(prefix = "product.compression")
+public record CompressionProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("6") int level,
+        @DefaultValue("2KB") DataSize minResponseSize,
+        @DefaultValue({ "application/json", "application/x-ndjson", "application/problem+json",
+                "text/plain" }) List<String> mimeTypes) {
+}
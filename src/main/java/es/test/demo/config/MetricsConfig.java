@@ -0,0 +1,43 @@
+package es.test.demo.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import es.test.demo.filter.StatementMetricsFilter;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * {@link MetricsConfig}
+ * Application metrics on top of the ones Actuator records out of the box.
+ * <p>
+ * {@link TimedAspect} times every method of the beans annotated with
+ * {@link io.micrometer.core.annotation.Timed}, such as the product service.
+ * Repository calls are timed by Spring Data as
+ * {@code spring.data.repository.invocations}, and every SQL statement prepared
+ * by Hibernate is counted against the current request by
+ * {@link StatementMetricsFilter}.
+ * <p>
+ * Micrometer records into striped counters and lock-free histograms, so
+ * measuring adds no contention to the request path.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(final MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCountingCustomizer() {
+        final StatementInspector inspector = sql -> {
+            StatementMetricsFilter.countStatement();
+            return sql;
+        };
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+    }
+}
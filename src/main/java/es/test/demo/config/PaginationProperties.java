@@ -0,0 +1,42 @@
+package es.test.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import es.test.demo.exception.product.InvalidPageRequestException;
+
+/**
+ * {@link PaginationProperties}
+ * Page size settings for the product listing, bound from the
+ * {@code product.pagination} prefix.
+ *
+ * @param defaultPageSize the page size used when the client does not request
+ *                        one.
+ * @param maxPageSize     the upper bound applied to any requested page size.
+ */
+@ConfigurationProperties(prefix = "product.pagination")
+public record PaginationProperties(
+        @DefaultValue("20") int defaultPageSize,
+        @DefaultValue("100") int maxPageSize) {
+
+    /**
+     * Resolves the effective page size for a request.
+     * <p>
+     * Falls back to {@link #defaultPageSize()} when no size is requested and caps
+     * the result at {@link #maxPageSize()}.
+     *
+     * @param requested the page size requested by the client, may be
+     *                  {@code null}.
+     * @return the page size to use.
+     * @throws InvalidPageRequestException if the requested size is lower than 1.
+     */
+    public int resolvePageSize(final Integer requested) {
+        if (requested == null) {
+            return Math.min(defaultPageSize, maxPageSize);
+        }
+        if (requested < 1) {
+            throw new InvalidPageRequestException("The page size must be greater than 0");
+        }
+        return Math.min(requested, maxPageSize);
+    }
+}
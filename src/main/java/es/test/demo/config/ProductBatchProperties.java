@@ -0,0 +1,17 @@
+package es.test.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * {@link ProductBatchProperties}
+ * Settings for bulk product creation, bound from the {@code product.batch}
+ * prefix.
+ *
+ * @param chunkSize the number of products written and committed per
+ *                  transaction. Each chunk is sent to the database in JDBC
+ *                  batches of {@code hibernate.jdbc.batch_size} statements.
+ */
+@ConfigurationProperties(prefix = "product.batch")
+public record ProductBatchProperties(@DefaultValue("500") int chunkSize) {
+}
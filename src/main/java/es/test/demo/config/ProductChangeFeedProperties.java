@@ -0,0 +1,27 @@
+package es.test.demo.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * {@link ProductChangeFeedProperties}
+ * Settings for the Server-Sent Events feed of product changes, bound from the
+ * {@code product.changes} prefix.
+ *
+ * @param bufferSize        the number of latest changes kept in memory, which
+ *                          bounds how far back a client can resume with
+ *                          {@code Last-Event-ID}.
+ * @param subscriberBuffer  the number of changes a subscriber may fall behind
+ *                          before it is disconnected.
+ * @param heartbeatInterval how often an idle stream sends a comment, which
+ *                          keeps proxies from closing it and detects gone
+ *                          clients.
+ */
+@ConfigurationProperties(prefix = "product.changes")
+public record ProductChangeFeedProperties(
+        @DefaultValue("10000") int bufferSize,
+        @DefaultValue("1000") int subscriberBuffer,
+        @DefaultValue("15s") Duration heartbeatInterval) {
+}
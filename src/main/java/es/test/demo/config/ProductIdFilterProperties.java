@@ -0,0 +1,30 @@
+package es.test.demo.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * {@link ProductIdFilterProperties}
+ * Settings for the filter of existing product IDs, bound from the
+ * {@code product.id-filter} prefix.
+ *
+ * @param enabled           whether reads of unknown IDs are answered without
+ *                          querying the database.
+ * @param expectedProducts  the minimum number of IDs the filter is sized for;
+ *                          each rebuild sizes it for twice the current catalog
+ *                          if that is larger.
+ * @param falsePositiveRate the target rate of unknown IDs still sent to the
+ *                          database. Lower rates use more memory: about 1.2
+ *                          bytes per product at 1%, 1.8 bytes at 0.1%.
+ * @param rebuildInterval   how often the filter is rebuilt to forget deleted
+ *                          products.
+ */
+@ConfigurationProperties(prefix = "product.id-filter")
+public record ProductIdFilterProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("1000000") long expectedProducts,
+        @DefaultValue("0.01") double falsePositiveRate,
+        @DefaultValue("PT10M") Duration rebuildInterval) {
+}
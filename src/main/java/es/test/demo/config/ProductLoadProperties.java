@@ -0,0 +1,19 @@
+package es.test.demo.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * {@link ProductLoadProperties}
+ * Settings for coalescing concurrent reads of the same product, bound from
+ * the {@code product.load} prefix.
+ *
+ * @param maxWait how long a read waits for the same product being loaded by
+ *                another request before failing with 503.
+ */
+@ConfigurationProperties(prefix = "product.load")
+public record ProductLoadProperties(
+        @DefaultValue("2s") Duration maxWait) {
+}
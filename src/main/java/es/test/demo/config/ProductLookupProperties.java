@@ -0,0 +1,19 @@
+package es.test.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * {@link ProductLookupProperties}
+ * Settings for fetching many products by ID, bound from the
+ * {@code product.lookup} prefix.
+ *
+ * @param maxIds    the maximum number of IDs accepted in a single lookup.
+ * @param chunkSize the maximum number of IDs sent in a single {@code IN}
+ *                  list; larger lookups run one query per chunk.
+ */
+@ConfigurationProperties(prefix = "product.lookup")
+public record ProductLookupProperties(
+        @DefaultValue("1000") int maxIds,
+        @DefaultValue("500") int chunkSize) {
+}
@@ -0,0 +1,17 @@
+package es.test.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * {@link ProductPriceIndexProperties}
+ * Settings for the in-memory price index, bound from the
+ * {@code product.price-index} prefix.
+ *
+ * @param enabled whether the price index is built and kept up to date. When
+ *                disabled, price listings are answered by the database.
+ */
+@ConfigurationProperties(prefix = "product.price-index")
+public record ProductPriceIndexProperties(
+        @DefaultValue("true") boolean enabled) {
+}
@@ -0,0 +1,34 @@
+package es.test.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * {@link ProductRepositoryProperties}
+ * Settings for the product persistence layer, bound from the
+ * {@code product.repository} prefix.
+ *
+ * @param type      the {@link es.test.demo.repository.ProductRepository}
+ *                  implementation: Hibernate ({@code jpa}) or plain SQL
+ *                  ({@code jdbc}).
+ * @param batchSize the number of statements per JDBC batch of the {@code jdbc}
+ *                  implementation, like {@code hibernate.jdbc.batch_size} for
+ *                  the {@code jpa} one.
+ * @param fetchSize the number of rows fetched per round trip when the
+ *                  {@code jdbc} implementation streams the catalog.
+ */
+@ConfigurationProperties(prefix = "product.repository")
+public record ProductRepositoryProperties(
+        @DefaultValue("jpa") Type type,
+        @DefaultValue("50") int batchSize,
+        @DefaultValue("500") int fetchSize) {
+
+    /**
+     * The available {@link es.test.demo.repository.ProductRepository}
+     * implementations.
+     */
+    public enum Type {
+        JPA,
+        JDBC
+    }
+}
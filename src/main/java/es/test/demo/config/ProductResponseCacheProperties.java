@@ -0,0 +1,25 @@
+package es.test.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * {@link ProductResponseCacheProperties}
+ * Settings for the cache of serialized product responses, bound from the
+ * {@code product.response-cache} prefix.
+ *
+ * @param enabled      whether JSON responses of product and page reads are
+ *                     kept already serialized.
+ * @param maxProducts  the maximum number of product responses kept.
+ * @param maxPages     the maximum number of page responses kept.
+ * @param gzip         whether a gzip-compressed copy of each response is
+ *                     kept too, for clients sending
+ *                     {@code Accept-Encoding: gzip}.
+ */
+@ConfigurationProperties(prefix = "product.response-cache")
+public record ProductResponseCacheProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("10000") long maxProducts,
+        @DefaultValue("1000") long maxPages,
+        @DefaultValue("false") boolean gzip) {
+}
@@ -0,0 +1,41 @@
+package es.test.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import es.test.demo.exception.product.InvalidPageRequestException;
+
+/**
+ * {@link ProductSearchProperties}
+ * Settings for the in-memory full-text search, bound from the
+ * {@code product.search} prefix.
+ *
+ * @param enabled      whether the search index is built and kept up to date.
+ * @param defaultLimit the number of results returned when the client does not
+ *                     request one.
+ * @param maxLimit     the upper bound applied to any requested number of
+ *                     results.
+ */
+@ConfigurationProperties(prefix = "product.search")
+public record ProductSearchProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("20") int defaultLimit,
+        @DefaultValue("100") int maxLimit) {
+
+    /**
+     * Resolves the effective number of results for a search.
+     *
+     * @param requested the limit requested by the client, may be {@code null}.
+     * @return the number of results to return.
+     * @throws InvalidPageRequestException if the requested limit is lower than 1.
+     */
+    public int resolveLimit(final Integer requested) {
+        if (requested == null) {
+            return Math.min(defaultLimit, maxLimit);
+        }
+        if (requested < 1) {
+            throw new InvalidPageRequestException("The search limit must be greater than 0");
+        }
+        return Math.min(requested, maxLimit);
+    }
+}
@@ -0,0 +1,27 @@
+package es.test.demo.config;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * {@link ProductStatsProperties}
+ * Settings for the catalog statistics, bound from the {@code product.stats}
+ * prefix.
+ *
+ * @param enabled           whether the statistics are loaded and kept up to
+ *                          date.
+ * @param histogramBounds   the inclusive upper bounds of the price histogram
+ *                          buckets, ascending; one more bucket counts the
+ *                          prices above the last bound.
+ * @param reconcileInterval how often the statistics are checked against a SQL
+ *                          aggregate and rebuilt if they drifted.
+ */
+@ConfigurationProperties(prefix = "product.stats")
+public record ProductStatsProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue({ "10", "50", "100", "500", "1000" }) List<Double> histogramBounds,
+        @DefaultValue("PT5M") Duration reconcileInterval) {
+}
@@ -0,0 +1,37 @@
+package es.test.demo.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * {@link ProductWriteBehindProperties}
+ * Settings for the asynchronous write-behind mode of product creations and
+ * updates, bound from the {@code product.write-behind} prefix.
+ *
+ * @param enabled          whether requests sending {@code Prefer: respond-async}
+ *                         are queued and acknowledged with 202 (Accepted).
+ *                         When disabled the preference is ignored and every
+ *                         write is applied synchronously.
+ * @param queueCapacity    the maximum number of writes waiting to be applied.
+ *                         Further writes are rejected with 503 (Service
+ *                         Unavailable) until the queue drains.
+ * @param batchSize        the maximum number of writes committed in one
+ *                         transaction.
+ * @param statusRetention  how long the status of a write can be queried after
+ *                         it was accepted.
+ * @param statusCapacity   the maximum number of write statuses kept; the
+ *                         oldest are forgotten first.
+ * @param shutdownTimeout  how long shutdown waits for the queued writes to be
+ *                         applied.
+ */
+@ConfigurationProperties(prefix = "product.write-behind")
+public record ProductWriteBehindProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("10000") int queueCapacity,
+        @DefaultValue("500") int batchSize,
+        @DefaultValue("10m") Duration statusRetention,
+        @DefaultValue("100000") long statusCapacity,
+        @DefaultValue("30s") Duration shutdownTimeout) {
+}
@@ -0,0 +1,31 @@
+package es.test.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * {@link ReactiveProductProperties}
+ * Settings for the reactive product API, bound from the
+ * {@code product.reactive} prefix.
+ *
+ * @param enabled        whether the reactive API is started next to the
+ *                       servlet one.
+ * @param port           the port of the reactive API.
+ * @param url            the R2DBC URL of the database, which must be the one
+ *                       of the JPA data source.
+ * @param username       the database user.
+ * @param password       the database password.
+ * @param maxConnections the size of the R2DBC connection pool.
+ * @param exportPrefetch the number of rows requested ahead while streaming the
+ *                       catalog export.
+ */
+@ConfigurationProperties(prefix = "product.reactive")
+public record ReactiveProductProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("8081") int port,
+        @DefaultValue("r2dbc:h2:mem:///testdb") String url,
+        @DefaultValue("sa") String username,
+        @DefaultValue("") String password,
+        @DefaultValue("16") int maxConnections,
+        @DefaultValue("256") int exportPrefetch) {
+}
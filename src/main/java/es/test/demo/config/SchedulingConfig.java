@@ -0,0 +1,15 @@
+package es.test.demo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * {@link SchedulingConfig}
+ * Enables the {@link org.springframework.scheduling.annotation.Scheduled}
+ * maintenance tasks, such as the periodic rebuild of
+ * {@link es.test.demo.index.ProductIdFilter}.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,20 +1,51 @@
 package es.test.demo.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.util.List;
+import java.util.Set;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import es.test.demo.config.BinaryFormatConfig;
+import es.test.demo.event.ProductChangeFeed;
+import es.test.demo.exception.product.InvalidPageRequestException;
+import es.test.demo.model.ProductBatchResultDTO;
+import es.test.demo.model.ProductChangeDTO;
 import es.test.demo.model.ProductDTO;
+import es.test.demo.model.ProductField;
+import es.test.demo.model.ProductLookupDTO;
+import es.test.demo.model.ProductPageDTO;
+import es.test.demo.model.ProductSort;
+import es.test.demo.model.ProductStatsDTO;
+import es.test.demo.model.ProductWriteDTO;
 import es.test.demo.service.ProductService;
+import es.test.demo.service.ProductWriteBehind;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
@@ -25,42 +56,251 @@ import lombok.RequiredArgsConstructor;
  * {@link ProductDTO}.
  * <p>
  * Delegates all business logic to {@link ProductService}.
+ * <p>
+ * Products and pages are sent with a strong {@code ETag}. Spring answers GET
+ * requests whose {@code If-None-Match} matches it with 304 (Not Modified)
+ * before the body is serialized, and {@code If-Match} on PUT and DELETE turns
+ * them into conditional operations that fail with 412 (Precondition Failed).
+ * <p>
+ * When the write-behind mode is enabled, creations and updates sending
+ * {@code Prefer: respond-async} are queued by {@link ProductWriteBehind} and
+ * answered with 202 (Accepted) and the location of their status.
+ * <p>
+ * Requests and responses are JSON by default, and CBOR or Smile when the
+ * client asks for them through {@code Content-Type} and {@code Accept} (see
+ * {@link BinaryFormatConfig}). The export and the change feed are JSON only.
+ * <p>
+ * When enabled, JSON responses of product and page reads are served from the
+ * already serialized bodies of {@link ProductResponseCache}.
  */
 @RestController
 @RequestMapping("/product")
 @RequiredArgsConstructor
 public class ProductController {
 
+    private static final String PREFER = "Prefer";
+    private static final String RESPOND_ASYNC = "respond-async";
+    private static final String WRITES_PATH = "/product/writes/";
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+
     private final ProductService productService;
+    private final ObjectMapper objectMapper;
+    private final ProductWriteBehind writeBehind;
+    private final ProductChangeFeed changeFeed;
+    private final MappingJackson2CborHttpMessageConverter cborConverter;
+    private final MappingJackson2SmileHttpMessageConverter smileConverter;
+    private final ProductResponseCache responseCache;
 
     /**
-     * Retrieves all products.
+     * Retrieves a page of products.
+     * <p>
+     * Pages are keyset paginated: the {@code nextCursor} of a response is sent
+     * back as {@code cursor} to fetch the following page.
      *
-     * @return a {@link ResponseEntity} containing an {@link List} of
-     *         {@link ProductDTO}
-     *         with HTTP status 200 (OK).
+     * When {@code minPrice} or {@code maxPrice} is given, only the products in
+     * that inclusive price range are listed, cheapest first.
+     *
+     * @param sort           the sort order ("id", "price" or "name"), optional.
+     *                       Must be "price" or absent when filtering by price.
+     * @param minPrice       the lowest price to list, optional.
+     * @param maxPrice       the highest price to list, optional.
+     * @param cursor         the continuation token of the previous page,
+     *                       optional.
+     * @param limit          the page size, optional and capped by the
+     *                       configuration.
+     * @param fields         the comma-separated fields to include (e.g.,
+     *                       "id,name,price"), optional. The ID and version are
+     *                       always included.
+     * @param accept         the {@code Accept} header, optional.
+     * @param acceptEncoding the {@code Accept-Encoding} header, optional.
+     * @return a {@link ResponseEntity} containing a {@link ProductPageDTO} with
+     *         HTTP status 200 (OK), or 304 (Not Modified) when the page matches
+     *         {@code If-None-Match}.
+     * @throws InvalidPageRequestException if the cursor, sort order, price range,
+     *                                     page size or fields are not valid.
      */
     @GetMapping
-    public ResponseEntity<List<ProductDTO>> getAllProducts() {
+    public ResponseEntity<?> getAllProducts(
+            @RequestParam(name = "sort", required = false) final String sort,
+            @RequestParam(name = "minPrice", required = false) final Double minPrice,
+            @RequestParam(name = "maxPrice", required = false) final Double maxPrice,
+            @RequestParam(name = "cursor", required = false) final String cursor,
+            @RequestParam(name = "limit", required = false) final Integer limit,
+            @RequestParam(name = "fields", required = false) final String fields,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) final String accept,
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) final String acceptEncoding) {
+        if (!responseCache.serves(accept)) {
+            return getPage(sort, minPrice, maxPrice, cursor, limit, fields);
+        }
+        final ProductResponseCache.PageKey key = new ProductResponseCache.PageKey(sort, minPrice, maxPrice, cursor,
+                limit, fields);
+        final long generation = responseCache.generation();
+        ProductResponseCache.CachedResponse cached = responseCache.getPage(key);
+        if (cached == null) {
+            final ResponseEntity<ProductPageDTO> page = getPage(sort, minPrice, maxPrice, cursor, limit, fields);
+            cached = responseCache.putPage(key, generation, page.getBody(), page.getHeaders().getETag());
+        }
+        return cached.toResponse(acceptEncoding);
+    }
+
+    /**
+     * Retrieves many products by their IDs in a single call.
+     *
+     * @param ids the IDs of the products to retrieve (e.g., "?ids=1,2,3").
+     * @return a {@link ResponseEntity} containing a {@link ProductLookupDTO} with
+     *         HTTP status 200 (OK).
+     * @throws InvalidLookupRequestException if more IDs than allowed are
+     *                                       requested.
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<ProductLookupDTO> getProductsByIds(@RequestParam(name = "ids") final List<Integer> ids) {
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(productService.getProductsByIds(ids));
+    }
+
+    /**
+     * Retrieves many products by their IDs, sent as a JSON array in the body.
+     * <p>
+     * Same as {@link #getProductsByIds(List)}, for ID lists too long for a URL.
+     *
+     * @param ids the IDs of the products to retrieve.
+     * @return a {@link ResponseEntity} containing a {@link ProductLookupDTO} with
+     *         HTTP status 200 (OK).
+     * @throws InvalidLookupRequestException if more IDs than allowed are
+     *                                       requested.
+     */
+    @PostMapping("/lookup")
+    public ResponseEntity<ProductLookupDTO> lookupProducts(@RequestBody final List<Integer> ids) {
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(productService.getProductsByIds(ids));
+    }
+
+    /**
+     * Searches the products by name and description.
+     * <p>
+     * Only products containing every term of the query match, ranked by how
+     * often the terms appear in them; matches in the name weigh more.
+     *
+     * @param query the free text query.
+     * @param limit the maximum number of results, optional and capped by the
+     *              configuration.
+     * @return a {@link ResponseEntity} containing the matching
+     *         {@link ProductDTO}, best match first, with HTTP status 200 (OK).
+     * @throws ProductIndexNotReadyException if the search index is not available
+     *                                       yet.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductDTO>> searchProducts(
+            @RequestParam(name = "q") final String query,
+            @RequestParam(name = "limit", required = false) final Integer limit) {
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(productService.searchProducts(query, limit));
+    }
+
+    /**
+     * Retrieves the catalog statistics.
+     * <p>
+     * The statistics are maintained in memory as products change, so this
+     * costs the same whatever the catalog size.
+     *
+     * @return a {@link ResponseEntity} containing the {@link ProductStatsDTO}
+     *         with HTTP status 200 (OK).
+     * @throws ProductIndexNotReadyException if the statistics are not available
+     *                                       yet.
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<ProductStatsDTO> getStats() {
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(productService.getStats());
+    }
+
+    /**
+     * Exports the whole catalog as newline-delimited JSON.
+     * <p>
+     * Each product is serialized straight to the response as it is read from the
+     * database, so the body is never held in memory and the first bytes leave as
+     * soon as the first rows are fetched.
+     *
+     * @return a {@link ResponseEntity} containing a {@link StreamingResponseBody}
+     *         that writes one {@link ProductDTO} per line, with HTTP status 200
+     *         (OK).
+     */
+    @GetMapping(path = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportProducts() {
+        final ObjectWriter writer = objectMapper.writerFor(ProductDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        final StreamingResponseBody body = output -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(output)) {
+                generator.setRootValueSeparator(null);
+                productService.exportProducts(product -> {
+                    try {
+                        writer.writeValue(generator, product);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
         return ResponseEntity
                 .status(HttpStatus.OK)
-                .body(productService.getProducts());
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Streams the product changes as Server-Sent Events.
+     * <p>
+     * Each creation, update and deletion is sent once committed as a
+     * {@code created}, {@code updated} or {@code deleted} event whose ID is
+     * {@code <epoch>-<sequence>} and whose data is a {@link ProductChangeDTO}.
+     * A client reconnecting with {@code Last-Event-ID} first receives the
+     * changes it missed, or a {@code reset} event when they are no longer
+     * available or the application restarted since.
+     *
+     * @param lastEventId the ID of the last event received, optional.
+     * @return the {@link SseEmitter} of the stream.
+     */
+    @GetMapping(path = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @RequestHeader(name = LAST_EVENT_ID, required = false) final String lastEventId) {
+        return changeFeed.subscribe(lastEventId);
     }
 
     /**
      * Retrieves a product by its ID.
      *
-     * @param id the ID of the product to retrieve.
+     * @param id             the ID of the product to retrieve.
+     * @param accept         the {@code Accept} header, optional.
+     * @param acceptEncoding the {@code Accept-Encoding} header, optional.
      * @return a {@link ResponseEntity} containing the {@link ProductDTO} with HTTP
-     *         status 200 (OK).
+     *         status 200 (OK), or 304 (Not Modified) when the product matches
+     *         {@code If-None-Match}.
      * @throws ProductNotFoundException if no product is found with the specified
      *                                  ID.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<ProductDTO> getProductById(@PathVariable(name = "id", required = true) final Integer id) {
-        return ResponseEntity
-                .status(HttpStatus.OK)
-                .body(productService.getProductById(id));
+    public ResponseEntity<?> getProductById(@PathVariable(name = "id", required = true) final Integer id,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) final String accept,
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) final String acceptEncoding) {
+        if (!responseCache.serves(accept)) {
+            final ProductDTO product = productService.getProductById(id);
+            return ResponseEntity
+                    .status(HttpStatus.OK)
+                    .eTag(ProductETags.of(product))
+                    .body(product);
+        }
+        final long generation = responseCache.generation();
+        ProductResponseCache.CachedResponse cached = responseCache.getProduct(id);
+        if (cached == null) {
+            final ProductDTO product = productService.getProductById(id);
+            cached = responseCache.putProduct(id, generation, product, ProductETags.of(product));
+        }
+        return cached.toResponse(acceptEncoding);
     }
 
     /**
@@ -73,9 +313,60 @@ public class ProductController {
      */
     @PostMapping
     public ResponseEntity<ProductDTO> addProduct(@RequestBody @Valid final ProductDTO product) {
+        final ProductDTO created = productService.addProduct(product);
         return ResponseEntity
                 .status(HttpStatus.CREATED)
-                .body(productService.addProduct(product));
+                .eTag(ProductETags.of(created))
+                .body(created);
+    }
+
+    /**
+     * Adds a new product asynchronously.
+     * <p>
+     * The product is validated and queued, and stored later in a batch with
+     * other queued writes. Falls back to {@link #addProduct(ProductDTO)} when
+     * the write-behind mode is disabled.
+     *
+     * @param product a {@link ProductDTO} containing the details of the product to
+     *                add.
+     * @return a {@link ResponseEntity} containing the pending
+     *         {@link ProductWriteDTO} with HTTP status 202 (Accepted).
+     * @throws ProductWriteQueueFullException if too many writes are pending.
+     */
+    @PostMapping(headers = PREFER + "=" + RESPOND_ASYNC)
+    public ResponseEntity<?> addProductAsync(@RequestBody @Valid final ProductDTO product) {
+        if (!writeBehind.isEnabled()) {
+            return addProduct(product);
+        }
+        return accepted(writeBehind.submitCreate(product));
+    }
+
+    /**
+     * Adds many products in one request.
+     * <p>
+     * The body is either a JSON array or newline-delimited JSON objects, and it is
+     * read lazily while the products are stored in chunks. Invalid items are
+     * reported in the response without rolling back the valid ones. CBOR and
+     * Smile bodies hold an array or a sequence of products the same way.
+     *
+     * @param contentType the format of the request body.
+     * @param body        the request body.
+     * @return a {@link ResponseEntity} containing a
+     *         {@link ProductBatchResultDTO} with HTTP status 200 (OK).
+     * @throws IOException if the request body cannot be read.
+     */
+    @PostMapping(path = "/batch", consumes = { MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+            BinaryFormatConfig.APPLICATION_SMILE_VALUE })
+    public ResponseEntity<ProductBatchResultDTO> addProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) final MediaType contentType,
+            final InputStream body) throws IOException {
+        try (MappingIterator<ProductDTO> products = readerOf(contentType).readerFor(ProductDTO.class)
+                .readValues(body)) {
+            return ResponseEntity
+                    .status(HttpStatus.OK)
+                    .body(productService.addProducts(products));
+        }
     }
 
     /**
@@ -84,33 +375,131 @@ public class ProductController {
      * @param id      the ID of the product to update.
      * @param product a {@link ProductDTO} containing the updated details of the
      *                product.
+     * @param ifMatch the ETag the client last saw, optional.
      * @return a {@link ResponseEntity} containing the updated {@link ProductDTO}
      *         with HTTP status 200 (OK).
-     * @throws ProductNotFoundException if no product is found with the specified
-     *                                  ID.
+     * @throws ProductNotFoundException        if no product is found with the
+     *                                         specified ID.
+     * @throws ProductVersionMismatchException if {@code If-Match} does not match
+     *                                         the current product version.
      */
     @PutMapping("/{id}")
     public ResponseEntity<ProductDTO> updateProductById(
             @PathVariable(name = "id", required = true) final Integer id,
-            @RequestBody @Valid final ProductDTO product) {
+            @RequestBody @Valid final ProductDTO product,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) final String ifMatch) {
+        final ProductDTO updated = productService.updateProductById(product, id,
+                ProductETags.expectedVersion(ifMatch));
         return ResponseEntity
                 .status(HttpStatus.OK)
-                .body(productService.updateProductById(product, id));
+                .eTag(ProductETags.of(updated))
+                .body(updated);
+    }
+
+    /**
+     * Updates an existing product by its ID asynchronously.
+     * <p>
+     * The update is validated and queued, and applied later in a batch with
+     * other queued writes; a missing product or a version mismatch is reported
+     * in the status of the write. Falls back to
+     * {@link #updateProductById(Integer, ProductDTO, String)} when the
+     * write-behind mode is disabled.
+     *
+     * @param id      the ID of the product to update.
+     * @param product a {@link ProductDTO} containing the updated details of the
+     *                product.
+     * @param ifMatch the ETag the client last saw, optional.
+     * @return a {@link ResponseEntity} containing the pending
+     *         {@link ProductWriteDTO} with HTTP status 202 (Accepted).
+     * @throws ProductWriteQueueFullException if too many writes are pending.
+     */
+    @PutMapping(path = "/{id}", headers = PREFER + "=" + RESPOND_ASYNC)
+    public ResponseEntity<?> updateProductByIdAsync(
+            @PathVariable(name = "id", required = true) final Integer id,
+            @RequestBody @Valid final ProductDTO product,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) final String ifMatch) {
+        if (!writeBehind.isEnabled()) {
+            return updateProductById(id, product, ifMatch);
+        }
+        return accepted(writeBehind.submitUpdate(id, product, ProductETags.expectedVersion(ifMatch)));
+    }
+
+    /**
+     * Retrieves the status of a write accepted asynchronously.
+     *
+     * @param trackingId the tracking ID returned when the write was accepted.
+     * @return a {@link ResponseEntity} containing the {@link ProductWriteDTO} with
+     *         HTTP status 200 (OK).
+     * @throws ProductWriteNotFoundException if the tracking ID is unknown or has
+     *                                       expired.
+     */
+    @GetMapping("/writes/{trackingId}")
+    public ResponseEntity<ProductWriteDTO> getWriteStatus(
+            @PathVariable(name = "trackingId", required = true) final String trackingId) {
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(writeBehind.getStatus(trackingId));
     }
 
     /**
      * Deletes a product by its ID.
      *
-     * @param id the ID of the product to delete.
+     * @param id      the ID of the product to delete.
+     * @param ifMatch the ETag the client last saw, optional.
      * @return a {@link ResponseEntity} with HTTP status 204 (No Content).
-     * @throws ProductNotFoundException if no product is found with the specified
-     *                                  ID.
+     * @throws ProductNotFoundException        if no product is found with the
+     *                                         specified ID.
+     * @throws ProductVersionMismatchException if {@code If-Match} does not match
+     *                                         the current product version.
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteProductById(@PathVariable(name = "id", required = true) final Integer id) {
-        productService.deleteProductById(id);
+    public ResponseEntity<Void> deleteProductById(
+            @PathVariable(name = "id", required = true) final Integer id,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) final String ifMatch) {
+        productService.deleteProductById(id, ProductETags.expectedVersion(ifMatch));
         return ResponseEntity
                 .status(HttpStatus.NO_CONTENT)
                 .build();
     }
+
+    private static ResponseEntity<ProductWriteDTO> accepted(final ProductWriteDTO write) {
+        return ResponseEntity
+                .status(HttpStatus.ACCEPTED)
+                .location(URI.create(WRITES_PATH + write.getId()))
+                .header("Preference-Applied", RESPOND_ASYNC)
+                .body(write);
+    }
+
+    /**
+     * Loads and tags a page of products, see {@link #getAllProducts}.
+     */
+    private ResponseEntity<ProductPageDTO> getPage(final String sort, final Double minPrice, final Double maxPrice,
+            final String cursor, final Integer limit, final String fields) {
+        final ProductSort order = sort == null ? null : ProductSort.fromValue(sort);
+        final Set<ProductField> selected = ProductField.fromValues(fields);
+        final boolean priceRange = minPrice != null || maxPrice != null;
+        if (priceRange && order != null && order != ProductSort.PRICE) {
+            throw new InvalidPageRequestException("Price ranges can only be sorted by price");
+        }
+        final ProductPageDTO page = priceRange
+                ? productService.getProductsByPrice(minPrice, maxPrice, cursor, limit, selected)
+                : productService.getProducts(order, cursor, limit, selected);
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .eTag(ProductETags.of(page))
+                .body(page);
+    }
+
+    /**
+     * The {@link ObjectMapper} reading a batch body of the given format.
+     */
+    private ObjectMapper readerOf(final MediaType contentType) {
+        if (MediaType.APPLICATION_CBOR.isCompatibleWith(contentType)) {
+            return cborConverter.getObjectMapper();
+        }
+        if (BinaryFormatConfig.APPLICATION_SMILE.isCompatibleWith(contentType)) {
+            return smileConverter.getObjectMapper();
+        }
+        return objectMapper;
+    }
 }
@@ -0,0 +1,75 @@
+package es.test.demo.controller;
+
+import es.test.demo.exception.product.ProductVersionMismatchException;
+import es.test.demo.model.ProductDTO;
+import es.test.demo.model.ProductPageDTO;
+
+/**
+ * {@link ProductETags}
+ * Builds and parses the strong ETags exposed by {@link ProductController}.
+ * <p>
+ * A product ETag is its quoted version (e.g., {@code "3"}). A page ETag is a
+ * hash of the IDs and versions of its products and of its next cursor, so it
+ * changes whenever any product of the page does.
+ */
+final class ProductETags {
+
+    private static final String ANY = "*";
+    private static final String VERSION_MISMATCH = "The If-Match header does not match the product version";
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private ProductETags() {
+    }
+
+    /**
+     * Builds the ETag of a single product.
+     *
+     * @param product the {@link ProductDTO} to tag.
+     * @return the quoted version of the product.
+     */
+    static String of(final ProductDTO product) {
+        return "\"" + product.getVersion() + "\"";
+    }
+
+    /**
+     * Builds the ETag of a page of products.
+     *
+     * @param page the {@link ProductPageDTO} to tag.
+     * @return a quoted hash of the page content.
+     */
+    static String of(final ProductPageDTO page) {
+        long hash = FNV_OFFSET;
+        for (final ProductDTO product : page.getItems()) {
+            hash = (hash ^ product.getId()) * FNV_PRIME;
+            hash = (hash ^ product.getVersion()) * FNV_PRIME;
+        }
+        hash = (hash ^ (page.getNextCursor() == null ? 0 : page.getNextCursor().hashCode())) * FNV_PRIME;
+        return "\"" + Long.toHexString(hash) + "\"";
+    }
+
+    /**
+     * Extracts the expected product version from an {@code If-Match} header.
+     *
+     * @param ifMatch the header value, may be {@code null}.
+     * @return the expected version, or {@code null} when the request is not
+     *         conditional on a specific version (no header or {@code *}).
+     * @throws ProductVersionMismatchException if the header is not a single strong
+     *                                         ETag produced by this API, since
+     *                                         it can never match.
+     */
+    static Long expectedVersion(final String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ANY.equals(ifMatch.trim())) {
+            return null;
+        }
+        final String tag = ifMatch.trim();
+        if (tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            throw new ProductVersionMismatchException(VERSION_MISMATCH);
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new ProductVersionMismatchException(VERSION_MISMATCH);
+        }
+    }
+}
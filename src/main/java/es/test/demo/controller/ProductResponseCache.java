@@ -0,0 +1,247 @@
+package es.test.demo.controller;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import es.test.demo.config.ProductResponseCacheProperties;
+import es.test.demo.event.ProductChangedEvent;
+import es.test.demo.filter.CompressionFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * {@link ProductResponseCache}
+ * Cache of the JSON bodies of product and page reads, kept already serialized
+ * (and optionally gzip-compressed) so a hit skips the service, the mapper and
+ * Jackson: the cached array is handed to the response as is.
+ * <p>
+ * Only requests that would be answered with JSON use it; clients asking for
+ * another format go through the regular content negotiation.
+ * <p>
+ * Entries are dropped by the {@link ProductChangedEvent} every write of the
+ * service publishes once committed: the product's own response, and every page
+ * since any change may move products between pages. A read that loaded its
+ * product before a write committed could otherwise store the old body after
+ * the invalidation, so each write also bumps a generation and responses loaded
+ * under an older one are not kept.
+ * <p>
+ * Hits, misses and evictions are published as {@code cache.*} metrics tagged
+ * {@code productResponses} and {@code pageResponses}.
+ */
+@Component
+public class ProductResponseCache implements MeterBinder {
+
+    private static final String GZIP = "gzip";
+
+    private final ObjectMapper objectMapper;
+    private final ProductResponseCacheProperties cacheProperties;
+    private final Cache<Integer, CachedResponse> products;
+    private final Cache<PageKey, CachedResponse> pages;
+    private final AtomicLong generation = new AtomicLong();
+
+    public ProductResponseCache(final ObjectMapper objectMapper,
+            final ProductResponseCacheProperties cacheProperties) {
+        this.objectMapper = objectMapper;
+        this.cacheProperties = cacheProperties;
+        this.products = Caffeine.newBuilder().maximumSize(cacheProperties.maxProducts()).recordStats().build();
+        this.pages = Caffeine.newBuilder().maximumSize(cacheProperties.maxPages()).recordStats().build();
+    }
+
+    /**
+     * Whether a request accepting the given media types can be answered from
+     * the cache: the cache is enabled and the request would get JSON anyway.
+     *
+     * @param accept the {@code Accept} header, may be {@code null}.
+     * @return {@code true} if the cached JSON body can be sent.
+     */
+    public boolean serves(final String accept) {
+        if (!cacheProperties.enabled()) {
+            return false;
+        }
+        if (accept == null || accept.isBlank()) {
+            return true;
+        }
+        try {
+            boolean json = false;
+            for (final MediaType type : MediaType.parseMediaTypes(accept)) {
+                if (type.includes(MediaType.APPLICATION_JSON)) {
+                    json = true;
+                } else if (!type.isWildcardSubtype()) {
+                    // A specific format such as CBOR is left to the content negotiation
+                    return false;
+                }
+            }
+            return json;
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * The current generation, to read before loading a response to cache.
+     *
+     * @return a value that changes whenever a product changes.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Looks up the response of a product.
+     *
+     * @param id the product ID.
+     * @return the {@link CachedResponse}, or {@code null} if not cached.
+     */
+    public CachedResponse getProduct(final int id) {
+        return products.getIfPresent(id);
+    }
+
+    /**
+     * Serializes and caches the response of a product.
+     *
+     * @param id         the product ID.
+     * @param generation the {@link #generation()} read before loading it.
+     * @param body       the product to serialize.
+     * @param eTag       the ETag of the product.
+     * @return the {@link CachedResponse} to send.
+     */
+    public CachedResponse putProduct(final int id, final long generation, final Object body, final String eTag) {
+        final CachedResponse response = serialize(body, eTag);
+        products.put(id, response);
+        if (this.generation.get() != generation) {
+            products.invalidate(id);
+        }
+        return response;
+    }
+
+    /**
+     * Looks up the response of a page.
+     *
+     * @param key the request parameters of the page.
+     * @return the {@link CachedResponse}, or {@code null} if not cached.
+     */
+    public CachedResponse getPage(final PageKey key) {
+        return pages.getIfPresent(key);
+    }
+
+    /**
+     * Serializes and caches the response of a page.
+     *
+     * @param key        the request parameters of the page.
+     * @param generation the {@link #generation()} read before loading it.
+     * @param body       the page to serialize.
+     * @param eTag       the ETag of the page.
+     * @return the {@link CachedResponse} to send.
+     */
+    public CachedResponse putPage(final PageKey key, final long generation, final Object body, final String eTag) {
+        final CachedResponse response = serialize(body, eTag);
+        pages.put(key, response);
+        if (this.generation.get() != generation) {
+            pages.invalidate(key);
+        }
+        return response;
+    }
+
+    /**
+     * Drops the responses a committed change makes stale.
+     *
+     * @param event the {@link ProductChangedEvent} of the change.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(final ProductChangedEvent event) {
+        if (!cacheProperties.enabled()) {
+            return;
+        }
+        generation.incrementAndGet();
+        products.invalidate(event.id());
+        pages.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, products, "productResponses");
+        CaffeineCacheMetrics.monitor(registry, pages, "pageResponses");
+    }
+
+    private CachedResponse serialize(final Object body, final String eTag) {
+        try {
+            final byte[] json = objectMapper.writeValueAsBytes(body);
+            return new CachedResponse(json, cacheProperties.gzip() ? gzip(json) : null, eTag);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] gzip(final byte[] body) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 2 + 32);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * The request parameters identifying a page response.
+     *
+     * @param sort     the sort order parameter.
+     * @param minPrice the lowest price parameter.
+     * @param maxPrice the highest price parameter.
+     * @param cursor   the cursor parameter.
+     * @param limit    the page size parameter.
+     * @param fields   the fields parameter.
+     */
+    public record PageKey(String sort, Double minPrice, Double maxPrice, String cursor, Integer limit,
+            String fields) {
+    }
+
+    /**
+     * A serialized response.
+     *
+     * @param body    the JSON body.
+     * @param gzipped the gzip-compressed body, {@code null} when disabled.
+     * @param eTag    the ETag of the response.
+     */
+    public record CachedResponse(byte[] body, byte[] gzipped, String eTag) {
+
+        /**
+         * Builds the response, compressed when the client accepts gzip and a
+         * compressed body is cached.
+         *
+         * @param acceptEncoding the {@code Accept-Encoding} header, may be
+         *                       {@code null}.
+         * @return the {@link ResponseEntity} writing the cached bytes.
+         */
+        public ResponseEntity<byte[]> toResponse(final String acceptEncoding) {
+            final ResponseEntity.BodyBuilder response = ResponseEntity
+                    .status(HttpStatus.OK)
+                    .eTag(eTag)
+                    .contentType(MediaType.APPLICATION_JSON);
+            if (gzipped == null) {
+                return response.body(body);
+            }
+            response.varyBy(HttpHeaders.ACCEPT_ENCODING);
+            return CompressionFilter.acceptsGzip(acceptEncoding)
+                    ? response.header(HttpHeaders.CONTENT_ENCODING, GZIP).body(gzipped)
+                    : response.body(body);
+        }
+    }
+}
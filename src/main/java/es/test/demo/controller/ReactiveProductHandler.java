@@ -0,0 +1,268 @@
+package es.test.demo.controller;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebInputException;
+
+import es.test.demo.exception.product.InvalidPageRequestException;
+import es.test.demo.model.ErrorResponseDTO;
+import es.test.demo.model.ProductDTO;
+import es.test.demo.model.ProductField;
+import es.test.demo.model.ProductPageDTO;
+import es.test.demo.model.ProductSort;
+import es.test.demo.service.ReactiveProductService;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Functional WebFlux handlers of the reactive product API, served by
+ * {@link ReactiveProductServer}.
+ * <p>
+ * They mirror the core endpoints of {@link ProductController} under the same
+ * "/product" paths, with the same parameters, bean validation, ETags and
+ * {@link ErrorResponseDTO} errors:
+ * <ul>
+ * <li>{@code GET /product}: a keyset paginated page, optionally within a price
+ * range and with only the selected fields.</li>
+ * <li>{@code GET /product/export}: the whole catalog as newline-delimited JSON,
+ * streamed with backpressure.</li>
+ * <li>{@code GET}, {@code PUT} and {@code DELETE /product/{id}}, and
+ * {@code POST /product}.</li>
+ * </ul>
+ * Errors carry the status the exception is annotated with, as
+ * {@link es.test.demo.exception.GlobalExceptionHandler} maps them.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReactiveProductHandler {
+
+    private static final String PATH = "/product";
+    private static final String ID = "id";
+    private static final String MALFORMED_BODY = "The request body is missing or malformed";
+    private static final String UNEXPECTED_ERROR = "An unexpected error occurred";
+
+    private final ReactiveProductService productService;
+    private final Validator validator;
+
+    /**
+     * Routes of the reactive API, every error answered as an
+     * {@link ErrorResponseDTO}.
+     *
+     * @return the {@link RouterFunction} of the product endpoints.
+     */
+    public RouterFunction<ServerResponse> routes() {
+        return RouterFunctions.route()
+                .GET(PATH, this::getAllProducts)
+                .GET(PATH + "/export", this::exportProducts)
+                .GET(PATH + "/{id}", this::getProductById)
+                .POST(PATH, this::addProduct)
+                .PUT(PATH + "/{id}", this::updateProductById)
+                .DELETE(PATH + "/{id}", this::deleteProductById)
+                .filter((request, next) -> Mono.defer(() -> next.handle(request))
+                        .onErrorResume(e -> error(e, request)))
+                .build();
+    }
+
+    /**
+     * Retrieves a page of products, see {@link ProductController#getAllProducts}.
+     *
+     * @param request the {@link ServerRequest}.
+     * @return the page with HTTP status 200 (OK), or 304 (Not Modified) when it
+     *         matches {@code If-None-Match}.
+     */
+    public Mono<ServerResponse> getAllProducts(final ServerRequest request) {
+        final String sort = request.queryParam("sort").orElse(null);
+        final Double minPrice = doubleParam(request, "minPrice");
+        final Double maxPrice = doubleParam(request, "maxPrice");
+        final String cursor = request.queryParam("cursor").orElse(null);
+        final Integer limit = intParam(request, "limit");
+        final ProductSort order = sort == null ? null : ProductSort.fromValue(sort);
+        final Set<ProductField> selected = ProductField.fromValues(request.queryParam("fields").orElse(null));
+        final boolean priceRange = minPrice != null || maxPrice != null;
+        if (priceRange && order != null && order != ProductSort.PRICE) {
+            throw new InvalidPageRequestException("Price ranges can only be sorted by price");
+        }
+        final Mono<ProductPageDTO> page = priceRange
+                ? productService.getProductsByPrice(minPrice, maxPrice, cursor, limit, selected)
+                : productService.getProducts(order, cursor, limit, selected);
+        return page.flatMap(found -> ok(request, ProductETags.of(found), found));
+    }
+
+    /**
+     * Streams the whole catalog as newline-delimited JSON. Products are read
+     * from the database as fast as the client takes them.
+     *
+     * @param request the {@link ServerRequest}.
+     * @return the stream with HTTP status 200 (OK).
+     */
+    public Mono<ServerResponse> exportProducts(final ServerRequest request) {
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(productService.exportProducts(), ProductDTO.class);
+    }
+
+    /**
+     * Retrieves a product by its ID.
+     *
+     * @param request the {@link ServerRequest}.
+     * @return the product with HTTP status 200 (OK), or 304 (Not Modified) when
+     *         it matches {@code If-None-Match}.
+     */
+    public Mono<ServerResponse> getProductById(final ServerRequest request) {
+        return productService.getProductById(id(request))
+                .flatMap(product -> ok(request, ProductETags.of(product), product));
+    }
+
+    /**
+     * Adds a new product.
+     *
+     * @param request the {@link ServerRequest}.
+     * @return the created product with HTTP status 201 (Created).
+     */
+    public Mono<ServerResponse> addProduct(final ServerRequest request) {
+        return body(request)
+                .flatMap(productService::addProduct)
+                .flatMap(created -> ServerResponse.status(HttpStatus.CREATED)
+                        .eTag(ProductETags.of(created))
+                        .bodyValue(created));
+    }
+
+    /**
+     * Updates an existing product by its ID, conditionally on {@code If-Match}.
+     *
+     * @param request the {@link ServerRequest}.
+     * @return the updated product with HTTP status 200 (OK).
+     */
+    public Mono<ServerResponse> updateProductById(final ServerRequest request) {
+        final int id = id(request);
+        final Long expectedVersion = ProductETags.expectedVersion(request.headers().firstHeader(HttpHeaders.IF_MATCH));
+        return body(request)
+                .flatMap(product -> productService.updateProductById(product, id, expectedVersion))
+                .flatMap(updated -> ServerResponse.ok()
+                        .eTag(ProductETags.of(updated))
+                        .bodyValue(updated));
+    }
+
+    /**
+     * Deletes a product by its ID, conditionally on {@code If-Match}.
+     *
+     * @param request the {@link ServerRequest}.
+     * @return an empty response with HTTP status 204 (No Content).
+     */
+    public Mono<ServerResponse> deleteProductById(final ServerRequest request) {
+        final int id = id(request);
+        final Long expectedVersion = ProductETags.expectedVersion(request.headers().firstHeader(HttpHeaders.IF_MATCH));
+        return productService.deleteProductById(id, expectedVersion)
+                .then(ServerResponse.noContent().build());
+    }
+
+    /**
+     * Reads and validates the product of the request body.
+     */
+    private Mono<ProductDTO> body(final ServerRequest request) {
+        return request.bodyToMono(ProductDTO.class)
+                .switchIfEmpty(Mono.error(() -> new ServerWebInputException(MALFORMED_BODY)))
+                .flatMap(product -> {
+                    final String violations = validator.validate(product).stream()
+                            .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                            .sorted()
+                            .collect(Collectors.joining(", "));
+                    return violations.isEmpty()
+                            ? Mono.just(product)
+                            : Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, violations));
+                });
+    }
+
+    /**
+     * Answers 304 (Not Modified) when {@code If-None-Match} lists the ETag, and
+     * 200 (OK) with the body otherwise.
+     */
+    private static Mono<ServerResponse> ok(final ServerRequest request, final String eTag, final Object body) {
+        final String ifNoneMatch = request.headers().firstHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (final String tag : ifNoneMatch.split(",")) {
+                final String candidate = tag.trim();
+                if (candidate.equals(eTag) || candidate.equals("*") || candidate.equals("W/" + eTag)) {
+                    return ServerResponse.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+                }
+            }
+        }
+        return ServerResponse.ok().eTag(eTag).bodyValue(body);
+    }
+
+    private static int id(final ServerRequest request) {
+        try {
+            return Integer.parseInt(request.pathVariable(ID));
+        } catch (NumberFormatException e) {
+            throw invalidParameter(ID);
+        }
+    }
+
+    private static Integer intParam(final ServerRequest request, final String name) {
+        final String value = request.queryParam(name).orElse(null);
+        try {
+            return value == null ? null : Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw invalidParameter(name);
+        }
+    }
+
+    private static Double doubleParam(final ServerRequest request, final String name) {
+        final String value = request.queryParam(name).orElse(null);
+        try {
+            return value == null ? null : Double.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw invalidParameter(name);
+        }
+    }
+
+    private static ResponseStatusException invalidParameter(final String name) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid value for parameter '" + name + "'");
+    }
+
+    /**
+     * Maps an error to the {@link ErrorResponseDTO} the servlet API answers with.
+     */
+    private static Mono<ServerResponse> error(final Throwable e, final ServerRequest request) {
+        HttpStatus status = HttpStatus.INTERNAL_SERVER_ERROR;
+        String message = UNEXPECTED_ERROR;
+        final ResponseStatus annotated = AnnotatedElementUtils.findMergedAnnotation(e.getClass(),
+                ResponseStatus.class);
+        if (e instanceof ServerWebInputException || e instanceof DecodingException) {
+            status = HttpStatus.BAD_REQUEST;
+            message = MALFORMED_BODY;
+        } else if (e instanceof ResponseStatusException response
+                && HttpStatus.resolve(response.getStatusCode().value()) != null) {
+            status = HttpStatus.resolve(response.getStatusCode().value());
+            message = response.getReason();
+        } else if (annotated != null) {
+            status = annotated.code();
+            message = e.getLocalizedMessage();
+        } else {
+            log.error("Unhandled exception on {} {}", request.method(), request.path(), e);
+        }
+        return ServerResponse.status(status)
+                .bodyValue(ErrorResponseDTO.builder()
+                        .error(status.name())
+                        .status(status)
+                        .message(message)
+                        .path(request.path())
+                        .build());
+    }
+}
@@ -0,0 +1,70 @@
+package es.test.demo.controller;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+
+import es.test.demo.config.ReactiveProductProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link ReactiveProductServer}
+ * Netty server of the reactive product API, next to the servlet one.
+ * <p>
+ * The application itself stays a servlet application, so the routes of
+ * {@link ReactiveProductHandler} get their own event-loop server on
+ * {@code product.reactive.port}, started with the context when
+ * {@code product.reactive.enabled} is set. Codecs are customized like the
+ * WebFlux auto-configuration does, so both APIs share the Jackson settings.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReactiveProductServer implements SmartLifecycle {
+
+    private final ReactiveProductHandler handler;
+    private final ReactiveProductProperties reactiveProperties;
+    private final ObjectProvider<CodecCustomizer> codecCustomizers;
+
+    private volatile WebServer server;
+
+    @Override
+    public boolean isAutoStartup() {
+        return reactiveProperties.enabled();
+    }
+
+    @Override
+    public void start() {
+        final HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(configurer -> codecCustomizers.orderedStream()
+                        .forEach(customizer -> customizer.customize(configurer)))
+                .build();
+        final HttpHandler httpHandler = RouterFunctions.toHttpHandler(handler.routes(), strategies);
+        final WebServer started = new NettyReactiveWebServerFactory(reactiveProperties.port())
+                .getWebServer(httpHandler);
+        started.start();
+        server = started;
+        log.info("Reactive product API started on port {}", started.getPort());
+    }
+
+    @Override
+    public void stop() {
+        final WebServer running = server;
+        if (running != null) {
+            running.stop();
+            server = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+}
@@ -5,7 +5,10 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -27,7 +30,8 @@ import lombok.NoArgsConstructor;
  * <ul>
  * <li>{@link javax.persistence.Entity} - Indicates this is a JPA entity.</li>
  * <li>{@link javax.persistence.Table} - Maps to the "product" database
- * table.</li>
+ * table, declaring the {@code (price, id)} and {@code (name, id)} indexes used
+ * by the keyset paginated listing.</li>
  * <li>Validation annotations like {@link javax.validation.constraints.Size},
  * {@link javax.validation.constraints.NotBlank},
  * and {@link javax.validation.constraints.Min} to enforce field
@@ -35,23 +39,36 @@ import lombok.NoArgsConstructor;
  * </ul>
  */
 @Entity
-@Table(name = "product")
+@Table(name = "product", indexes = {
+        @Index(name = "idx_product_price_id", columnList = "price, id"),
+        @Index(name = "idx_product_name_id", columnList = "name, id")
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class ProductEntity {
 
+    /**
+     * Number of IDs reserved on every call to the "product_seq" sequence.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     /**
      * The unique identifier of the product.
      * <p>
      * Maps to the "id" column in the "product" table and is generated automatically
      * using
-     * {@link javax.persistence.GenerationType#IDENTITY}.
+     * {@link javax.persistence.GenerationType#SEQUENCE}.
+     * <p>
+     * IDs are reserved from the "product_seq" sequence in blocks of
+     * {@value #ID_ALLOCATION_SIZE}, so Hibernate can assign them in memory and
+     * group inserts into JDBC batches, which {@code IDENTITY} columns prevent.
      */
     @Id
     @Column(name = "id", nullable = false, unique = true)
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = ProductEntity.ID_ALLOCATION_SIZE)
     private Integer id;
 
     /**
@@ -97,4 +114,15 @@ public class ProductEntity {
     @Column(name = "price", nullable = false)
     @NotNull(message = "The product price cannot be null")
     private Double price;
+
+    /**
+     * The version of the product, used for optimistic locking.
+     * <p>
+     * Maps to the "version" column in the "product" table and is incremented on
+     * every update ({@link javax.persistence.Version}). It is exposed to clients
+     * as the product ETag.
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
 }
@@ -0,0 +1,299 @@
+package es.test.demo.event;
+
+import java.io.IOException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import es.test.demo.config.ProductChangeFeedProperties;
+import es.test.demo.model.ProductChangeDTO;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link ProductChangeFeed}
+ * Feed of committed product changes, streamed to subscribers as Server-Sent
+ * Events.
+ * <p>
+ * Every {@link ProductChangedEvent} gets the next sequence number and is kept
+ * in a ring buffer of the latest changes. Sequences restart with the
+ * application, so the event ID is {@code <epoch>-<sequence>}, where the epoch
+ * is drawn at random on every start. A client reconnecting with
+ * {@code Last-Event-ID} first receives the changes it missed from that buffer.
+ * When they are no longer buffered, or the ID comes from another epoch, it
+ * receives a {@code reset} event and should reload the catalog before
+ * following the feed.
+ * <p>
+ * Publishing never blocks on subscribers: each one has a bounded queue drained
+ * by its own virtual thread, which does the blocking network writes. A
+ * subscriber whose queue is full is disconnected instead of delaying the
+ * writer or the other subscribers, and can resume from the buffer.
+ * <p>
+ * Subscribers and disconnections are reported as {@code product.changes.*}.
+ */
+@Slf4j
+@Component
+public class ProductChangeFeed implements MeterBinder {
+
+    static final String RESET_EVENT = "reset";
+
+    private static final char EPOCH_SEPARATOR = '-';
+    private static final long NO_RESET = -1;
+    private static final long UNKNOWN_SEQUENCE = -1;
+
+    private final ProductChangeFeedProperties feedProperties;
+
+    /**
+     * Tells the sequences of this run from those of previous ones.
+     */
+    private final String epoch = Long.toHexString(new SecureRandom().nextLong());
+
+    /**
+     * The latest changes: the change with sequence {@code s} is at
+     * {@code s % ring.length} while it is among the last {@code ring.length}.
+     */
+    private final ProductChangeDTO[] ring;
+    private long lastSequence;
+
+    /**
+     * Guards the ring buffer and the registration of subscribers, so a new
+     * subscriber gets every change exactly once, from the buffer or its queue.
+     * Only non-blocking operations run under it.
+     */
+    private final Lock lock = new ReentrantLock();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final LongAdder dropped = new LongAdder();
+
+    public ProductChangeFeed(final ProductChangeFeedProperties feedProperties) {
+        this.feedProperties = feedProperties;
+        this.ring = new ProductChangeDTO[feedProperties.bufferSize()];
+    }
+
+    /**
+     * Opens a stream of the changes committed from now on, preceded by the
+     * buffered changes after {@code lastEventId} when given.
+     *
+     * @param lastEventId the ID of the last event the client received, or
+     *                    {@code null} for a new client.
+     * @return the {@link SseEmitter} of the stream.
+     */
+    public SseEmitter subscribe(final String lastEventId) {
+        return subscribe(lastEventId, new SseEmitter());
+    }
+
+    /**
+     * Streams the changes to the given emitter.
+     */
+    SseEmitter subscribe(final String lastEventId, final SseEmitter emitter) {
+        final Subscriber subscriber = new Subscriber(emitter);
+        final List<ProductChangeDTO> backlog = new ArrayList<>();
+        final long resetSequence;
+
+        lock.lock();
+        try {
+            resetSequence = lastEventId == null || backlog(sequenceOf(lastEventId), backlog)
+                    ? NO_RESET
+                    : lastSequence;
+            subscribers.add(subscriber);
+        } finally {
+            lock.unlock();
+        }
+
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(_ -> subscriber.close());
+        Thread.ofVirtual().name("product-changes-subscriber").start(() -> subscriber.run(resetSequence, backlog));
+        return emitter;
+    }
+
+    /**
+     * Random identifier of this run, prefixed to every event ID.
+     */
+    public String epoch() {
+        return epoch;
+    }
+
+    /**
+     * Number of open streams.
+     */
+    public int subscribers() {
+        return subscribers.size();
+    }
+
+    /**
+     * Sequence of the latest change, 0 before the first one.
+     */
+    public long lastSequence() {
+        lock.lock();
+        try {
+            return lastSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends a committed change to the buffer and hands it to every
+     * subscriber.
+     *
+     * @param event the {@link ProductChangedEvent} to publish.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(final ProductChangedEvent event) {
+        lock.lock();
+        try {
+            final ProductChangeDTO change = ProductChangeDTO.builder()
+                    .sequence(++lastSequence)
+                    .type(event.type())
+                    .id(event.id())
+                    .product(event.product())
+                    .build();
+            ring[(int) (change.getSequence() % ring.length)] = change;
+            for (final Subscriber subscriber : subscribers) {
+                if (!subscriber.queue.offer(change)) {
+                    subscriber.overflow();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder("product.changes.subscribers", subscribers, Set::size)
+                .description("Open change feed streams")
+                .register(registry);
+        FunctionCounter.builder("product.changes.dropped", dropped, LongAdder::sum)
+                .description("Streams closed because their subscriber fell too far behind")
+                .register(registry);
+    }
+
+    /**
+     * Reads the sequence of an event ID of this epoch.
+     *
+     * @return the sequence, or {@link #UNKNOWN_SEQUENCE} if the ID is malformed or
+     *         comes from another epoch.
+     */
+    private long sequenceOf(final String eventId) {
+        final int separator = eventId.lastIndexOf(EPOCH_SEPARATOR);
+        if (separator < 0 || !epoch.equals(eventId.substring(0, separator))) {
+            return UNKNOWN_SEQUENCE;
+        }
+        try {
+            return Long.parseLong(eventId, separator + 1, eventId.length(), 10);
+        } catch (NumberFormatException e) {
+            return UNKNOWN_SEQUENCE;
+        }
+    }
+
+    /**
+     * Copies the buffered changes after {@code sequence}, under the lock.
+     *
+     * @return {@code false} if some of them are no longer buffered or the
+     *         sequence is unknown.
+     */
+    private boolean backlog(final long sequence, final List<ProductChangeDTO> backlog) {
+        final long oldest = Math.max(1, lastSequence - ring.length + 1);
+        if (sequence < 0 || sequence > lastSequence || sequence < oldest - 1) {
+            return false;
+        }
+        for (long next = sequence + 1; next <= lastSequence; next++) {
+            backlog.add(ring[(int) (next % ring.length)]);
+        }
+        return true;
+    }
+
+    private String eventId(final long sequence) {
+        return epoch + EPOCH_SEPARATOR + sequence;
+    }
+
+    private SseEmitter.SseEventBuilder event(final ProductChangeDTO change) {
+        return SseEmitter.event()
+                .id(eventId(change.getSequence()))
+                .name(change.getType().name().toLowerCase(Locale.ROOT))
+                .data(change, MediaType.APPLICATION_JSON);
+    }
+
+    /**
+     * An open stream and the changes not sent to it yet.
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<ProductChangeDTO> queue;
+        private volatile boolean closed;
+
+        private Subscriber(final SseEmitter emitter) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(feedProperties.subscriberBuffer());
+        }
+
+        /**
+         * Sends the reset event or the backlog, and then the queued changes
+         * until the stream closes, with a heartbeat comment whenever it stays
+         * idle. The reset event carries the ID of the latest change at
+         * subscription, the position the queued changes follow.
+         */
+        private void run(final long resetSequence, final List<ProductChangeDTO> backlog) {
+            final long heartbeatMillis = feedProperties.heartbeatInterval().toMillis();
+            try {
+                if (resetSequence != NO_RESET) {
+                    emitter.send(SseEmitter.event()
+                            .id(eventId(resetSequence))
+                            .name(RESET_EVENT)
+                            .data(resetSequence));
+                }
+                for (final ProductChangeDTO change : backlog) {
+                    emitter.send(event(change));
+                }
+                while (!closed) {
+                    final ProductChangeDTO change = queue.poll(heartbeatMillis, TimeUnit.MILLISECONDS);
+                    if (closed) {
+                        break;
+                    }
+                    emitter.send(change == null ? SseEmitter.event().comment("") : event(change));
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The client is gone or the stream has already completed
+                log.debug("Change feed subscriber closed: {}", e.getLocalizedMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                close();
+                emitter.complete();
+            }
+        }
+
+        /**
+         * Disconnects a subscriber whose queue is full. Called under the feed
+         * lock, so it must not block.
+         */
+        private void overflow() {
+            dropped.increment();
+            close();
+        }
+
+        private void close() {
+            closed = true;
+            subscribers.remove(this);
+        }
+    }
+}
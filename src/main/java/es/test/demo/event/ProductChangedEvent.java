@@ -0,0 +1,60 @@
+package es.test.demo.event;
+
+import es.test.demo.model.ProductDTO;
+
+/**
+ * {@link ProductChangedEvent}
+ * Application event published by the product service after every creation,
+ * update or deletion.
+ * <p>
+ * In-memory structures derived from the catalog listen to it to stay up to date
+ * without reloading the table. When the change runs inside a transaction,
+ * listeners declared with
+ * {@link org.springframework.transaction.event.TransactionalEventListener} only
+ * receive it once the transaction commits.
+ *
+ * @param type    the kind of change.
+ * @param id      the ID of the changed product.
+ * @param product the product after the change, {@code null} for deletions.
+ */
+public record ProductChangedEvent(Type type, int id, ProductDTO product) {
+
+    /**
+     * The kind of change applied to a product.
+     */
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    /**
+     * Builds the event for a newly created product.
+     *
+     * @param product the created {@link ProductDTO}.
+     * @return the {@link ProductChangedEvent}.
+     */
+    public static ProductChangedEvent created(final ProductDTO product) {
+        return new ProductChangedEvent(Type.CREATED, product.getId(), product);
+    }
+
+    /**
+     * Builds the event for an updated product.
+     *
+     * @param product the updated {@link ProductDTO}.
+     * @return the {@link ProductChangedEvent}.
+     */
+    public static ProductChangedEvent updated(final ProductDTO product) {
+        return new ProductChangedEvent(Type.UPDATED, product.getId(), product);
+    }
+
+    /**
+     * Builds the event for a deleted product.
+     *
+     * @param id the ID of the deleted product.
+     * @return the {@link ProductChangedEvent}.
+     */
+    public static ProductChangedEvent deleted(final int id) {
+        return new ProductChangedEvent(Type.DELETED, id, null);
+    }
+}
@@ -1,13 +1,33 @@
 package es.test.demo.exception;
 
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.stream.Collectors;
+
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.ErrorResponse;
+import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.context.request.async.AsyncRequestNotUsableException;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.util.DisconnectedClientHelper;
 
+import es.test.demo.exception.product.InvalidLookupRequestException;
+import es.test.demo.exception.product.InvalidPageRequestException;
+import es.test.demo.exception.product.ProductIndexNotReadyException;
+import es.test.demo.exception.product.ProductLoadTimeoutException;
 import es.test.demo.exception.product.ProductNotFoundException;
-import es.test.demo.filter.CustomRequestContextFilter;
+import es.test.demo.exception.product.ProductVersionMismatchException;
+import es.test.demo.exception.product.ProductWriteNotFoundException;
+import es.test.demo.exception.product.ProductWriteQueueFullException;
 import es.test.demo.model.ErrorResponseDTO;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * Global exception handler for handling application-wide exceptions.
@@ -24,41 +44,325 @@ import es.test.demo.model.ErrorResponseDTO;
  * <li>{@link ExceptionHandler} - Specifies methods to handle specific
  * exceptions.</li>
  * </ul>
+ * <p>
+ * Not-found errors are frequent under scanner traffic, so every response is
+ * built without string parsing or clock lookups, and
+ * {@link ProductNotFoundException} carries no stack trace.
  */
+@Slf4j
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
+    private static final String MALFORMED_BODY = "The request body is missing or malformed";
+    private static final String UNEXPECTED_ERROR = "An unexpected error occurred";
+    private static final String WRITE_RETRY_AFTER_SECONDS = "1";
+
+    private final Clock clock = Clock.systemDefaultZone();
+    private volatile Timestamp lastTimestamp = new Timestamp(Long.MIN_VALUE, null);
+
     /**
      * Handles {@link ProductNotFoundException} and returns a structured error
      * response.
      * <p>
      * Generates a {@link ErrorResponseDTO} containing details of the error:
      * <ul>
-     * <li><b>Error:</b> The HTTP error code (e.g., "404").</li>
+     * <li><b>Error:</b> The HTTP error code (e.g., "NOT_FOUND").</li>
      * <li><b>Status:</b> The {@link HttpStatus} associated with the exception.</li>
      * <li><b>Message:</b> The localized error message from the exception.</li>
-     * <li><b>Path:</b> The request path where the exception occurred, retrieved
-     * from
-     * {@link CustomRequestContextFilter#getRequestPath()}.</li>
+     * <li><b>Path:</b> The request path where the exception occurred, read from
+     * the {@link HttpServletRequest} being handled.</li>
      * </ul>
      * <p>
      * HTTP Status: 404 (NOT_FOUND).
      *
      * @param e the {@link ProductNotFoundException} to handle
+     * @param request the request that raised the exception
      * @return a {@link ResponseEntity} containing a {@link ErrorResponseDTO} with
      *         error details
      */
     @ExceptionHandler(ProductNotFoundException.class)
-    public ResponseEntity<ErrorResponseDTO> handleProductNotFoundException(final ProductNotFoundException e) {
-        final String path = CustomRequestContextFilter.getRequestPath();
+    public ResponseEntity<ErrorResponseDTO> handleProductNotFoundException(final ProductNotFoundException e,
+            final HttpServletRequest request) {
+        return error(HttpStatus.NOT_FOUND, e.getLocalizedMessage(), request);
+    }
+
+    /**
+     * Handles {@link InvalidPageRequestException} and returns a structured error
+     * response.
+     * <p>
+     * Raised when a listing request carries a malformed cursor, an unsupported
+     * sort order or an invalid page size.
+     * <p>
+     * HTTP Status: 400 (BAD_REQUEST).
+     *
+     * @param e the {@link InvalidPageRequestException} to handle
+     * @param request the request that raised the exception
+     * @return a {@link ResponseEntity} containing a {@link ErrorResponseDTO} with
+     *         error details
+     */
+    @ExceptionHandler(InvalidPageRequestException.class)
+    public ResponseEntity<ErrorResponseDTO> handleInvalidPageRequestException(final InvalidPageRequestException e,
+            final HttpServletRequest request) {
+        return error(HttpStatus.BAD_REQUEST, e.getLocalizedMessage(), request);
+    }
+
+    /**
+     * Handles {@link ProductVersionMismatchException} and returns a structured
+     * error response.
+     * <p>
+     * Raised when the {@code If-Match} header of a conditional update or deletion
+     * does not match the current version of the product.
+     * <p>
+     * HTTP Status: 412 (PRECONDITION_FAILED).
+     *
+     * @param e the {@link ProductVersionMismatchException} to handle
+     * @param request the request that raised the exception
+     * @return a {@link ResponseEntity} containing a {@link ErrorResponseDTO} with
+     *         error details
+     */
+    @ExceptionHandler(ProductVersionMismatchException.class)
+    public ResponseEntity<ErrorResponseDTO> handleProductVersionMismatchException(
+            final ProductVersionMismatchException e, final HttpServletRequest request) {
+        return error(HttpStatus.PRECONDITION_FAILED, e.getLocalizedMessage(), request);
+    }
+
+    /**
+     * Handles {@link InvalidLookupRequestException} and returns a structured error
+     * response.
+     * <p>
+     * Raised when a multi-get request asks for more products than allowed.
+     * <p>
+     * HTTP Status: 400 (BAD_REQUEST).
+     *
+     * @param e the {@link InvalidLookupRequestException} to handle
+     * @param request the request that raised the exception
+     * @return a {@link ResponseEntity} containing a {@link ErrorResponseDTO} with
+     *         error details
+     */
+    @ExceptionHandler(InvalidLookupRequestException.class)
+    public ResponseEntity<ErrorResponseDTO> handleInvalidLookupRequestException(
+            final InvalidLookupRequestException e, final HttpServletRequest request) {
+        return error(HttpStatus.BAD_REQUEST, e.getLocalizedMessage(), request);
+    }
+
+    /**
+     * Handles {@link ProductIndexNotReadyException} and returns a structured error
+     * response.
+     * <p>
+     * Raised when a query needs an in-memory index that is disabled or still
+     * loading.
+     * <p>
+     * HTTP Status: 503 (SERVICE_UNAVAILABLE).
+     *
+     * @param e the {@link ProductIndexNotReadyException} to handle
+     * @param request the request that raised the exception
+     * @return a {@link ResponseEntity} containing a {@link ErrorResponseDTO} with
+     *         error details
+     */
+    @ExceptionHandler(ProductIndexNotReadyException.class)
+    public ResponseEntity<ErrorResponseDTO> handleProductIndexNotReadyException(
+            final ProductIndexNotReadyException e, final HttpServletRequest request) {
+        return error(HttpStatus.SERVICE_UNAVAILABLE, e.getLocalizedMessage(), request);
+    }
+
+    /**
+     * Handles {@link ProductLoadTimeoutException} and returns a structured error
+     * response.
+     * <p>
+     * Raised when a read gives up waiting for the same product being loaded by a
+     * concurrent request.
+     * <p>
+     * HTTP Status: 503 (SERVICE_UNAVAILABLE).
+     *
+     * @param e the {@link ProductLoadTimeoutException} to handle
+     * @param request the request that raised the exception
+     * @return a {@link ResponseEntity} containing a {@link ErrorResponseDTO} with
+     *         error details
+     */
+    @ExceptionHandler(ProductLoadTimeoutException.class)
+    public ResponseEntity<ErrorResponseDTO> handleProductLoadTimeoutException(
+            final ProductLoadTimeoutException e, final HttpServletRequest request) {
+        return error(HttpStatus.SERVICE_UNAVAILABLE, e.getLocalizedMessage(), request);
+    }
+
+    /**
+     * Handles {@link ProductWriteQueueFullException} and returns a structured
+     * error response.
+     * <p>
+     * Raised when an asynchronous write finds the write-behind queue full or
+     * shutting down. The response carries a {@code Retry-After} header so
+     * clients back off until the queue drains.
+     * <p>
+     * HTTP Status: 503 (SERVICE_UNAVAILABLE).
+     *
+     * @param e the {@link ProductWriteQueueFullException} to handle
+     * @param request the request that raised the exception
+     * @return a {@link ResponseEntity} containing a {@link ErrorResponseDTO} with
+     *         error details
+     */
+    @ExceptionHandler(ProductWriteQueueFullException.class)
+    public ResponseEntity<ErrorResponseDTO> handleProductWriteQueueFullException(
+            final ProductWriteQueueFullException e, final HttpServletRequest request) {
+        final ResponseEntity<ErrorResponseDTO> response = error(HttpStatus.SERVICE_UNAVAILABLE,
+                e.getLocalizedMessage(), request);
         return ResponseEntity
-                .status(HttpStatus.NOT_FOUND)
+                .status(response.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, WRITE_RETRY_AFTER_SECONDS)
+                .body(response.getBody());
+    }
+
+    /**
+     * Handles {@link ProductWriteNotFoundException} and returns a structured
+     * error response.
+     * <p>
+     * Raised when the status of an unknown or expired write is requested.
+     * <p>
+     * HTTP Status: 404 (NOT_FOUND).
+     *
+     * @param e the {@link ProductWriteNotFoundException} to handle
+     * @param request the request that raised the exception
+     * @return a {@link ResponseEntity} containing a {@link ErrorResponseDTO} with
+     *         error details
+     */
+    @ExceptionHandler(ProductWriteNotFoundException.class)
+    public ResponseEntity<ErrorResponseDTO> handleProductWriteNotFoundException(
+            final ProductWriteNotFoundException e, final HttpServletRequest request) {
+        return error(HttpStatus.NOT_FOUND, e.getLocalizedMessage(), request);
+    }
+
+    /**
+     * Handles {@link MethodArgumentNotValidException} and returns a structured
+     * error response.
+     * <p>
+     * Raised when a request body fails its bean validation constraints. The
+     * message lists every violated field, sorted.
+     * <p>
+     * HTTP Status: 400 (BAD_REQUEST).
+     *
+     * @param e the {@link MethodArgumentNotValidException} to handle
+     * @param request the request that raised the exception
+     * @return a {@link ResponseEntity} containing a {@link ErrorResponseDTO} with
+     *         error details
+     */
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ResponseEntity<ErrorResponseDTO> handleMethodArgumentNotValidException(
+            final MethodArgumentNotValidException e, final HttpServletRequest request) {
+        final String message = e.getBindingResult().getFieldErrors().stream()
+                .map(fieldError -> fieldError.getField() + ": " + fieldError.getDefaultMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+        return error(HttpStatus.BAD_REQUEST, message, request);
+    }
+
+    /**
+     * Handles {@link MethodArgumentTypeMismatchException} and returns a
+     * structured error response.
+     * <p>
+     * Raised when a path variable or request parameter cannot be converted, such
+     * as a non-numeric product ID.
+     * <p>
+     * HTTP Status: 400 (BAD_REQUEST).
+     *
+     * @param e the {@link MethodArgumentTypeMismatchException} to handle
+     * @param request the request that raised the exception
+     * @return a {@link ResponseEntity} containing a {@link ErrorResponseDTO} with
+     *         error details
+     */
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<ErrorResponseDTO> handleMethodArgumentTypeMismatchException(
+            final MethodArgumentTypeMismatchException e, final HttpServletRequest request) {
+        return error(HttpStatus.BAD_REQUEST, "Invalid value for parameter '" + e.getName() + "'", request);
+    }
+
+    /**
+     * Handles {@link HttpMessageNotReadableException} and returns a structured
+     * error response.
+     * <p>
+     * Raised when the request body is missing or is not valid JSON.
+     * <p>
+     * HTTP Status: 400 (BAD_REQUEST).
+     *
+     * @param e the {@link HttpMessageNotReadableException} to handle
+     * @param request the request that raised the exception
+     * @return a {@link ResponseEntity} containing a {@link ErrorResponseDTO} with
+     *         error details
+     */
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ErrorResponseDTO> handleHttpMessageNotReadableException(
+            final HttpMessageNotReadableException e, final HttpServletRequest request) {
+        return error(HttpStatus.BAD_REQUEST, MALFORMED_BODY, request);
+    }
+
+    /**
+     * Handles any other exception and returns a structured error response.
+     * <p>
+     * Spring MVC exceptions carrying their own status, such as an unsupported
+     * method or a missing parameter, keep it. A client that went away, such as
+     * an export or change feed reader closing its connection, leaves nothing to
+     * answer: the failure is logged at debug level and no body is written to the
+     * response, which is usually already committed. Anything else is logged and
+     * answered without exposing its message.
+     * <p>
+     * HTTP Status: the status of the exception, or 500 (INTERNAL_SERVER_ERROR).
+     *
+     * @param e the {@link Exception} to handle
+     * @param request the request that raised the exception
+     * @return a {@link ResponseEntity} containing a {@link ErrorResponseDTO} with
+     *         error details, or {@code null} when the client disconnected
+     */
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<ErrorResponseDTO> handleException(final Exception e, final HttpServletRequest request) {
+        if (e instanceof ErrorResponse response) {
+            final HttpStatus status = HttpStatus.resolve(response.getStatusCode().value());
+            if (status != null) {
+                return error(status, response.getBody().getDetail(), request);
+            }
+        }
+        if (e instanceof AsyncRequestNotUsableException || DisconnectedClientHelper.isClientDisconnectedException(e)) {
+            log.debug("Client disconnected on {} {}: {}", request.getMethod(), request.getRequestURI(), e.toString());
+            return null;
+        }
+        log.error("Unhandled exception on {} {}", request.getMethod(), request.getRequestURI(), e);
+        return error(HttpStatus.INTERNAL_SERVER_ERROR, UNEXPECTED_ERROR, request);
+    }
+
+    /**
+     * Builds the error response shared by every handler.
+     * <p>
+     * The error code is the name of the {@link HttpStatus} constant and the
+     * timestamp comes from {@link #now()}, so an error costs little more than
+     * the response objects themselves.
+     */
+    private ResponseEntity<ErrorResponseDTO> error(final HttpStatus status, final String message,
+            final HttpServletRequest request) {
+        return ResponseEntity
+                .status(status)
                 .body(ErrorResponseDTO.builder()
-                        .error(HttpStatus.NOT_FOUND.toString().split(" ")[1])
-                        .status(HttpStatus.NOT_FOUND)
-                        .message(e.getLocalizedMessage())
-                        .path(path)
+                        .timestamp(now())
+                        .error(status.name())
+                        .status(status)
+                        .message(message)
+                        .path(request.getRequestURI())
                         .build());
     }
 
+    /**
+     * Returns the current time with millisecond precision, reusing the last
+     * value while the millisecond has not changed: bursts of errors share one
+     * {@link LocalDateTime} instead of each reading the clock and time zone.
+     */
+    private LocalDateTime now() {
+        final long millis = clock.millis();
+        final Timestamp last = lastTimestamp;
+        if (last.millis() == millis) {
+            return last.value();
+        }
+        final LocalDateTime value = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), clock.getZone());
+        lastTimestamp = new Timestamp(millis, value);
+        return value;
+    }
+
+    private record Timestamp(long millis, LocalDateTime value) {
+    }
+
 }
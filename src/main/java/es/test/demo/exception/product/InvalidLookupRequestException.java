@@ -0,0 +1,15 @@
+package es.test.demo.exception.product;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * InvalidLookupRequestException
+ * Thrown when a multi-get request asks for more products than allowed.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidLookupRequestException extends RuntimeException {
+    public InvalidLookupRequestException(String msg) {
+        super(msg);
+    }
+}
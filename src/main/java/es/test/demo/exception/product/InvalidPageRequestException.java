@@ -0,0 +1,16 @@
+package es.test.demo.exception.product;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * InvalidPageRequestException
+ * Thrown when a product listing request carries a malformed cursor, an
+ * unsupported sort order or an invalid page size.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidPageRequestException extends RuntimeException {
+    public InvalidPageRequestException(String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,16 @@
+package es.test.demo.exception.product;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * ProductIndexNotReadyException
+ * Thrown when a query needs an in-memory product index that is disabled or
+ * still being built.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ProductIndexNotReadyException extends RuntimeException {
+    public ProductIndexNotReadyException(String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,16 @@
+package es.test.demo.exception.product;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * ProductLoadTimeoutException
+ * Thrown when a read waits too long for the same product being loaded by a
+ * concurrent request.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ProductLoadTimeoutException extends RuntimeException {
+    public ProductLoadTimeoutException(String msg) {
+        super(msg);
+    }
+}
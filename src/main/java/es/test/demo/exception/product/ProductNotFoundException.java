@@ -5,10 +5,13 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 
 /**
  * ProductNotFoundException
+ * <p>
+ * Thrown for every read of an unknown product, so it skips capturing a stack
+ * trace: it is always handled by the exception handler and never logged.
  */
 @ResponseStatus(HttpStatus.NOT_FOUND)
 public class ProductNotFoundException extends RuntimeException {
     public ProductNotFoundException(String msg) {
-        super(msg);
+        super(msg, null, false, false);
     }
 }
@@ -0,0 +1,16 @@
+package es.test.demo.exception.product;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * ProductVersionMismatchException
+ * Thrown when a conditional update or deletion targets a version of the
+ * product that is no longer the current one.
+ */
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class ProductVersionMismatchException extends RuntimeException {
+    public ProductVersionMismatchException(String msg) {
+        super(msg);
+    }
+}
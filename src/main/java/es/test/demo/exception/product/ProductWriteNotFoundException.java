@@ -0,0 +1,16 @@
+package es.test.demo.exception.product;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * ProductWriteNotFoundException
+ * Thrown when the status of an unknown or expired write tracking ID is
+ * requested.
+ */
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class ProductWriteNotFoundException extends RuntimeException {
+    public ProductWriteNotFoundException(String msg) {
+        super(msg);
+    }
+}
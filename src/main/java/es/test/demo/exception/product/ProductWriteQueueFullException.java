@@ -0,0 +1,16 @@
+package es.test.demo.exception.product;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * ProductWriteQueueFullException
+ * Thrown when an asynchronous write cannot be queued because the write-behind
+ * queue is full or shutting down.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ProductWriteQueueFullException extends RuntimeException {
+    public ProductWriteQueueFullException(String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,519 @@
+package es.test.demo.filter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import es.test.demo.config.CompressionProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Filter compressing responses with gzip for clients sending
+ * {@code Accept-Encoding: gzip}.
+ * <p>
+ * The body is compressed as it is written, so streamed responses such as the
+ * catalog export are never held in memory: at most
+ * {@code product.compression.min-response-size} bytes are buffered to find out
+ * whether the body is worth compressing, unless its {@code Content-Length} says
+ * so upfront. Flushes of the application are passed on as deflate sync
+ * flushes, so streamed data still reaches the client as it is produced.
+ * <p>
+ * Bodies shorter than the threshold, content types not listed in
+ * {@code product.compression.mime-types} and responses that already carry a
+ * {@code Content-Encoding}, such as the pre-compressed bodies of
+ * {@link es.test.demo.controller.ProductResponseCache}, are sent unchanged.
+ * <p>
+ * The bytes before and after compression and the time spent compressing are
+ * published as {@code http.compression.*}, to weigh the CPU cost against the
+ * bandwidth saved.
+ */
+@Component
+public class CompressionFilter extends OncePerRequestFilter implements MeterBinder {
+
+    private static final String GZIP = "gzip";
+    private static final int GZIP_BUFFER_SIZE = 8192;
+
+    private final CompressionProperties compressionProperties;
+    private final List<MediaType> mimeTypes;
+    private final int threshold;
+    private final LongAdder responses = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+
+    public CompressionFilter(final CompressionProperties compressionProperties) {
+        this.compressionProperties = compressionProperties;
+        this.mimeTypes = compressionProperties.mimeTypes().stream().map(MediaType::parseMediaType).toList();
+        this.threshold = (int) Math.min(compressionProperties.minResponseSize().toBytes(), Integer.MAX_VALUE - 8);
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        FunctionCounter.builder("http.compression.responses", responses, LongAdder::sum)
+                .description("Responses compressed with gzip")
+                .register(registry);
+        FunctionCounter.builder("http.compression.bytes.in", bytesIn, LongAdder::sum)
+                .description("Bytes of the compressed responses before compression")
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("http.compression.bytes.out", bytesOut, LongAdder::sum)
+                .description("Bytes of the compressed responses after compression")
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("http.compression.time", nanos,
+                adder -> adder.sum() / (double) TimeUnit.SECONDS.toNanos(1))
+                .description("Time spent compressing responses")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    /**
+     * Async responses are finished on the dispatch that completes them.
+     */
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+            final FilterChain chain) throws ServletException, IOException {
+        // An async dispatch gets back the response wrapped by the initial one
+        final CompressingResponse wrapped = WebUtils.getNativeResponse(response, CompressingResponse.class);
+        final CompressingResponse compressing = wrapped != null || isAsyncDispatch(request)
+                || !compressionProperties.enabled() || !acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))
+                        ? wrapped
+                        : new CompressingResponse(response);
+        if (compressing == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        try {
+            chain.doFilter(request, wrapped != null ? response : compressing);
+        } finally {
+            if (!request.isAsyncStarted()) {
+                compressing.finish();
+            }
+        }
+    }
+
+    /**
+     * Whether an {@code Accept-Encoding} header allows gzip.
+     *
+     * @param acceptEncoding the header value, may be {@code null}.
+     * @return {@code true} if gzip is listed without {@code q=0}.
+     */
+    public static boolean acceptsGzip(final String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (final String coding : acceptEncoding.split(",")) {
+            final String[] parts = coding.split(";");
+            if (GZIP.equalsIgnoreCase(parts[0].trim())) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private boolean isCompressible(final String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        try {
+            final MediaType type = MediaType.parseMediaType(contentType);
+            return mimeTypes.stream().anyMatch(mimeType -> mimeType.includes(type));
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Response whose body goes through a {@link CompressingOutputStream}.
+     * {@code Content-Length} is held back until it is known whether the body
+     * is compressed.
+     */
+    private final class CompressingResponse extends HttpServletResponseWrapper {
+
+        private CompressingOutputStream stream;
+        private PrintWriter writer;
+        private long contentLength = -1;
+
+        private CompressingResponse(final HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() has already been called");
+            }
+            return stream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                if (stream != null) {
+                    throw new IllegalStateException("getOutputStream() has already been called");
+                }
+                writer = new PrintWriter(new OutputStreamWriter(stream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (stream != null) {
+                stream.flush();
+            } else {
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public void setContentLength(final int length) {
+            setContentLengthLong(length);
+        }
+
+        @Override
+        public void setContentLengthLong(final long length) {
+            if (stream != null && stream.state != State.BUFFERING) {
+                // Compressed or completed bodies keep the length they are sent with
+                if (stream.state == State.PASSING) {
+                    super.setContentLengthLong(length);
+                }
+                return;
+            }
+            contentLength = length;
+        }
+
+        @Override
+        public void setHeader(final String name, final String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                setContentLengthLong(Long.parseLong(value));
+            } else {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(final String name, final String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                setContentLengthLong(Long.parseLong(value));
+            } else {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public void setIntHeader(final String name, final int value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                setContentLengthLong(value);
+            } else {
+                super.setIntHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addIntHeader(final String name, final int value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                setContentLengthLong(value);
+            } else {
+                super.addIntHeader(name, value);
+            }
+        }
+
+        @Override
+        public void sendError(final int status, final String message) throws IOException {
+            passThrough();
+            super.sendError(status, message);
+        }
+
+        @Override
+        public void sendError(final int status) throws IOException {
+            passThrough();
+            super.sendError(status);
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            contentLength = -1;
+            if (stream != null) {
+                stream.reset();
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            if (stream != null) {
+                stream.reset();
+            }
+        }
+
+        private CompressingOutputStream stream() throws IOException {
+            if (stream == null) {
+                stream = new CompressingOutputStream(this, super.getOutputStream());
+            }
+            return stream;
+        }
+
+        /**
+         * Sends the body as it is, if nothing was decided yet.
+         */
+        private void passThrough() {
+            if (stream == null || stream.state == State.BUFFERING) {
+                sendContentLength(contentLength);
+                contentLength = -1;
+            }
+            if (stream != null) {
+                stream.passThrough();
+            }
+        }
+
+        /**
+         * Decides on the encoding once the headers are final and the first
+         * bytes are written.
+         *
+         * @param available the bytes written so far.
+         * @return the state the body is written in.
+         */
+        private State decide(final long available) {
+            if (getHeader(HttpHeaders.CONTENT_ENCODING) != null || !isCompressible(getContentType())
+                    || (contentLength >= 0 && contentLength < threshold)) {
+                return State.PASSING;
+            }
+            if (contentLength < 0 && available <= threshold) {
+                return State.BUFFERING;
+            }
+            super.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            super.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+            return State.COMPRESSING;
+        }
+
+        private void sendContentLength(final long length) {
+            if (length >= 0) {
+                super.setContentLengthLong(length);
+            }
+        }
+
+        private void finish() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (stream != null) {
+                stream.finish();
+            } else {
+                passThrough();
+            }
+        }
+    }
+
+    private enum State {
+        BUFFERING,
+        COMPRESSING,
+        PASSING,
+        FINISHED
+    }
+
+    /**
+     * Body stream buffering up to the threshold, then either compressing or
+     * passing the bytes through.
+     */
+    private final class CompressingOutputStream extends ServletOutputStream {
+
+        private final CompressingResponse response;
+        private final ServletOutputStream target;
+        private State state = State.BUFFERING;
+        private byte[] buffer;
+        private int buffered;
+        private LevelGzipOutputStream gzip;
+
+        private CompressingOutputStream(final CompressingResponse response, final ServletOutputStream target) {
+            this.response = response;
+            this.target = target;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+            if (length == 0) {
+                return;
+            }
+            if (state == State.FINISHED) {
+                throw new IOException("The compressed response body has already been completed");
+            }
+            if (state == State.BUFFERING) {
+                state = response.decide((long) buffered + length);
+                switch (state) {
+                    case BUFFERING -> {
+                        buffer(bytes, offset, length);
+                        return;
+                    }
+                    case PASSING -> {
+                        response.sendContentLength(response.contentLength);
+                        flushBuffered();
+                    }
+                    case COMPRESSING -> startCompressing();
+                    case FINISHED -> throw new IllegalStateException();
+                }
+            }
+            if (state == State.COMPRESSING) {
+                compress(bytes, offset, length);
+            } else {
+                target.write(bytes, offset, length);
+            }
+        }
+
+        /**
+         * Passes the flush on, unless the body is still buffered: the decision
+         * waits for the threshold or the end of the body.
+         */
+        @Override
+        public void flush() throws IOException {
+            if (state == State.COMPRESSING) {
+                final long start = System.nanoTime();
+                gzip.flush();
+                nanos.add(System.nanoTime() - start);
+            } else if (state == State.PASSING) {
+                target.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+        }
+
+        @Override
+        public boolean isReady() {
+            return target.isReady();
+        }
+
+        @Override
+        public void setWriteListener(final WriteListener writeListener) {
+            target.setWriteListener(writeListener);
+        }
+
+        private void buffer(final byte[] bytes, final int offset, final int length) {
+            if (buffer == null) {
+                buffer = new byte[Math.max(threshold, 1)];
+            }
+            System.arraycopy(bytes, offset, buffer, buffered, length);
+            buffered += length;
+        }
+
+        private void flushBuffered() throws IOException {
+            if (buffered > 0) {
+                target.write(buffer, 0, buffered);
+            }
+            buffer = null;
+            buffered = 0;
+        }
+
+        private void startCompressing() throws IOException {
+            gzip = new LevelGzipOutputStream(target, compressionProperties.level());
+            if (buffered > 0) {
+                compress(buffer, 0, buffered);
+            }
+            buffer = null;
+            buffered = 0;
+        }
+
+        private void compress(final byte[] bytes, final int offset, final int length) throws IOException {
+            final long start = System.nanoTime();
+            gzip.write(bytes, offset, length);
+            nanos.add(System.nanoTime() - start);
+        }
+
+        private void reset() {
+            if (state == State.BUFFERING) {
+                buffered = 0;
+            }
+        }
+
+        private void passThrough() {
+            if (state == State.BUFFERING) {
+                state = State.PASSING;
+                buffer = null;
+                buffered = 0;
+            }
+        }
+
+        /**
+         * Completes the body: sends a body shorter than the threshold as it is,
+         * or writes the gzip trailer. Idempotent.
+         */
+        private void finish() throws IOException {
+            switch (state) {
+                case BUFFERING -> {
+                    state = State.PASSING;
+                    response.sendContentLength(response.contentLength >= 0 ? response.contentLength : buffered);
+                    flushBuffered();
+                }
+                case COMPRESSING -> {
+                    final long start = System.nanoTime();
+                    gzip.finish();
+                    nanos.add(System.nanoTime() - start);
+                    responses.increment();
+                    bytesIn.add(gzip.bytesRead());
+                    bytesOut.add(gzip.bytesWritten());
+                    state = State.FINISHED;
+                }
+                case PASSING, FINISHED -> {
+                }
+            }
+        }
+    }
+
+    /**
+     * {@link GZIPOutputStream} with a configurable deflate level, flushing
+     * with {@code SYNC_FLUSH} so flushed data can be decompressed right away.
+     */
+    static final class LevelGzipOutputStream extends GZIPOutputStream {
+
+        LevelGzipOutputStream(final OutputStream out, final int level) throws IOException {
+            super(out, GZIP_BUFFER_SIZE, true);
+            def.setLevel(level);
+        }
+
+        long bytesRead() {
+            return def.getBytesRead();
+        }
+
+        long bytesWritten() {
+            // Deflate output plus the 10-byte gzip header and 8-byte trailer
+            return def.getBytesWritten() + 18;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package es.test.demo.filter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Filter recording how many SQL statements every request sends to the
+ * database.
+ * <p>
+ * Each request carries a {@link StatementCounter} as a request attribute,
+ * incremented by {@link #countStatement()} from the Hibernate statement
+ * inspector registered in {@link es.test.demo.config.MetricsConfig}. Once the
+ * request completes, the count is recorded in the
+ * {@value #METRIC_NAME} distribution summary tagged with the matched route.
+ * <p>
+ * Route latencies, in-flight requests and status codes are already recorded by
+ * Spring's {@code http.server.requests} observation, so this filter only adds
+ * what it cannot see.
+ */
+@Component
+public class StatementMetricsFilter extends OncePerRequestFilter {
+
+    public static final String METRIC_NAME = "hibernate.statements.per.request";
+
+    private static final String COUNTER_ATTRIBUTE = StatementMetricsFilter.class.getName() + ".COUNTER";
+    private static final String UNKNOWN_ROUTE = "UNKNOWN";
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * One summary per route, looked up without allocating once registered.
+     */
+    private final Map<String, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    public StatementMetricsFilter(final MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Counts a statement against the request being handled by the current
+     * thread, if any.
+     */
+    public static void countStatement() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                && attributes.getRequest().getAttribute(COUNTER_ATTRIBUTE) instanceof StatementCounter counter) {
+            counter.count++;
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+            final FilterChain chain) throws ServletException, IOException {
+        final StatementCounter counter = new StatementCounter();
+        request.setAttribute(COUNTER_ATTRIBUTE, counter);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            summary(request).record(counter.count);
+        }
+    }
+
+    private DistributionSummary summary(final HttpServletRequest request) {
+        final Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        final String route = pattern instanceof String matched ? matched : UNKNOWN_ROUTE;
+        final DistributionSummary summary = summaries.get(route);
+        if (summary != null) {
+            return summary;
+        }
+        return summaries.computeIfAbsent(route, key -> DistributionSummary.builder(METRIC_NAME)
+                .description("SQL statements sent to the database per request")
+                .baseUnit("statements")
+                .tag("uri", key)
+                .register(meterRegistry));
+    }
+
+    /**
+     * Statements sent by a single request. Only touched by the thread handling
+     * the request.
+     */
+    private static final class StatementCounter {
+        private int count;
+    }
+}
@@ -0,0 +1,102 @@
+package es.test.demo.index;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * {@link BloomFilter}
+ * Probabilistic set of {@code int} keys: a key that was added is always
+ * reported as possibly present, and a key that was not is reported as absent
+ * except for a configurable false positive rate.
+ * <p>
+ * Bits are set with compare-and-set on an {@link AtomicLongArray}, so adds and
+ * lookups are lock-free and can run concurrently. Keys cannot be removed.
+ */
+final class BloomFilter {
+
+    private static final double LN_2 = Math.log(2);
+
+    /**
+     * Bit positions are derived from 32-bit hashes, so at most 2^32 bits are
+     * addressable (512 MiB).
+     */
+    private static final int MAX_WORDS = 1 << 26;
+
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashes;
+
+    /**
+     * Sizes a filter for the expected number of keys and false positive rate.
+     *
+     * @param expectedKeys      the number of keys the filter should hold.
+     * @param falsePositiveRate the target false positive rate once it holds them.
+     */
+    BloomFilter(final long expectedKeys, final double falsePositiveRate) {
+        final long keys = Math.max(1, expectedKeys);
+        final long optimalBits = (long) Math.ceil(-keys * Math.log(falsePositiveRate) / (LN_2 * LN_2));
+        final int wordCount = (int) Math.min(MAX_WORDS, Math.max(1, (optimalBits + 63) >>> 6));
+        this.words = new AtomicLongArray(wordCount);
+        this.bits = (long) wordCount << 6;
+        this.hashes = (int) Math.max(1, Math.min(16, Math.round((double) bits / keys * LN_2)));
+    }
+
+    void add(final int key) {
+        final long hash = mix(key);
+        final int h1 = (int) hash;
+        final int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashes; i++) {
+            final long bit = Integer.toUnsignedLong(h1 + i * h2) % bits;
+            final int word = (int) (bit >>> 6);
+            final long mask = 1L << bit;
+            long current;
+            do {
+                current = words.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!words.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    boolean mightContain(final int key) {
+        final long hash = mix(key);
+        final int h1 = (int) hash;
+        final int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashes; i++) {
+            final long bit = Integer.toUnsignedLong(h1 + i * h2) % bits;
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Size of the bit array, in bytes.
+     */
+    long sizeInBytes() {
+        return bits >>> 3;
+    }
+
+    int hashes() {
+        return hashes;
+    }
+
+    /**
+     * Expected false positive rate once the filter holds the given number of
+     * keys.
+     */
+    double falsePositiveRate(final long keys) {
+        return Math.pow(1 - Math.exp(-hashes * (double) keys / bits), hashes);
+    }
+
+    /**
+     * Spreads the key over 64 bits (the SplitMix64 finalizer).
+     */
+    private static long mix(final int key) {
+        long z = key + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,126 @@
+package es.test.demo.index;
+
+import java.util.Arrays;
+import java.util.function.DoubleConsumer;
+
+/**
+ * {@link IntDoubleHashMap}
+ * Open-addressing hash map from {@code int} to {@code double}, without boxing.
+ * <p>
+ * Uses linear probing with backward-shift deletion, so removals leave no
+ * tombstones behind. {@link Integer#MIN_VALUE} is reserved as the empty-slot
+ * marker and cannot be used as a key. Not thread-safe.
+ */
+final class IntDoubleHashMap {
+
+    private static final int EMPTY = Integer.MIN_VALUE;
+
+    private int[] keys;
+    private double[] values;
+    private int mask;
+    private int size;
+
+    IntDoubleHashMap(final int expectedSize) {
+        allocate(Integer.highestOneBit(Math.max(16, expectedSize * 2) - 1) << 1);
+    }
+
+    int size() {
+        return size;
+    }
+
+    double get(final int key, final double missingValue) {
+        for (int slot = indexOf(key);; slot = (slot + 1) & mask) {
+            final int current = keys[slot];
+            if (current == key) {
+                return values[slot];
+            }
+            if (current == EMPTY) {
+                return missingValue;
+            }
+        }
+    }
+
+    void put(final int key, final double value) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Reserved key: " + key);
+        }
+        for (int slot = indexOf(key);; slot = (slot + 1) & mask) {
+            final int current = keys[slot];
+            if (current == key) {
+                values[slot] = value;
+                return;
+            }
+            if (current == EMPTY) {
+                keys[slot] = key;
+                values[slot] = value;
+                if (++size * 2 > keys.length) {
+                    rehash(keys.length << 1);
+                }
+                return;
+            }
+        }
+    }
+
+    double remove(final int key, final double missingValue) {
+        int slot = indexOf(key);
+        while (keys[slot] != key) {
+            if (keys[slot] == EMPTY) {
+                return missingValue;
+            }
+            slot = (slot + 1) & mask;
+        }
+        final double removed = values[slot];
+
+        // Shift back the following entries of the probe chain into the gap
+        int gap = slot;
+        for (int next = (gap + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            final int home = indexOf(keys[next]);
+            final boolean movable = next > gap ? home <= gap || home > next : home <= gap && home > next;
+            if (movable) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        keys[gap] = EMPTY;
+        size--;
+        return removed;
+    }
+
+    void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    void forEachValue(final DoubleConsumer action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                action.accept(values[i]);
+            }
+        }
+    }
+
+    private int indexOf(final int key) {
+        final int hash = key * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private void allocate(final int capacity) {
+        keys = new int[capacity];
+        values = new double[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+    }
+
+    private void rehash(final int capacity) {
+        final int[] oldKeys = keys;
+        final double[] oldValues = values;
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package es.test.demo.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link InvertedIndex}
+ * Term to product index over the product names and descriptions.
+ * <p>
+ * Every indexed version of a product gets a new document ordinal, so posting
+ * lists are only ever appended to. Updating or deleting a product marks its
+ * previous ordinal as dead; dead entries are skipped by queries and dropped by
+ * a compaction once they make up a quarter of the index.
+ * <p>
+ * Queries match products containing every query term and rank them by the sum
+ * of the term frequencies weighted by the inverse document frequency of each
+ * term. Terms found in the name count twice. Not thread-safe.
+ */
+final class InvertedIndex {
+
+    private static final int[] NO_RESULTS = new int[0];
+    private static final int NAME_WEIGHT = 2;
+    private static final int MIN_DEAD_TO_COMPACT = 1024;
+
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final IntIntHashMap ordinalsByProduct = new IntIntHashMap(1024);
+    private final BitSet live = new BitSet();
+    private int[] productIds = new int[1024];
+    private int nextOrdinal;
+
+    /**
+     * Number of products currently indexed.
+     */
+    int size() {
+        return ordinalsByProduct.size();
+    }
+
+    /**
+     * Number of distinct terms in the index.
+     */
+    int terms() {
+        return postings.size();
+    }
+
+    /**
+     * Indexes a product, replacing its previous version if any.
+     */
+    void put(final int productId, final String name, final String description) {
+        remove(productId);
+
+        final Map<String, int[]> frequencies = new HashMap<>();
+        for (final String term : ProductTokenizer.tokenize(name)) {
+            frequencies.computeIfAbsent(term, _ -> new int[1])[0] += NAME_WEIGHT;
+        }
+        for (final String term : ProductTokenizer.tokenize(description)) {
+            frequencies.computeIfAbsent(term, _ -> new int[1])[0]++;
+        }
+
+        final int ordinal = nextOrdinal++;
+        if (ordinal == productIds.length) {
+            productIds = Arrays.copyOf(productIds, productIds.length << 1);
+        }
+        productIds[ordinal] = productId;
+        live.set(ordinal);
+        ordinalsByProduct.put(productId, ordinal);
+        frequencies.forEach((term, frequency) -> postings
+                .computeIfAbsent(term, _ -> new PostingList())
+                .add(ordinal, frequency[0]));
+    }
+
+    /**
+     * Removes a product from the index, if present.
+     */
+    void remove(final int productId) {
+        final int ordinal = ordinalsByProduct.remove(productId, -1);
+        if (ordinal < 0) {
+            return;
+        }
+        live.clear(ordinal);
+        final int dead = nextOrdinal - size();
+        if (dead >= MIN_DEAD_TO_COMPACT && dead * 4 >= nextOrdinal) {
+            compact();
+        }
+    }
+
+    /**
+     * Empties the index.
+     */
+    void clear() {
+        postings.clear();
+        ordinalsByProduct.clear();
+        live.clear();
+        productIds = new int[1024];
+        nextOrdinal = 0;
+    }
+
+    /**
+     * Finds the products containing every term of the query.
+     *
+     * @param query the raw query text.
+     * @param limit the maximum number of results.
+     * @return the matching product IDs, best match first.
+     */
+    int[] search(final String query, final int limit) {
+        final List<PostingList> lists = new ArrayList<>();
+        for (final String term : new LinkedHashSet<>(ProductTokenizer.tokenize(query))) {
+            final PostingList list = postings.get(term);
+            if (list == null) {
+                return NO_RESULTS;
+            }
+            lists.add(list);
+        }
+        if (lists.isEmpty() || limit < 1) {
+            return NO_RESULTS;
+        }
+        // Lead with the rarest term, so the other lists are only probed for its documents
+        lists.sort(Comparator.comparingInt(PostingList::size));
+
+        final PostingList.Cursor[] cursors = new PostingList.Cursor[lists.size()];
+        final float[] idfs = new float[lists.size()];
+        for (int l = 0; l < cursors.length; l++) {
+            cursors[l] = lists.get(l).cursor();
+            idfs[l] = idf(lists.get(l));
+        }
+
+        final TopResults top = new TopResults(Math.min(limit, lists.getFirst().size()));
+        final PostingList.Cursor lead = cursors[0];
+        candidates: while (lead.next()) {
+            final int ordinal = lead.ordinal();
+            if (!live.get(ordinal)) {
+                continue;
+            }
+            float score = lead.frequency() * idfs[0];
+            for (int l = 1; l < cursors.length; l++) {
+                if (!cursors[l].advance(ordinal)) {
+                    // A list is exhausted, so no later document can contain every term
+                    break candidates;
+                }
+                if (cursors[l].ordinal() != ordinal) {
+                    continue candidates;
+                }
+                score += cursors[l].frequency() * idfs[l];
+            }
+            top.offer(ordinal, score);
+        }
+        return top.productIds();
+    }
+
+    private boolean ranksBefore(final int ordinalA, final float scoreA, final int ordinalB, final float scoreB) {
+        if (scoreA != scoreB) {
+            return scoreA > scoreB;
+        }
+        return productIds[ordinalA] < productIds[ordinalB];
+    }
+
+    private float idf(final PostingList list) {
+        final int documents = size();
+        final int frequency = Math.min(list.size(), documents);
+        return (float) Math.log(1 + (documents - frequency + 0.5) / (frequency + 0.5));
+    }
+
+    /**
+     * Renumbers the live documents densely and rewrites every posting list
+     * without the dead entries.
+     */
+    private void compact() {
+        final int[] remapped = new int[nextOrdinal];
+        final int[] compactedIds = new int[Math.max(1024, size() * 2)];
+        int count = 0;
+        for (int ordinal = live.nextSetBit(0); ordinal >= 0; ordinal = live.nextSetBit(ordinal + 1)) {
+            remapped[ordinal] = count;
+            compactedIds[count] = productIds[ordinal];
+            ordinalsByProduct.put(productIds[ordinal], count);
+            count++;
+        }
+
+        final Iterator<Map.Entry<String, PostingList>> entries = postings.entrySet().iterator();
+        while (entries.hasNext()) {
+            final Map.Entry<String, PostingList> entry = entries.next();
+            final PostingList.Cursor cursor = entry.getValue().cursor();
+            final PostingList compacted = new PostingList();
+            while (cursor.next()) {
+                if (live.get(cursor.ordinal())) {
+                    compacted.add(remapped[cursor.ordinal()], cursor.frequency());
+                }
+            }
+            if (compacted.size() == 0) {
+                entries.remove();
+            } else {
+                entry.setValue(compacted);
+            }
+        }
+
+        productIds = compactedIds;
+        nextOrdinal = count;
+        live.clear();
+        live.set(0, count);
+    }
+
+    /**
+     * The best matches seen so far, in a bounded min-heap whose root is the
+     * worst result kept.
+     */
+    private final class TopResults {
+
+        private final int[] ordinals;
+        private final float[] scores;
+        private int size;
+
+        private TopResults(final int capacity) {
+            this.ordinals = new int[capacity];
+            this.scores = new float[capacity];
+        }
+
+        private void offer(final int ordinal, final float score) {
+            if (size < ordinals.length) {
+                ordinals[size] = ordinal;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (size > 0 && InvertedIndex.this.ranksBefore(ordinal, score, ordinals[0], scores[0])) {
+                ordinals[0] = ordinal;
+                scores[0] = score;
+                siftDown();
+            }
+        }
+
+        /**
+         * Empties the heap into the product IDs of the results, best first.
+         */
+        private int[] productIds() {
+            final int[] results = new int[size];
+            for (int position = size - 1; position >= 0; position--) {
+                results[position] = InvertedIndex.this.productIds[ordinals[0]];
+                size--;
+                ordinals[0] = ordinals[size];
+                scores[0] = scores[size];
+                siftDown();
+            }
+            return results;
+        }
+
+        private boolean ranksBefore(final int a, final int b) {
+            return InvertedIndex.this.ranksBefore(ordinals[a], scores[a], ordinals[b], scores[b]);
+        }
+
+        private void siftUp(int position) {
+            while (position > 0) {
+                final int parent = (position - 1) >>> 1;
+                if (!ranksBefore(parent, position)) {
+                    return;
+                }
+                swap(parent, position);
+                position = parent;
+            }
+        }
+
+        private void siftDown() {
+            int position = 0;
+            while (true) {
+                final int left = 2 * position + 1;
+                if (left >= size) {
+                    return;
+                }
+                final int right = left + 1;
+                final int worst = right < size && ranksBefore(left, right) ? right : left;
+                if (!ranksBefore(position, worst)) {
+                    return;
+                }
+                swap(position, worst);
+                position = worst;
+            }
+        }
+
+        private void swap(final int a, final int b) {
+            final int ordinal = ordinals[a];
+            ordinals[a] = ordinals[b];
+            ordinals[b] = ordinal;
+            final float score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package es.test.demo.index;
+
+import java.util.Arrays;
+
+/**
+ * {@link PostingList}
+ * Compressed list of the documents containing a term, with the term frequency
+ * in each of them.
+ * <p>
+ * Entries are appended in increasing document ordinal order and stored as
+ * variable-length integers: the gap to the previous ordinal followed by the
+ * frequency. Most entries take two bytes, against eight for a pair of
+ * {@code int} arrays. Not thread-safe.
+ */
+final class PostingList {
+
+    private byte[] data = new byte[8];
+    private int length;
+    private int size;
+    private int lastOrdinal = -1;
+
+    /**
+     * Number of documents in the list, including deleted ones not yet compacted.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Appends a document, which must have a greater ordinal than any previous one.
+     */
+    void add(final int ordinal, final int frequency) {
+        writeVarInt(ordinal - lastOrdinal);
+        writeVarInt(frequency);
+        lastOrdinal = ordinal;
+        size++;
+    }
+
+    /**
+     * Opens a cursor over the entries added so far, positioned before the
+     * first one.
+     */
+    Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Approximate heap footprint of the encoded entries, in bytes.
+     */
+    int encodedBytes() {
+        return data.length;
+    }
+
+    private void writeVarInt(int value) {
+        if (length + 5 > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length << 1, length + 5));
+        }
+        while ((value & ~0x7F) != 0) {
+            data[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[length++] = (byte) value;
+    }
+
+    /**
+     * Forward-only iteration over the encoded entries, decoding one entry at a
+     * time without allocating.
+     */
+    final class Cursor {
+
+        private final int entries = size;
+        private int read;
+        private int position;
+        private int ordinal = -1;
+        private int frequency;
+
+        /**
+         * Moves to the next entry.
+         *
+         * @return {@code false} if there are no more entries.
+         */
+        boolean next() {
+            if (read == entries) {
+                return false;
+            }
+            read++;
+            ordinal += readVarInt();
+            frequency = readVarInt();
+            return true;
+        }
+
+        /**
+         * Moves to the first entry whose ordinal is not lower than
+         * {@code target}, staying on the current one if it already is.
+         *
+         * @return {@code false} if there is no such entry.
+         */
+        boolean advance(final int target) {
+            while (ordinal < target) {
+                if (!next()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Ordinal of the current entry.
+         */
+        int ordinal() {
+            return ordinal;
+        }
+
+        /**
+         * Term frequency of the current entry.
+         */
+        int frequency() {
+            return frequency;
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            int shift = 0;
+            byte current;
+            do {
+                current = data[position++];
+                value |= (current & 0x7F) << shift;
+                shift += 7;
+            } while (current < 0);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package es.test.demo.index;
+
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import es.test.demo.entity.ProductEntity;
+import es.test.demo.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+
+/**
+ * {@link ProductCatalogScanner}
+ * Reads the whole product table once, in ID order, to (re)build the in-memory
+ * indexes.
+ * <p>
+ * Rows are streamed through {@link ProductRepository#streamAll()} in a
+ * read-only transaction and detached as soon as they have been handed over, so
+ * a scan never holds more than one fetch of rows in memory.
+ */
+@Component
+public class ProductCatalogScanner {
+
+    private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ProductCatalogScanner(final ProductRepository productRepository, final EntityManager entityManager,
+            final PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Hands every product of the catalog to the given consumer.
+     *
+     * @param sink the {@link Consumer} receiving each {@link ProductEntity}. The
+     *             entity is detached right after the call, so it must not be
+     *             kept.
+     */
+    public void scan(final Consumer<ProductEntity> sink) {
+        readOnlyTransaction.executeWithoutResult(_ -> {
+            try (Stream<ProductEntity> products = productRepository.streamAll()) {
+                products.forEach(product -> {
+                    sink.accept(product);
+                    entityManager.detach(product);
+                });
+            }
+        });
+    }
+}
@@ -0,0 +1,167 @@
+package es.test.demo.index;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import es.test.demo.config.ProductIdFilterProperties;
+import es.test.demo.event.ProductChangedEvent;
+import es.test.demo.repository.ProductRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link ProductIdFilter}
+ * {@link BloomFilter} over the IDs of the existing products, used to answer
+ * reads of unknown IDs without querying the database.
+ * <p>
+ * A Bloom filter cannot forget keys, so deleted products stay "possibly
+ * present" until the next rebuild, which runs at startup and then
+ * periodically. A rebuild fills a new filter from a catalog scan and swaps it
+ * in; products created meanwhile are added to both filters, so an existing ID
+ * is never reported as absent.
+ * <p>
+ * Created IDs are added from a plain {@link EventListener}, before the
+ * creating transaction commits when there is one: a rolled back creation only
+ * leaves a harmless false positive behind.
+ */
+@Slf4j
+@Component
+public class ProductIdFilter implements MeterBinder {
+
+    private final ProductCatalogScanner catalogScanner;
+    private final ProductRepository productRepository;
+    private final ProductIdFilterProperties filterProperties;
+
+    /**
+     * The filter answering queries, {@code null} until the first build.
+     */
+    private volatile BloomFilter current;
+
+    /**
+     * The filter being built, {@code null} when no rebuild is running.
+     */
+    private volatile BloomFilter next;
+
+    private final AtomicLong keys = new AtomicLong();
+    private final Lock rebuildLock = new ReentrantLock();
+
+    public ProductIdFilter(final ProductCatalogScanner catalogScanner, final ProductRepository productRepository,
+            final ProductIdFilterProperties filterProperties) {
+        this.catalogScanner = catalogScanner;
+        this.productRepository = productRepository;
+        this.filterProperties = filterProperties;
+    }
+
+    /**
+     * Whether a product with the given ID may exist.
+     *
+     * @param id the product ID.
+     * @return {@code false} only if the product certainly does not exist;
+     *         {@code true} while the filter is disabled or being built for the
+     *         first time.
+     */
+    public boolean mightExist(final int id) {
+        final BloomFilter filter = current;
+        return filter == null || filter.mightContain(id);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (filterProperties.enabled()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Rebuilds the filter periodically, dropping the IDs of deleted products.
+     */
+    @Scheduled(initialDelayString = "${product.id-filter.rebuild-interval:PT10M}",
+            fixedDelayString = "${product.id-filter.rebuild-interval:PT10M}")
+    public void scheduledRebuild() {
+        if (filterProperties.enabled()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Rebuilds the filter from a full scan of the catalog.
+     * <p>
+     * Products inserted without going through the service, such as a bulk
+     * seed, publish no event: their IDs are reported as absent until this runs.
+     */
+    public void rebuild() {
+        final long start = System.nanoTime();
+        final long[] count = new long[1];
+        final BloomFilter filter;
+        rebuildLock.lock();
+        try {
+            // Leave room for the products created until the next rebuild
+            final long expected = Math.max(filterProperties.expectedProducts(), productRepository.count() * 2);
+            filter = new BloomFilter(expected, filterProperties.falsePositiveRate());
+            next = filter;
+            catalogScanner.scan(product -> {
+                filter.add(product.getId());
+                count[0]++;
+            });
+            current = filter;
+            keys.set(count[0]);
+        } finally {
+            next = null;
+            rebuildLock.unlock();
+        }
+        log.info("Product ID filter rebuilt in {} ms: {} IDs, {} KiB, {} hashes, expected false positive rate {}",
+                (System.nanoTime() - start) / 1_000_000, count[0], filter.sizeInBytes() >>> 10, filter.hashes(),
+                filter.falsePositiveRate(count[0]));
+    }
+
+    /**
+     * Adds the ID of every created product.
+     *
+     * @param event the {@link ProductChangedEvent} to apply.
+     */
+    @EventListener
+    public void onProductChanged(final ProductChangedEvent event) {
+        if (event.type() != ProductChangedEvent.Type.CREATED) {
+            return;
+        }
+        final BloomFilter target = current;
+        if (target != null) {
+            target.add(event.id());
+        }
+        final BloomFilter building = next;
+        if (building != null) {
+            building.add(event.id());
+        }
+        // A rebuild may have swapped in a filter scanned before this product existed
+        final BloomFilter swapped = current;
+        if (swapped != null && swapped != target) {
+            swapped.add(event.id());
+        }
+        keys.incrementAndGet();
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder("product.id.filter.size", this, filter -> {
+            final BloomFilter snapshot = filter.current;
+            return snapshot == null ? 0 : snapshot.sizeInBytes();
+        })
+                .description("Memory used by the product ID filter")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("product.id.filter.false.positive.rate", this, filter -> {
+            final BloomFilter snapshot = filter.current;
+            return snapshot == null ? 0 : snapshot.falsePositiveRate(filter.keys.get());
+        })
+                .description("Expected false positive rate of the product ID filter")
+                .register(registry);
+    }
+}
@@ -0,0 +1,144 @@
+package es.test.demo.index;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import es.test.demo.entity.ProductEntity;
+import es.test.demo.event.ProductChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link ProductIndexSupport}
+ * Base class of the in-memory indexes derived from the product catalog.
+ * <p>
+ * The index is loaded from a full {@link ProductCatalogScanner} scan once the
+ * application is ready, then kept up to date from the
+ * {@link ProductChangedEvent} published after each committed write. Events
+ * received while a scan runs are queued and replayed on top of it, since the
+ * scan may have read the rows before they changed.
+ * <p>
+ * Subclasses only implement how to reset, load and update their structure, and
+ * must make those operations safe against concurrent readers.
+ */
+@Slf4j
+public abstract class ProductIndexSupport {
+
+    private final ProductCatalogScanner catalogScanner;
+    private final Object buildLock = new Object();
+
+    /**
+     * Events received during a build, {@code null} when no build is running.
+     */
+    private List<ProductChangedEvent> pendingEvents;
+
+    private volatile boolean ready;
+
+    protected ProductIndexSupport(final ProductCatalogScanner catalogScanner) {
+        this.catalogScanner = catalogScanner;
+    }
+
+    /**
+     * Whether the index has been loaded and can answer queries.
+     *
+     * @return {@code true} once the first build has completed.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Loads the index from the database once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (isEnabled()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Rebuilds the index from a full scan of the catalog.
+     */
+    public void rebuild() {
+        synchronized (buildLock) {
+            if (pendingEvents != null) {
+                return;
+            }
+            pendingEvents = new ArrayList<>();
+        }
+        final long start = System.nanoTime();
+        try {
+            reset();
+            catalogScanner.scan(this::load);
+        } finally {
+            replayPendingEvents();
+        }
+        ready = true;
+        log.info("{} built in {} ms", getClass().getSimpleName(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Applies a committed product change to the index.
+     *
+     * @param event the {@link ProductChangedEvent} to apply.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(final ProductChangedEvent event) {
+        if (!isEnabled()) {
+            return;
+        }
+        synchronized (buildLock) {
+            if (pendingEvents != null) {
+                pendingEvents.add(event);
+                return;
+            }
+        }
+        apply(event);
+    }
+
+    private void replayPendingEvents() {
+        while (true) {
+            final List<ProductChangedEvent> events;
+            synchronized (buildLock) {
+                if (pendingEvents.isEmpty()) {
+                    pendingEvents = null;
+                    return;
+                }
+                events = pendingEvents;
+                pendingEvents = new ArrayList<>();
+            }
+            events.forEach(this::apply);
+        }
+    }
+
+    /**
+     * Whether the index is enabled by configuration.
+     *
+     * @return {@code false} to skip loading and updates altogether.
+     */
+    protected abstract boolean isEnabled();
+
+    /**
+     * Empties the index before a full build.
+     */
+    protected abstract void reset();
+
+    /**
+     * Adds a product read by the catalog scan.
+     *
+     * @param product the {@link ProductEntity} to add, only valid during the
+     *                call.
+     */
+    protected abstract void load(ProductEntity product);
+
+    /**
+     * Applies a product change.
+     *
+     * @param event the {@link ProductChangedEvent} to apply.
+     */
+    protected abstract void apply(ProductChangedEvent event);
+}
@@ -0,0 +1,95 @@
+package es.test.demo.index;
+
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.stereotype.Component;
+
+import es.test.demo.config.ProductPriceIndexProperties;
+import es.test.demo.entity.ProductEntity;
+import es.test.demo.event.ProductChangedEvent;
+import es.test.demo.model.ProductDTO;
+
+/**
+ * {@link ProductPriceIndex}
+ * Price ordered view of the catalog, answered from a {@link SortedPriceIndex}
+ * held in memory.
+ * <p>
+ * Callers must check {@link #isReady()} and fall back to the database while the
+ * index is disabled or loading.
+ */
+@Component
+public class ProductPriceIndex extends ProductIndexSupport {
+
+    private final ProductPriceIndexProperties priceIndexProperties;
+    private final SortedPriceIndex index = new SortedPriceIndex();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public ProductPriceIndex(final ProductCatalogScanner catalogScanner,
+            final ProductPriceIndexProperties priceIndexProperties) {
+        super(catalogScanner);
+        this.priceIndexProperties = priceIndexProperties;
+    }
+
+    /**
+     * Copies, in {@code (price, id)} order, the products positioned strictly
+     * after {@code (afterPrice, afterId)} whose price is not greater than
+     * {@code maxPrice}.
+     *
+     * @param afterPrice the price to start after.
+     * @param afterId    the ID to start after among products of that price.
+     * @param maxPrice   the inclusive upper bound of the price range.
+     * @param ids        receives the product IDs, up to its length.
+     * @param prices     receives the matching prices.
+     * @return the number of products copied.
+     */
+    public int range(final double afterPrice, final int afterId, final double maxPrice, final int[] ids,
+            final double[] prices) {
+        lock.readLock().lock();
+        try {
+            return index.range(afterPrice, afterId, maxPrice, ids, prices);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    protected boolean isEnabled() {
+        return priceIndexProperties.enabled();
+    }
+
+    @Override
+    protected void reset() {
+        lock.writeLock().lock();
+        try {
+            index.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    protected void load(final ProductEntity product) {
+        lock.writeLock().lock();
+        try {
+            index.put(product.getId(), product.getPrice());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    protected void apply(final ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            final ProductDTO product = event.product();
+            if (event.type() == ProductChangedEvent.Type.DELETED || product.getPrice() == null) {
+                index.remove(event.id());
+            } else {
+                index.put(event.id(), product.getPrice());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package es.test.demo.index;
+
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.stereotype.Component;
+
+import es.test.demo.config.ProductSearchProperties;
+import es.test.demo.entity.ProductEntity;
+import es.test.demo.event.ProductChangedEvent;
+import es.test.demo.exception.product.ProductIndexNotReadyException;
+import es.test.demo.model.ProductDTO;
+
+/**
+ * {@link ProductSearchIndex}
+ * Full-text search over the product names and descriptions, answered from an
+ * {@link InvertedIndex} held in memory.
+ * <p>
+ * Queries share a read lock, so they run in parallel and only wait for the
+ * short write lock taken to apply a single product change.
+ */
+@Component
+public class ProductSearchIndex extends ProductIndexSupport {
+
+    private static final String NOT_READY = "The product search index is not available yet";
+
+    private final ProductSearchProperties searchProperties;
+    private final InvertedIndex index = new InvertedIndex();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public ProductSearchIndex(final ProductCatalogScanner catalogScanner,
+            final ProductSearchProperties searchProperties) {
+        super(catalogScanner);
+        this.searchProperties = searchProperties;
+    }
+
+    /**
+     * Finds the products matching every term of the query.
+     *
+     * @param query the free text query.
+     * @param limit the maximum number of results.
+     * @return the IDs of the matching products, best match first.
+     * @throws ProductIndexNotReadyException if the index is disabled or has not
+     *                                       been built yet.
+     */
+    public int[] search(final String query, final int limit) {
+        if (!isReady()) {
+            throw new ProductIndexNotReadyException(NOT_READY);
+        }
+        lock.readLock().lock();
+        try {
+            return index.search(query, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    protected boolean isEnabled() {
+        return searchProperties.enabled();
+    }
+
+    @Override
+    protected void reset() {
+        lock.writeLock().lock();
+        try {
+            index.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    protected void load(final ProductEntity product) {
+        lock.writeLock().lock();
+        try {
+            index.put(product.getId(), product.getName(), product.getDescription());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    protected void apply(final ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (event.type() == ProductChangedEvent.Type.DELETED) {
+                index.remove(event.id());
+            } else {
+                final ProductDTO product = event.product();
+                index.put(event.id(), product.getName(), product.getDescription());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
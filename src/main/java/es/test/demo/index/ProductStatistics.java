@@ -0,0 +1,328 @@
+package es.test.demo.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import es.test.demo.config.ProductStatsProperties;
+import es.test.demo.entity.ProductEntity;
+import es.test.demo.event.ProductChangedEvent;
+import es.test.demo.exception.product.ProductIndexNotReadyException;
+import es.test.demo.model.ProductStatsDTO;
+import es.test.demo.repository.ProductPriceAggregate;
+import es.test.demo.repository.ProductRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link ProductStatistics}
+ * Count, price aggregates and price histogram of the catalog, maintained
+ * incrementally from the product change events.
+ * <p>
+ * Count, sum and histogram buckets are {@link LongAdder} and
+ * {@link DoubleAdder} accumulators, so concurrent writers never contend on
+ * them. Updates and deletions need the previous price of the product, which
+ * is kept in {@value #STRIPES} lock-striped maps together with the lowest and
+ * highest price of each stripe; only writes to products of the same stripe
+ * share a lock, and only while they touch its map. Reading the statistics
+ * takes constant time whatever the catalog size.
+ * <p>
+ * The accumulated sum collects rounding errors and a change applied outside
+ * the service is never seen, so the statistics are periodically compared with
+ * a SQL aggregate and rebuilt when they drifted. A rebuild fills new
+ * accumulators and swaps them in, so readers never see a partial catalog.
+ */
+@Slf4j
+@Component
+public class ProductStatistics extends ProductIndexSupport implements MeterBinder {
+
+    private static final int STRIPES = 64;
+    private static final int STRIPE_SHIFT = Integer.SIZE - Integer.numberOfTrailingZeros(STRIPES);
+    private static final double SUM_TOLERANCE = 1e-6;
+    private static final String NOT_READY = "The catalog statistics are not available yet";
+
+    private final ProductRepository productRepository;
+    private final ProductStatsProperties statsProperties;
+    private final double[] bounds;
+    private final Lock rebuildLock = new ReentrantLock();
+    private final LongAdder reconciliations = new LongAdder();
+    private final LongAdder corrections = new LongAdder();
+
+    /**
+     * The statistics answering reads, {@code null} until the first build.
+     */
+    private volatile Aggregates current;
+
+    /**
+     * The statistics being built, {@code null} when no rebuild is running.
+     */
+    private volatile Aggregates building;
+
+    public ProductStatistics(final ProductCatalogScanner catalogScanner, final ProductRepository productRepository,
+            final ProductStatsProperties statsProperties) {
+        super(catalogScanner);
+        this.productRepository = productRepository;
+        this.statsProperties = statsProperties;
+        this.bounds = statsProperties.histogramBounds().stream().mapToDouble(Double::doubleValue).sorted().toArray();
+    }
+
+    /**
+     * Reads the current statistics.
+     *
+     * @return the {@link ProductStatsDTO} of the catalog.
+     * @throws ProductIndexNotReadyException if the statistics are disabled or
+     *                                       still loading.
+     */
+    public ProductStatsDTO snapshot() {
+        final Aggregates aggregates = current;
+        if (aggregates == null) {
+            throw new ProductIndexNotReadyException(NOT_READY);
+        }
+        return aggregates.snapshot();
+    }
+
+    /**
+     * Rebuilds the statistics into new accumulators and swaps them in once
+     * complete. Skipped if a rebuild is already running.
+     */
+    @Override
+    public void rebuild() {
+        if (!rebuildLock.tryLock()) {
+            return;
+        }
+        try {
+            super.rebuild();
+            // Events arriving meanwhile still reach the new accumulators through either field
+            current = building;
+        } finally {
+            building = null;
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Compares the statistics with a SQL aggregate of the catalog, and rebuilds
+     * them if they differ twice in a row: a single difference may come from a
+     * write committed between both reads.
+     */
+    @Scheduled(initialDelayString = "${product.stats.reconcile-interval:PT5M}",
+            fixedDelayString = "${product.stats.reconcile-interval:PT5M}")
+    public void reconcile() {
+        if (!statsProperties.enabled() || current == null) {
+            return;
+        }
+        reconciliations.increment();
+        if (matches(productRepository.aggregatePrices(), snapshot())
+                || matches(productRepository.aggregatePrices(), snapshot())) {
+            return;
+        }
+        log.warn("Catalog statistics drifted from the database, rebuilding them");
+        corrections.increment();
+        rebuild();
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        FunctionCounter.builder("product.stats.reconciliations", reconciliations, LongAdder::sum)
+                .description("Checks of the catalog statistics against the database")
+                .register(registry);
+        FunctionCounter.builder("product.stats.corrections", corrections, LongAdder::sum)
+                .description("Rebuilds of the catalog statistics after a drift")
+                .register(registry);
+    }
+
+    @Override
+    protected boolean isEnabled() {
+        return statsProperties.enabled();
+    }
+
+    @Override
+    protected void reset() {
+        building = new Aggregates(bounds);
+    }
+
+    @Override
+    protected void load(final ProductEntity product) {
+        target().put(product.getId(), product.getPrice());
+    }
+
+    @Override
+    protected void apply(final ProductChangedEvent event) {
+        final Aggregates aggregates = target();
+        if (aggregates == null) {
+            return;
+        }
+        switch (event.type()) {
+            case CREATED, UPDATED -> aggregates.put(event.id(), event.product().getPrice());
+            case DELETED -> aggregates.remove(event.id());
+        }
+    }
+
+    private Aggregates target() {
+        final Aggregates aggregates = building;
+        return aggregates != null ? aggregates : current;
+    }
+
+    private static boolean matches(final ProductPriceAggregate expected, final ProductStatsDTO actual) {
+        if (expected.count() != actual.getCount()) {
+            return false;
+        }
+        final double sum = expected.sum() == null ? 0 : expected.sum();
+        return Math.abs(sum - actual.getSumPrice()) <= SUM_TOLERANCE * Math.max(1, Math.abs(sum))
+                && Objects.equals(expected.min(), actual.getMinPrice())
+                && Objects.equals(expected.max(), actual.getMaxPrice());
+    }
+
+    /**
+     * One generation of accumulators.
+     */
+    private static final class Aggregates {
+
+        private final double[] bounds;
+        private final Stripe[] stripes = new Stripe[STRIPES];
+        private final LongAdder count = new LongAdder();
+        private final DoubleAdder sum = new DoubleAdder();
+        private final LongAdder[] buckets;
+
+        private Aggregates(final double[] bounds) {
+            this.bounds = bounds;
+            for (int i = 0; i < stripes.length; i++) {
+                stripes[i] = new Stripe();
+            }
+            buckets = new LongAdder[bounds.length + 1];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        private void put(final int id, final double price) {
+            final Stripe stripe = stripeOf(id);
+            stripe.lock.lock();
+            try {
+                final double previous = stripe.prices.get(id, Double.NaN);
+                stripe.prices.put(id, price);
+                if (Double.isNaN(previous)) {
+                    count.increment();
+                    sum.add(price);
+                    stripe.include(price);
+                } else {
+                    sum.add(price - previous);
+                    buckets[bucketOf(previous)].decrement();
+                    stripe.replace(previous, price);
+                }
+                buckets[bucketOf(price)].increment();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+
+        private void remove(final int id) {
+            final Stripe stripe = stripeOf(id);
+            stripe.lock.lock();
+            try {
+                final double previous = stripe.prices.remove(id, Double.NaN);
+                if (Double.isNaN(previous)) {
+                    return;
+                }
+                count.decrement();
+                sum.add(-previous);
+                buckets[bucketOf(previous)].decrement();
+                stripe.exclude(previous);
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+
+        private ProductStatsDTO snapshot() {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (final Stripe stripe : stripes) {
+                stripe.lock.lock();
+                try {
+                    min = Math.min(min, stripe.min);
+                    max = Math.max(max, stripe.max);
+                } finally {
+                    stripe.lock.unlock();
+                }
+            }
+            final long products = count.sum();
+            final double total = sum.sum();
+            final List<ProductStatsDTO.Bucket> histogram = new ArrayList<>(buckets.length);
+            for (int i = 0; i < buckets.length; i++) {
+                histogram.add(new ProductStatsDTO.Bucket(i == 0 ? null : bounds[i - 1],
+                        i == bounds.length ? null : bounds[i], buckets[i].sum()));
+            }
+            return ProductStatsDTO.builder()
+                    .count(products)
+                    .minPrice(products == 0 ? null : min)
+                    .maxPrice(products == 0 ? null : max)
+                    .avgPrice(products == 0 ? null : total / products)
+                    .sumPrice(total)
+                    .histogram(histogram)
+                    .build();
+        }
+
+        private Stripe stripeOf(final int id) {
+            return stripes[(id * 0x9E3779B9) >>> STRIPE_SHIFT];
+        }
+
+        /**
+         * Index of the first bucket whose inclusive upper bound is not lower
+         * than the price.
+         */
+        private int bucketOf(final double price) {
+            final int position = Arrays.binarySearch(bounds, price);
+            return position >= 0 ? position : -position - 1;
+        }
+    }
+
+    /**
+     * The prices of the products of one stripe and their extremes, guarded by
+     * the stripe lock.
+     */
+    private static final class Stripe {
+
+        private final Lock lock = new ReentrantLock();
+        private final IntDoubleHashMap prices = new IntDoubleHashMap(64);
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+
+        private void include(final double price) {
+            min = Math.min(min, price);
+            max = Math.max(max, price);
+        }
+
+        private void replace(final double previous, final double price) {
+            if (previous <= min || previous >= max) {
+                recompute();
+            } else {
+                include(price);
+            }
+        }
+
+        private void exclude(final double previous) {
+            if (previous <= min || previous >= max) {
+                recompute();
+            }
+        }
+
+        /**
+         * Rescans the stripe after its lowest or highest price changed.
+         */
+        private void recompute() {
+            min = Double.POSITIVE_INFINITY;
+            max = Double.NEGATIVE_INFINITY;
+            prices.forEachValue(this::include);
+        }
+    }
+}
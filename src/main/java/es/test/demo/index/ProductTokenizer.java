@@ -0,0 +1,48 @@
+package es.test.demo.index;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * {@link ProductTokenizer}
+ * Splits product text into the terms stored in the search index.
+ * <p>
+ * Text is lower-cased and stripped of diacritics, then split on anything that
+ * is not a letter or a digit. Single-character tokens are dropped, so queries
+ * and documents are always tokenized the same way.
+ */
+final class ProductTokenizer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int MIN_TERM_LENGTH = 2;
+
+    private ProductTokenizer() {
+    }
+
+    /**
+     * Tokenizes a text, keeping repeated terms.
+     *
+     * @param text the text to tokenize, may be {@code null}.
+     * @return the terms in order of appearance.
+     */
+    static List<String> tokenize(final String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        final String normalized = DIACRITICS
+                .matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        final List<String> terms = new ArrayList<>();
+        for (final String token : SEPARATORS.split(normalized)) {
+            if (token.length() >= MIN_TERM_LENGTH) {
+                terms.add(token);
+            }
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,191 @@
+package es.test.demo.index;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link SortedPriceIndex}
+ * Products sorted by {@code (price, id)}, stored as primitive arrays.
+ * <p>
+ * Entries live in a list of sorted blocks of at most {@value #BLOCK_SIZE}
+ * entries, so an insertion or removal only shifts the entries of one block
+ * instead of the whole catalog. A range query binary searches the block and
+ * the position of its first entry and then reads the following entries in
+ * order, which makes it {@code O(log n + k)} for {@code k} results. Not
+ * thread-safe.
+ */
+final class SortedPriceIndex {
+
+    static final int BLOCK_SIZE = 1024;
+
+    private final List<Block> blocks = new ArrayList<>();
+    private final IntDoubleHashMap pricesById = new IntDoubleHashMap(1024);
+
+    /**
+     * Number of products currently indexed.
+     */
+    int size() {
+        return pricesById.size();
+    }
+
+    /**
+     * Indexes the price of a product, replacing its previous price if any.
+     */
+    void put(final int productId, final double price) {
+        remove(productId);
+        pricesById.put(productId, price);
+
+        if (blocks.isEmpty()) {
+            final Block first = new Block();
+            first.insert(0, price, productId);
+            blocks.add(first);
+            return;
+        }
+        // Entries after the last block are appended to it
+        final int blockIndex = Math.min(blockAfter(price, productId), blocks.size() - 1);
+        final Block block = blocks.get(blockIndex);
+        block.insert(block.positionAfter(price, productId), price, productId);
+        if (block.size == BLOCK_SIZE) {
+            blocks.add(blockIndex + 1, block.split());
+        }
+    }
+
+    /**
+     * Removes a product from the index, if present.
+     */
+    void remove(final int productId) {
+        final double price = pricesById.remove(productId, Double.NaN);
+        if (Double.isNaN(price)) {
+            return;
+        }
+        // The entry itself is the first one not lower than (price, id - 1)
+        final int blockIndex = blockAfter(price, productId - 1);
+        final Block block = blocks.get(blockIndex);
+        block.delete(block.positionAfter(price, productId - 1));
+        if (block.size == 0) {
+            blocks.remove(blockIndex);
+        }
+    }
+
+    /**
+     * Empties the index.
+     */
+    void clear() {
+        blocks.clear();
+        pricesById.clear();
+    }
+
+    /**
+     * Copies, in {@code (price, id)} order, the products positioned strictly
+     * after {@code (afterPrice, afterId)} whose price is not greater than
+     * {@code maxPrice}.
+     *
+     * @param afterPrice the price of the last product already returned.
+     * @param afterId    the ID of the last product already returned.
+     * @param maxPrice   the inclusive upper bound of the price range.
+     * @param ids        receives the product IDs, up to its length.
+     * @param prices     receives the matching prices, at least as long as
+     *                   {@code ids}.
+     * @return the number of products copied.
+     */
+    int range(final double afterPrice, final int afterId, final double maxPrice, final int[] ids,
+            final double[] prices) {
+        int count = 0;
+        int blockIndex = blockAfter(afterPrice, afterId);
+        if (blockIndex == blocks.size()) {
+            return 0;
+        }
+        int position = blocks.get(blockIndex).positionAfter(afterPrice, afterId);
+        while (count < ids.length && blockIndex < blocks.size()) {
+            final Block block = blocks.get(blockIndex);
+            for (; position < block.size && count < ids.length; position++) {
+                if (block.prices[position] > maxPrice) {
+                    return count;
+                }
+                ids[count] = block.ids[position];
+                prices[count++] = block.prices[position];
+            }
+            blockIndex++;
+            position = 0;
+        }
+        return count;
+    }
+
+    /**
+     * Finds the first block whose last entry is after {@code (price, id)}, or the
+     * number of blocks when there is none.
+     */
+    private int blockAfter(final double price, final int id) {
+        int low = 0;
+        int high = blocks.size();
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            final Block block = blocks.get(middle);
+            if (isAfter(block.prices[block.size - 1], block.ids[block.size - 1], price, id)) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    private static boolean isAfter(final double price, final int id, final double otherPrice, final int otherId) {
+        final int comparison = Double.compare(price, otherPrice);
+        return comparison > 0 || comparison == 0 && id > otherId;
+    }
+
+    /**
+     * A sorted run of entries, kept in parallel arrays.
+     */
+    private static final class Block {
+
+        private double[] prices = new double[BLOCK_SIZE];
+        private int[] ids = new int[BLOCK_SIZE];
+        private int size;
+
+        /**
+         * Position of the first entry after {@code (price, id)}.
+         */
+        private int positionAfter(final double price, final int id) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                final int middle = (low + high) >>> 1;
+                if (isAfter(prices[middle], ids[middle], price, id)) {
+                    high = middle;
+                } else {
+                    low = middle + 1;
+                }
+            }
+            return low;
+        }
+
+        private void insert(final int position, final double price, final int id) {
+            System.arraycopy(prices, position, prices, position + 1, size - position);
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            prices[position] = price;
+            ids[position] = id;
+            size++;
+        }
+
+        private void delete(final int position) {
+            System.arraycopy(prices, position + 1, prices, position, size - position - 1);
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+        }
+
+        /**
+         * Moves the upper half of this block into a new block.
+         */
+        private Block split() {
+            final Block upper = new Block();
+            final int half = size >>> 1;
+            upper.size = size - half;
+            System.arraycopy(prices, half, upper.prices, 0, upper.size);
+            System.arraycopy(ids, half, upper.ids, 0, upper.size);
+            size = half;
+            return upper;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package es.test.demo.model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Data Transfer Object (DTO) describing an item rejected by a bulk product
+ * creation.
+ * <p>
+ * Fields include:
+ * <ul>
+ * <li>{@code index} - The zero-based position of the item in the request.</li>
+ * <li>{@code messages} - The validation or persistence errors of the
+ * item.</li>
+ * </ul>
+ */
+@Data
+@Builder
+@AllArgsConstructor
+public class ProductBatchErrorDTO {
+
+    /**
+     * The zero-based position of the item in the request body.
+     */
+    private int index;
+
+    /**
+     * The reasons why the item was rejected.
+     */
+    private List<String> messages;
+}
@@ -0,0 +1,41 @@
+package es.test.demo.model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Data Transfer Object (DTO) reporting the outcome of a bulk product creation.
+ * <p>
+ * Valid products are stored even when other items of the same request fail,
+ * so the response lists every rejected item instead of failing as a whole.
+ * <p>
+ * Fields include:
+ * <ul>
+ * <li>{@code received} - The number of items read from the request.</li>
+ * <li>{@code created} - The number of products stored.</li>
+ * <li>{@code errors} - The items that were rejected and why.</li>
+ * </ul>
+ */
+@Data
+@Builder
+@AllArgsConstructor
+public class ProductBatchResultDTO {
+
+    /**
+     * The number of items read from the request body.
+     */
+    private int received;
+
+    /**
+     * The number of products stored in the database.
+     */
+    private int created;
+
+    /**
+     * The rejected items, in request order.
+     */
+    private List<ProductBatchErrorDTO> errors;
+}
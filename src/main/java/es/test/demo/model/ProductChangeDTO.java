@@ -0,0 +1,46 @@
+package es.test.demo.model;
+
+import es.test.demo.event.ProductChangedEvent;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Data Transfer Object (DTO) representing one entry of the product change
+ * feed.
+ * <p>
+ * Fields include:
+ * <ul>
+ * <li>{@code sequence} - The position of the change in the feed.</li>
+ * <li>{@code type} - Whether the product was created, updated or
+ * deleted.</li>
+ * <li>{@code id} - The ID of the changed product.</li>
+ * <li>{@code product} - The product after the change.</li>
+ * </ul>
+ */
+@Data
+@Builder
+@AllArgsConstructor
+public class ProductChangeDTO {
+
+    /**
+     * Increases by one with every change and restarts with the application;
+     * sent in the event ID after the epoch of the run.
+     */
+    private long sequence;
+
+    /**
+     * The kind of change.
+     */
+    private ProductChangedEvent.Type type;
+
+    /**
+     * The ID of the changed product.
+     */
+    private int id;
+
+    /**
+     * The product after the change, {@code null} for deletions.
+     */
+    private ProductDTO product;
+}
@@ -1,5 +1,6 @@
 package es.test.demo.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import jakarta.validation.constraints.Min;
@@ -9,6 +10,7 @@ import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 /**
  * Data Transfer Object (DTO) representing a product.
@@ -23,14 +25,21 @@ import lombok.Data;
  * <ul>
  * <li>{@link com.fasterxml.jackson.annotation.JsonProperty} for JSON
  * serialization control.</li>
+ * <li>{@link com.fasterxml.jackson.annotation.JsonInclude} to leave out the
+ * fields not selected by a projection.</li>
  * <li>{@link javax.validation.constraints.Size},
  * {@link javax.validation.constraints.NotBlank},
  * and {@link javax.validation.constraints.Min} for validation.</li>
+ * <li>{@link lombok.NoArgsConstructor} so request bodies can be read: the
+ * build does not compile parameter names, leaving Jackson no other
+ * creator.</li>
  * </ul>
  */
 @Data
 @Builder
+@NoArgsConstructor
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class ProductDTO {
 
     /**
@@ -87,4 +96,18 @@ public class ProductDTO {
     @Min(value = 0, message = "The product price cannot be lower than 0")
     @NotNull(message = "The product price cannot be null")
     private Double price;
+
+    /**
+     * The version of the product.
+     * <p>
+     * Incremented on every update and sent as the {@code ETag} of the product, so
+     * clients can make conditional requests with {@code If-None-Match} and
+     * {@code If-Match}.
+     * <ul>
+     * <li>{@link JsonProperty.Access#READ_ONLY} ensures it is only included in
+     * responses.</li>
+     * </ul>
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
 }
@@ -0,0 +1,66 @@
+package es.test.demo.model;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+import es.test.demo.exception.product.InvalidPageRequestException;
+
+/**
+ * Fields of a {@link ProductDTO} that a listing can be restricted to.
+ * <p>
+ * {@link #ID} and {@link #VERSION} identify the representation of a product
+ * and back the page ETag, so they are always included.
+ */
+public enum ProductField {
+
+    ID("id"),
+    NAME("name"),
+    DESCRIPTION("description"),
+    PRICE("price"),
+    VERSION("version");
+
+    /**
+     * Every field, the default selection.
+     */
+    public static final Set<ProductField> ALL = Collections.unmodifiableSet(EnumSet.allOf(ProductField.class));
+
+    private final String attribute;
+
+    ProductField(final String attribute) {
+        this.attribute = attribute;
+    }
+
+    /**
+     * The name of the field, both in JSON and in the {@code ProductEntity}.
+     *
+     * @return the attribute name (e.g., "price").
+     */
+    public String attribute() {
+        return attribute;
+    }
+
+    /**
+     * Resolves a field selection from a request parameter, ignoring case.
+     *
+     * @param values the comma-separated field names (e.g., "id,name,price"),
+     *               {@code null} or blank to select every field.
+     * @return the selected fields, plus {@link #ID} and {@link #VERSION}.
+     * @throws InvalidPageRequestException if a name does not match any field.
+     */
+    public static Set<ProductField> fromValues(final String values) {
+        if (values == null || values.isBlank()) {
+            return ALL;
+        }
+        final Set<ProductField> fields = EnumSet.of(ID, VERSION);
+        for (final String value : values.split(",")) {
+            try {
+                fields.add(ProductField.valueOf(value.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidPageRequestException("Unsupported field: " + value);
+            }
+        }
+        return fields;
+    }
+}
@@ -0,0 +1,34 @@
+package es.test.demo.model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Data Transfer Object (DTO) representing the result of fetching many products
+ * by ID.
+ * <p>
+ * Fields include:
+ * <ul>
+ * <li>{@code products} - The products found, in the requested order.</li>
+ * <li>{@code missing} - The requested IDs that did not match any
+ * product.</li>
+ * </ul>
+ */
+@Data
+@Builder
+@AllArgsConstructor
+public class ProductLookupDTO {
+
+    /**
+     * The products found, in the order their IDs were requested.
+     */
+    private List<ProductDTO> products;
+
+    /**
+     * The requested IDs without a matching product, in request order.
+     */
+    private List<Integer> missing;
+}
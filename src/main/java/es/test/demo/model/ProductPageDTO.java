@@ -0,0 +1,39 @@
+package es.test.demo.model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Data Transfer Object (DTO) representing a single page of products.
+ * <p>
+ * Pages are produced with keyset pagination: {@code nextCursor} is an opaque
+ * token that must be sent back as the {@code cursor} request parameter to
+ * fetch the following page.
+ * <p>
+ * Fields include:
+ * <ul>
+ * <li>{@code items} - The products contained in this page.</li>
+ * <li>{@code nextCursor} - The continuation token, or {@code null} when this
+ * is the last page.</li>
+ * </ul>
+ */
+@Data
+@Builder
+@AllArgsConstructor
+public class ProductPageDTO {
+
+    /**
+     * The products contained in this page, in the requested sort order.
+     */
+    private List<ProductDTO> items;
+
+    /**
+     * The opaque continuation token for the next page.
+     * <p>
+     * {@code null} when there are no more products to fetch.
+     */
+    private String nextCursor;
+}
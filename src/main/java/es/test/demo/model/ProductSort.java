@@ -0,0 +1,46 @@
+package es.test.demo.model;
+
+import java.util.Locale;
+
+import es.test.demo.exception.product.InvalidPageRequestException;
+
+/**
+ * Sort orders supported by the paginated product listing.
+ * <p>
+ * Every order is ascending and uses the product ID as tie-breaker, so each
+ * page can be resumed with a keyset condition on {@code (key, id)} instead
+ * of an {@code OFFSET}.
+ */
+public enum ProductSort {
+
+    /**
+     * Orders products by their ID.
+     */
+    ID,
+
+    /**
+     * Orders products by price, then by ID.
+     */
+    PRICE,
+
+    /**
+     * Orders products by name, then by ID.
+     */
+    NAME;
+
+    /**
+     * Resolves a {@link ProductSort} from a request parameter, ignoring case.
+     *
+     * @param value the raw request parameter (e.g., "price").
+     * @return the matching {@link ProductSort}.
+     * @throws InvalidPageRequestException if the value does not match any sort
+     *                                     order.
+     */
+    public static ProductSort fromValue(final String value) {
+        try {
+            return ProductSort.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidPageRequestException("Unsupported sort order: " + value);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package es.test.demo.model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Data Transfer Object (DTO) representing aggregate statistics of the catalog.
+ * <p>
+ * Fields include:
+ * <ul>
+ * <li>{@code count} - The number of products.</li>
+ * <li>{@code minPrice}, {@code maxPrice}, {@code avgPrice} and
+ * {@code sumPrice} - Price aggregates, {@code null} for an empty
+ * catalog except the sum.</li>
+ * <li>{@code histogram} - The number of products per price range.</li>
+ * </ul>
+ */
+@Data
+@Builder
+@AllArgsConstructor
+public class ProductStatsDTO {
+
+    /**
+     * The number of products in the catalog.
+     */
+    private long count;
+
+    /**
+     * The lowest price, {@code null} when the catalog is empty.
+     */
+    private Double minPrice;
+
+    /**
+     * The highest price, {@code null} when the catalog is empty.
+     */
+    private Double maxPrice;
+
+    /**
+     * The average price, {@code null} when the catalog is empty.
+     */
+    private Double avgPrice;
+
+    /**
+     * The sum of every price.
+     */
+    private double sumPrice;
+
+    /**
+     * The price ranges in ascending order, covering every price.
+     */
+    private List<Bucket> histogram;
+
+    /**
+     * A price range of the histogram and its number of products.
+     *
+     * @param from  the exclusive lower bound, {@code null} for the first range.
+     * @param to    the inclusive upper bound, {@code null} for the last range.
+     * @param count the number of products priced in the range.
+     */
+    public record Bucket(Double from, Double to, long count) {
+    }
+}
@@ -0,0 +1,45 @@
+package es.test.demo.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Data Transfer Object (DTO) representing the status of a product write
+ * accepted in write-behind mode.
+ * <p>
+ * Fields include:
+ * <ul>
+ * <li>{@code id} - The tracking ID of the write.</li>
+ * <li>{@code state} - Whether the write is pending, applied or failed.</li>
+ * <li>{@code productId} - The ID of the written product, once known.</li>
+ * <li>{@code error} - Why the write failed, if it did.</li>
+ * </ul>
+ */
+@Data
+@Builder(toBuilder = true)
+@AllArgsConstructor
+public class ProductWriteDTO {
+
+    /**
+     * The tracking ID returned when the write was accepted.
+     */
+    private String id;
+
+    /**
+     * The current state of the write.
+     */
+    private ProductWriteState state;
+
+    /**
+     * The ID of the product: known from the start for updates, and once applied
+     * for creations.
+     */
+    private Integer productId;
+
+    /**
+     * The reason of the failure, only set in the {@link ProductWriteState#FAILED}
+     * state.
+     */
+    private String error;
+}
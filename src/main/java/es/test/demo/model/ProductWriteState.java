@@ -0,0 +1,23 @@
+package es.test.demo.model;
+
+/**
+ * States of a product write accepted in write-behind mode.
+ */
+public enum ProductWriteState {
+
+    /**
+     * The write is queued and has not been committed yet.
+     */
+    PENDING,
+
+    /**
+     * The write has been committed.
+     */
+    APPLIED,
+
+    /**
+     * The write was rejected by the database, or its product was missing or at
+     * another version.
+     */
+    FAILED
+}
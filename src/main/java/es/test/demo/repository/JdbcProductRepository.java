@@ -0,0 +1,334 @@
+package es.test.demo.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Repository;
+
+import es.test.demo.config.ProductRepositoryProperties;
+import es.test.demo.entity.ProductEntity;
+import es.test.demo.model.ProductDTO;
+import es.test.demo.model.ProductField;
+import es.test.demo.model.ProductSort;
+
+/**
+ * {@link JdbcProductRepository}
+ * Plain SQL implementation of {@link ProductRepository}, active with
+ * {@code product.repository.type=jdbc}, where it takes precedence over
+ * {@link JpaProductRepository}.
+ * <p>
+ * Statements run through {@link JdbcClient} and rows are mapped by hand, so
+ * there is no persistence context, no snapshot for dirty checking and no
+ * proxy: a {@link ProductEntity} returned here is a plain object and nothing
+ * tracks it. Every call sends its statement immediately, so {@link #flush()}
+ * has nothing to do. The repository opens no transaction of its own: single
+ * statements auto-commit, and callers that need several of them in one
+ * transaction already open it.
+ * <p>
+ * Inserts are sent in JDBC batches of {@code product.repository.batch-size}
+ * rows. Their IDs come from {@code product_seq} through a
+ * {@link ProductIdAllocator}, with the same pooled-lo scheme as Hibernate.
+ */
+@Repository
+@Primary
+@ConditionalOnProperty(prefix = "product.repository", name = "type", havingValue = "jdbc")
+public class JdbcProductRepository implements ProductRepository {
+
+    private static final String COLUMNS = "id, name, description, price, version";
+    private static final String TABLE = "product";
+    private static final String INSERT = "insert into " + TABLE + " (" + COLUMNS + ") values (?, ?, ?, ?, ?)";
+    private static final String UPDATE = "update " + TABLE
+            + " set name = :name, description = :description, price = :price, version = version + 1 where id = :id";
+
+    private static final RowMapper<ProductEntity> ROW_MAPPER = (row, _) -> new ProductEntity(
+            row.getInt("id"),
+            row.getString("name"),
+            row.getString("description"),
+            row.getDouble("price"),
+            row.getLong("version"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcClient jdbcClient;
+    private final int batchSize;
+    private final ProductIdAllocator idAllocator = new ProductIdAllocator();
+
+    public JdbcProductRepository(final DataSource dataSource, final ProductRepositoryProperties repositoryProperties) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(repositoryProperties.fetchSize());
+        this.jdbcClient = JdbcClient.create(jdbcTemplate);
+        this.batchSize = repositoryProperties.batchSize();
+    }
+
+    @Override
+    public Optional<ProductEntity> findById(final Integer id) {
+        return jdbcClient.sql("select " + COLUMNS + " from " + TABLE + " where id = :id")
+                .param("id", id)
+                .query(ROW_MAPPER)
+                .optional();
+    }
+
+    @Override
+    public List<ProductEntity> findAllById(final Iterable<Integer> ids) {
+        final List<Integer> requested = new ArrayList<>();
+        ids.forEach(requested::add);
+        if (requested.isEmpty()) {
+            return List.of();
+        }
+        return jdbcClient.sql("select " + COLUMNS + " from " + TABLE + " where id in (:ids)")
+                .param("ids", requested)
+                .query(ROW_MAPPER)
+                .list();
+    }
+
+    @Override
+    public boolean existsById(final Integer id) {
+        return jdbcClient.sql("select 1 from " + TABLE + " where id = :id")
+                .param("id", id)
+                .query(Integer.class)
+                .optional()
+                .isPresent();
+    }
+
+    @Override
+    public long count() {
+        return jdbcClient.sql("select count(*) from " + TABLE)
+                .query(Long.class)
+                .single();
+    }
+
+    @Override
+    public <S extends ProductEntity> S saveAndFlush(final S entity) {
+        if (entity.getId() == null) {
+            insert(List.of(entity));
+        } else {
+            update(entity);
+        }
+        return entity;
+    }
+
+    @Override
+    public <S extends ProductEntity> List<S> saveAll(final Iterable<S> entities) {
+        final List<S> saved = new ArrayList<>();
+        final List<ProductEntity> created = new ArrayList<>();
+        for (final S entity : entities) {
+            saved.add(entity);
+            if (entity.getId() == null) {
+                created.add(entity);
+            } else {
+                update(entity);
+            }
+        }
+        insert(created);
+        return saved;
+    }
+
+    @Override
+    public void flush() {
+        // Statements are sent as they are issued, nothing is pending
+    }
+
+    @Override
+    public ProductPriceAggregate aggregatePrices() {
+        return jdbcClient.sql("select count(*), sum(price), min(price), max(price) from " + TABLE)
+                .query((row, _) -> new ProductPriceAggregate(
+                        row.getLong(1),
+                        row.getObject(2, Double.class),
+                        row.getObject(3, Double.class),
+                        row.getObject(4, Double.class)))
+                .single();
+    }
+
+    @Override
+    public Stream<ProductEntity> streamAll() {
+        return jdbcClient.sql("select " + COLUMNS + " from " + TABLE + " order by id")
+                .query(ROW_MAPPER)
+                .stream();
+    }
+
+    @Override
+    public int updateById(final int id, final String name, final String description, final Double price) {
+        return jdbcClient.sql(UPDATE)
+                .param("id", id)
+                .param("name", name)
+                .param("description", description)
+                .param("price", price)
+                .update();
+    }
+
+    @Override
+    public int updateByIdAndVersion(final int id, final long version, final String name, final String description,
+            final Double price) {
+        return jdbcClient.sql(UPDATE + " and version = :version")
+                .param("id", id)
+                .param("version", version)
+                .param("name", name)
+                .param("description", description)
+                .param("price", price)
+                .update();
+    }
+
+    @Override
+    public Optional<Long> findVersionById(final int id) {
+        return jdbcClient.sql("select version from " + TABLE + " where id = :id")
+                .param("id", id)
+                .query(Long.class)
+                .optional();
+    }
+
+    @Override
+    public int removeById(final int id) {
+        return jdbcClient.sql("delete from " + TABLE + " where id = :id")
+                .param("id", id)
+                .update();
+    }
+
+    @Override
+    public int removeByIdAndVersion(final int id, final long version) {
+        return jdbcClient.sql("delete from " + TABLE + " where id = :id and version = :version")
+                .param("id", id)
+                .param("version", version)
+                .update();
+    }
+
+    @Override
+    public List<ProductDTO> findFirstPage(final ProductSort sort, final Set<ProductField> fields, final int limit) {
+        return find(sort, fields, null, limit, null, null, null);
+    }
+
+    @Override
+    public List<ProductDTO> findPageAfter(final ProductSort sort, final int id, final Object key,
+            final Set<ProductField> fields, final int limit) {
+        if (sort == ProductSort.ID) {
+            return find(sort, fields, "id > :id", limit, id, null, null);
+        }
+        final String column = sortField(sort).attribute();
+        return find(sort, fields, column + " > :key or (" + column + " = :key and id > :id)", limit, id, key,
+                null);
+    }
+
+    @Override
+    public List<ProductDTO> findPageInPriceRange(final double maxPrice, final double price, final int id,
+            final Set<ProductField> fields, final int limit) {
+        return find(ProductSort.PRICE, fields,
+                "price <= :maxPrice and (price > :key or (price = :key and id > :id))", limit, id, price,
+                maxPrice);
+    }
+
+    /**
+     * Inserts new products in JDBC batches, assigning their ID and initial
+     * version.
+     */
+    private void insert(final List<ProductEntity> entities) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        for (final ProductEntity entity : entities) {
+            entity.setId(nextId());
+            entity.setVersion(0L);
+        }
+        jdbcTemplate.batchUpdate(INSERT, entities, batchSize, JdbcProductRepository::bindInsert);
+    }
+
+    /**
+     * Updates an existing product, checking its version when it has one, like
+     * a merged JPA entity.
+     */
+    private void update(final ProductEntity entity) {
+        final int id = entity.getId();
+        final Long version = entity.getVersion();
+        final int updated = version == null
+                ? updateById(id, entity.getName(), entity.getDescription(), entity.getPrice())
+                : updateByIdAndVersion(id, version, entity.getName(), entity.getDescription(), entity.getPrice());
+        if (updated == 0) {
+            throw new ObjectOptimisticLockingFailureException(ProductEntity.class, id);
+        }
+        entity.setVersion(version == null ? findVersionById(id).orElseThrow() : version + 1);
+    }
+
+    /**
+     * Hands out the next ID, reserving a new block from the sequence when the
+     * current one is used up.
+     */
+    private int nextId() {
+        return idAllocator.nextId(() -> jdbcClient.sql("select next value for product_seq")
+                .query(Integer.class)
+                .single());
+    }
+
+    /**
+     * Builds and runs a keyset query selecting the requested fields, the ID and
+     * the sort key. Field attributes are also the column names.
+     */
+    private List<ProductDTO> find(final ProductSort sort, final Set<ProductField> fields, final String condition,
+            final int limit, final Integer id, final Object key, final Double maxPrice) {
+        final Set<ProductField> selected = EnumSet.of(ProductField.ID, sortField(sort));
+        selected.addAll(fields);
+        final List<ProductField> columns = List.copyOf(selected);
+        final String order = sort == ProductSort.ID ? "id" : sortField(sort).attribute() + ", id";
+        final String sql = "select "
+                + columns.stream().map(ProductField::attribute).collect(Collectors.joining(", "))
+                + " from " + TABLE
+                + (condition == null ? "" : " where " + condition)
+                + " order by " + order
+                + " limit :limit";
+
+        JdbcClient.StatementSpec statement = jdbcClient.sql(sql).param("limit", limit);
+        if (id != null) {
+            statement = statement.param("id", id);
+        }
+        if (key != null) {
+            statement = statement.param("key", key);
+        }
+        if (maxPrice != null) {
+            statement = statement.param("maxPrice", maxPrice);
+        }
+        return statement.query((row, _) -> toDTO(row, columns)).list();
+    }
+
+    private static void bindInsert(final PreparedStatement statement, final ProductEntity entity)
+            throws SQLException {
+        statement.setInt(1, entity.getId());
+        statement.setString(2, entity.getName());
+        statement.setString(3, entity.getDescription());
+        statement.setDouble(4, entity.getPrice());
+        statement.setLong(5, entity.getVersion());
+    }
+
+    private static ProductDTO toDTO(final ResultSet row, final List<ProductField> columns) throws SQLException {
+        final ProductDTO.ProductDTOBuilder product = ProductDTO.builder();
+        for (int i = 0; i < columns.size(); i++) {
+            switch (columns.get(i)) {
+                case ID -> product.id(row.getInt(i + 1));
+                case NAME -> product.name(row.getString(i + 1));
+                case DESCRIPTION -> product.description(row.getString(i + 1));
+                case PRICE -> product.price(row.getDouble(i + 1));
+                case VERSION -> product.version(row.getLong(i + 1));
+            }
+        }
+        return product.build();
+    }
+
+    private static ProductField sortField(final ProductSort sort) {
+        return switch (sort) {
+            case ID -> ProductField.ID;
+            case PRICE -> ProductField.PRICE;
+            case NAME -> ProductField.NAME;
+        };
+    }
+}
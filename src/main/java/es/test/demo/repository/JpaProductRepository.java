@@ -0,0 +1,73 @@
+package es.test.demo.repository;
+
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import es.test.demo.entity.ProductEntity;
+import jakarta.persistence.QueryHint;
+
+/**
+ * {@link JpaProductRepository}
+ * Spring Data JPA implementation of {@link ProductRepository}, inheriting the
+ * methods from the {@link JpaRepository} and the JPQL listings of
+ * {@link ProductProjectionRepositoryImpl}.
+ */
+@Repository
+public interface JpaProductRepository
+        extends JpaRepository<ProductEntity, Integer>, ProductRepository, ProductProjectionRepository {
+
+    @Override
+    @Query("select new es.test.demo.repository.ProductPriceAggregate(count(p), sum(p.price), min(p.price), "
+            + "max(p.price)) from ProductEntity p")
+    ProductPriceAggregate aggregatePrices();
+
+    @Override
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("select p from ProductEntity p order by p.id")
+    Stream<ProductEntity> streamAll();
+
+    @Override
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update ProductEntity p set p.name = :name, p.description = :description, p.price = :price, "
+            + "p.version = p.version + 1 where p.id = :id")
+    int updateById(@Param("id") int id, @Param("name") String name, @Param("description") String description,
+            @Param("price") Double price);
+
+    @Override
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update ProductEntity p set p.name = :name, p.description = :description, p.price = :price, "
+            + "p.version = p.version + 1 where p.id = :id and p.version = :version")
+    int updateByIdAndVersion(@Param("id") int id, @Param("version") long version, @Param("name") String name,
+            @Param("description") String description, @Param("price") Double price);
+
+    @Override
+    @Query("select p.version from ProductEntity p where p.id = :id")
+    Optional<Long> findVersionById(@Param("id") int id);
+
+    @Override
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("delete from ProductEntity p where p.id = :id")
+    int removeById(@Param("id") int id);
+
+    @Override
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("delete from ProductEntity p where p.id = :id and p.version = :version")
+    int removeByIdAndVersion(@Param("id") int id, @Param("version") long version);
+}
@@ -0,0 +1,103 @@
+package es.test.demo.repository;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
+
+import es.test.demo.entity.ProductEntity;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link ProductIdAllocator}
+ * Hands out product IDs from {@code product_seq} with the same pooled-lo
+ * scheme as Hibernate: each value read from the sequence reserves the block of
+ * {@value ProductEntity#ID_ALLOCATION_SIZE} IDs starting at it, and the block
+ * is handed out in memory before the sequence is read again.
+ * <p>
+ * Used by the repositories that insert without Hibernate, which read the
+ * sequence their own way: {@link JdbcProductRepository} blocking and
+ * {@link ReactiveProductRepository} non-blocking. Every allocator reserves
+ * its own blocks, so several of them, and Hibernate, can share the sequence.
+ */
+final class ProductIdAllocator {
+
+    /**
+     * Guards the reserved block and the pending reservation.
+     */
+    private final Lock lock = new ReentrantLock();
+    private int nextReservedId;
+    private int lastReservedId = -1;
+
+    /**
+     * The non-blocking reservation in flight, shared by the callers that find
+     * the block used up meanwhile.
+     */
+    private Mono<Integer> reservation;
+
+    /**
+     * Hands out the next ID, reading the sequence on the caller's thread when
+     * the block is used up. Concurrent callers wait for that read.
+     *
+     * @param sequence reads the next value of the sequence.
+     * @return the ID.
+     */
+    int nextId(final IntSupplier sequence) {
+        lock.lock();
+        try {
+            if (nextReservedId > lastReservedId) {
+                reserve(sequence.getAsInt());
+            }
+            return nextReservedId++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hands out the next ID, reading the sequence when the block is used up.
+     * Callers arriving while that read is in flight share it instead of
+     * reserving blocks of their own.
+     *
+     * @param sequence emits the next value of the sequence when subscribed.
+     * @return the ID.
+     */
+    Mono<Integer> nextId(final Mono<Integer> sequence) {
+        return Mono.defer(() -> {
+            final Mono<Integer> pending;
+            lock.lock();
+            try {
+                if (nextReservedId <= lastReservedId) {
+                    return Mono.just(nextReservedId++);
+                }
+                if (reservation == null) {
+                    reservation = sequence
+                            .doOnNext(this::completeReservation)
+                            .doOnError(_ -> completeReservation(null))
+                            .cache();
+                }
+                pending = reservation;
+            } finally {
+                lock.unlock();
+            }
+            // The reserved block may be used up by other callers before this one retries
+            return pending.then(nextId(sequence));
+        });
+    }
+
+    private void completeReservation(final Integer first) {
+        lock.lock();
+        try {
+            if (first != null) {
+                reserve(first);
+            }
+            reservation = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void reserve(final int first) {
+        nextReservedId = first;
+        lastReservedId = first + ProductEntity.ID_ALLOCATION_SIZE - 1;
+    }
+}
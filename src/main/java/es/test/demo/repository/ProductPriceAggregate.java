@@ -0,0 +1,13 @@
+package es.test.demo.repository;
+
+/**
+ * {@link ProductPriceAggregate}
+ * Count and price aggregates of the whole catalog, computed by the database.
+ *
+ * @param count the number of products.
+ * @param sum   the sum of the prices, {@code null} for an empty catalog.
+ * @param min   the lowest price, {@code null} for an empty catalog.
+ * @param max   the highest price, {@code null} for an empty catalog.
+ */
+public record ProductPriceAggregate(long count, Double sum, Double min, Double max) {
+}
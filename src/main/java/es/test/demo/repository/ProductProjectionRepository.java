@@ -0,0 +1,62 @@
+package es.test.demo.repository;
+
+import java.util.List;
+import java.util.Set;
+
+import es.test.demo.model.ProductDTO;
+import es.test.demo.model.ProductField;
+import es.test.demo.model.ProductSort;
+
+/**
+ * {@link ProductProjectionRepository}
+ * Read-only keyset listings that select the requested columns straight into
+ * {@link ProductDTO} objects.
+ * <p>
+ * No entity is instantiated, registered in the persistence context or
+ * snapshotted for dirty checking, and no mapping step follows: each row
+ * becomes one DTO with the fields that were not selected left {@code null}.
+ * The sort key is always selected so the caller can build the next cursor.
+ * <p>
+ * Like the other keyset queries, a page resumes right after the
+ * {@code (key, id)} of the previous one and is limited with a plain
+ * {@code LIMIT}.
+ */
+public interface ProductProjectionRepository {
+
+    /**
+     * Reads the first page of a listing.
+     *
+     * @param sort   the sort order.
+     * @param fields the fields to select.
+     * @param limit  the maximum number of rows.
+     * @return the products of the page, in order.
+     */
+    List<ProductDTO> findFirstPage(ProductSort sort, Set<ProductField> fields, int limit);
+
+    /**
+     * Reads the page of a listing that follows the given position.
+     *
+     * @param sort   the sort order.
+     * @param id     the ID of the last product already returned.
+     * @param key    the sort key of that product: {@code null} for
+     *               {@link ProductSort#ID}, its price or its name otherwise.
+     * @param fields the fields to select.
+     * @param limit  the maximum number of rows.
+     * @return the products of the page, in order.
+     */
+    List<ProductDTO> findPageAfter(ProductSort sort, int id, Object key, Set<ProductField> fields, int limit);
+
+    /**
+     * Reads a page of a price range listing in {@code (price, id)} order,
+     * stopping at an upper price bound.
+     *
+     * @param maxPrice the inclusive upper bound of the price range.
+     * @param price    the price of the last product already returned.
+     * @param id       the ID of the last product already returned.
+     * @param fields   the fields to select.
+     * @param limit    the maximum number of rows.
+     * @return the products of the page, in order.
+     */
+    List<ProductDTO> findPageInPriceRange(double maxPrice, double price, int id, Set<ProductField> fields,
+            int limit);
+}
@@ -0,0 +1,122 @@
+package es.test.demo.repository;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.hibernate.FlushMode;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.transaction.annotation.Transactional;
+
+import es.test.demo.entity.ProductEntity;
+import es.test.demo.model.ProductDTO;
+import es.test.demo.model.ProductField;
+import es.test.demo.model.ProductSort;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+
+/**
+ * {@link ProductProjectionRepositoryImpl}
+ * JPQL implementation of {@link ProductProjectionRepository}, picked up by
+ * Spring Data as a fragment of {@link JpaProductRepository}.
+ * <p>
+ * Queries select the columns as a {@link Tuple} and run in a read-only
+ * transaction with flushing disabled, so Hibernate neither checks the
+ * persistence context for pending changes nor keeps anything in it.
+ */
+@Transactional(readOnly = true)
+public class ProductProjectionRepositoryImpl implements ProductProjectionRepository {
+
+    private static final String ENTITY = ProductEntity.class.getSimpleName();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ProductDTO> findFirstPage(final ProductSort sort, final Set<ProductField> fields, final int limit) {
+        return find(sort, fields, null, limit, null, null, null);
+    }
+
+    @Override
+    public List<ProductDTO> findPageAfter(final ProductSort sort, final int id, final Object key,
+            final Set<ProductField> fields, final int limit) {
+        if (sort == ProductSort.ID) {
+            return find(sort, fields, "p.id > :id", limit, id, null, null);
+        }
+        final String attribute = "p." + sortField(sort).attribute();
+        return find(sort, fields, attribute + " > :key or (" + attribute + " = :key and p.id > :id)", limit, id,
+                key, null);
+    }
+
+    @Override
+    public List<ProductDTO> findPageInPriceRange(final double maxPrice, final double price, final int id,
+            final Set<ProductField> fields, final int limit) {
+        return find(ProductSort.PRICE, fields,
+                "p.price <= :maxPrice and (p.price > :key or (p.price = :key and p.id > :id))", limit, id, price,
+                maxPrice);
+    }
+
+    /**
+     * Builds and runs a keyset query selecting the requested fields, the ID and
+     * the sort key.
+     */
+    private List<ProductDTO> find(final ProductSort sort, final Set<ProductField> fields, final String condition,
+            final int limit, final Integer id, final Object key, final Double maxPrice) {
+        final Set<ProductField> selected = EnumSet.of(ProductField.ID, sortField(sort));
+        selected.addAll(fields);
+        final List<ProductField> columns = List.copyOf(selected);
+        final String order = sort == ProductSort.ID ? "p.id" : "p." + sortField(sort).attribute() + ", p.id";
+        final String jpql = "select "
+                + columns.stream().map(field -> "p." + field.attribute()).collect(Collectors.joining(", "))
+                + " from " + ENTITY + " p"
+                + (condition == null ? "" : " where " + condition)
+                + " order by " + order;
+
+        final TypedQuery<Tuple> query = entityManager.createQuery(jpql, Tuple.class)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setHint(HibernateHints.HINT_FLUSH_MODE, FlushMode.MANUAL)
+                .setMaxResults(limit);
+        if (id != null) {
+            query.setParameter("id", id);
+        }
+        if (key != null) {
+            query.setParameter("key", key);
+        }
+        if (maxPrice != null) {
+            query.setParameter("maxPrice", maxPrice);
+        }
+
+        final List<Tuple> rows = query.getResultList();
+        final List<ProductDTO> products = new ArrayList<>(rows.size());
+        for (final Tuple row : rows) {
+            products.add(toDTO(row, columns));
+        }
+        return products;
+    }
+
+    private static ProductDTO toDTO(final Tuple row, final List<ProductField> columns) {
+        final ProductDTO.ProductDTOBuilder product = ProductDTO.builder();
+        for (int i = 0; i < columns.size(); i++) {
+            switch (columns.get(i)) {
+                case ID -> product.id(row.get(i, Integer.class));
+                case NAME -> product.name(row.get(i, String.class));
+                case DESCRIPTION -> product.description(row.get(i, String.class));
+                case PRICE -> product.price(row.get(i, Double.class));
+                case VERSION -> product.version(row.get(i, Long.class));
+            }
+        }
+        return product.build();
+    }
+
+    private static ProductField sortField(final ProductSort sort) {
+        return switch (sort) {
+            case ID -> ProductField.ID;
+            case PRICE -> ProductField.PRICE;
+            case NAME -> ProductField.NAME;
+        };
+    }
+}
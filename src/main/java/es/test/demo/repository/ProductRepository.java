@@ -1,16 +1,164 @@
 package es.test.demo.repository;
 
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 import es.test.demo.entity.ProductEntity;
 
 /**
  * {@link ProductRepository}
- * Manages all the connections to the database and the {@link ProductEntity},
- * inheriting the methods from the {@link JpaRepository}
+ * Manages all the connections to the database and the {@link ProductEntity}.
+ * <p>
+ * Two implementations are available, selected with
+ * {@code product.repository.type}:
+ * <ul>
+ * <li>{@code jpa} (default): {@link JpaProductRepository}, a Spring Data JPA
+ * repository going through Hibernate's persistence context.</li>
+ * <li>{@code jdbc}: {@link JdbcProductRepository}, plain SQL with row mapping
+ * and JDBC batches, without persistence context or dirty checking.</li>
+ * </ul>
+ * <p>
+ * Listings are read through the keyset queries of
+ * {@link ProductProjectionRepository}, which resume right after the last row
+ * of the previous page so the database walks the {@code (key, id)} index from
+ * the cursor onwards, and select straight into DTOs.
+ * <p>
+ * {@link #aggregatePrices()} computes the catalog statistics in a single
+ * scan, used to check the ones kept in memory.
+ * <p>
+ * {@link #streamAll()} reads the whole table through a forward-only cursor and
+ * must be consumed inside a transaction and closed afterwards.
+ * <p>
+ * {@link #updateById} and {@link #removeById} run a single {@code UPDATE} or
+ * {@code DELETE} statement and return the number of affected rows, so callers
+ * can detect a missing product without loading it first. Their
+ * {@code ...AndVersion} variants only match the given version, which makes
+ * them atomic compare-and-set operations for optimistic locking.
  */
-@Repository
-public interface ProductRepository extends JpaRepository<ProductEntity, Integer> {
+public interface ProductRepository extends ProductProjectionRepository {
 
+    /**
+     * Reads a product.
+     *
+     * @param id the product ID.
+     * @return the product, or empty if it does not exist.
+     */
+    Optional<ProductEntity> findById(Integer id);
+
+    /**
+     * Reads the products with the given IDs, in no particular order. Unknown
+     * IDs are left out.
+     *
+     * @param ids the product IDs.
+     * @return the products found.
+     */
+    List<ProductEntity> findAllById(Iterable<Integer> ids);
+
+    /**
+     * Tells whether a product exists.
+     *
+     * @param id the product ID.
+     * @return {@code true} if it exists.
+     */
+    boolean existsById(Integer id);
+
+    /**
+     * Counts the products of the catalog.
+     *
+     * @return the number of products.
+     */
+    long count();
+
+    /**
+     * Inserts a new product, or updates an existing one, and writes it to the
+     * database right away.
+     *
+     * @param entity the product, which gets its ID and version assigned.
+     * @return the saved product.
+     */
+    <S extends ProductEntity> S saveAndFlush(S entity);
+
+    /**
+     * Inserts or updates several products, in JDBC batches. They may only reach
+     * the database on the next {@link #flush()}.
+     *
+     * @param entities the products, which get their ID and version assigned.
+     * @return the saved products.
+     */
+    <S extends ProductEntity> List<S> saveAll(Iterable<S> entities);
+
+    /**
+     * Writes the pending changes to the database.
+     */
+    void flush();
+
+    /**
+     * Computes the count and the price aggregates of the catalog in a single
+     * scan.
+     *
+     * @return the aggregates; the price ones are {@code null} when the catalog
+     *         is empty.
+     */
+    ProductPriceAggregate aggregatePrices();
+
+    /**
+     * Reads every product in ID order through a forward-only cursor. Must be
+     * consumed inside a transaction and closed afterwards.
+     *
+     * @return the products, read as the stream is consumed.
+     */
+    Stream<ProductEntity> streamAll();
+
+    /**
+     * Overwrites a product and increments its version, in a single statement.
+     *
+     * @param id          the product ID.
+     * @param name        the new name.
+     * @param description the new description.
+     * @param price       the new price.
+     * @return the number of updated rows, 0 if the product does not exist.
+     */
+    int updateById(int id, String name, String description, Double price);
+
+    /**
+     * Overwrites a product and increments its version, in a single statement,
+     * only if it still has the given version.
+     *
+     * @param id          the product ID.
+     * @param version     the version the product must have.
+     * @param name        the new name.
+     * @param description the new description.
+     * @param price       the new price.
+     * @return the number of updated rows, 0 if the product does not exist or
+     *         has another version.
+     */
+    int updateByIdAndVersion(int id, long version, String name, String description, Double price);
+
+    /**
+     * Reads the version of a product, without loading it.
+     *
+     * @param id the product ID.
+     * @return the version, or empty if the product does not exist.
+     */
+    Optional<Long> findVersionById(int id);
+
+    /**
+     * Deletes a product, in a single statement.
+     *
+     * @param id the product ID.
+     * @return the number of deleted rows, 0 if the product does not exist.
+     */
+    int removeById(int id);
+
+    /**
+     * Deletes a product, in a single statement, only if it still has the given
+     * version.
+     *
+     * @param id      the product ID.
+     * @param version the version the product must have.
+     * @return the number of deleted rows, 0 if the product does not exist or
+     *         has another version.
+     */
+    int removeByIdAndVersion(int id, long version);
 }
@@ -0,0 +1,252 @@
+package es.test.demo.repository;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import es.test.demo.config.ReactiveProductProperties;
+import es.test.demo.entity.ProductEntity;
+import es.test.demo.model.ProductDTO;
+import es.test.demo.model.ProductSort;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Readable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link ReactiveProductRepository}
+ * Non-blocking access to the product table through R2DBC, used by the reactive
+ * API.
+ * <p>
+ * The connection pool is private to this repository rather than a bean, so the
+ * JPA data source stays the only one Spring Boot configures and initializes.
+ * Connections are only opened on first use.
+ * <p>
+ * Listings use the same keyset conditions as {@link ProductProjectionRepository}.
+ * Writes run as a single statement each: inserts and updates read the written
+ * row back through H2's {@code FINAL TABLE}. Inserts take their ID from
+ * {@code product_seq} through a {@link ProductIdAllocator}, so the sequence is
+ * only read once every {@value ProductEntity#ID_ALLOCATION_SIZE} inserts, like
+ * Hibernate does.
+ */
+@Repository
+public class ReactiveProductRepository implements DisposableBean {
+
+    private static final String COLUMNS = "id, name, description, price, version";
+    private static final String TABLE = "product";
+
+    private final ConnectionPool connectionPool;
+    private final DatabaseClient databaseClient;
+    private final ProductIdAllocator idAllocator = new ProductIdAllocator();
+
+    public ReactiveProductRepository(final ReactiveProductProperties reactiveProperties) {
+        final ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(reactiveProperties.url())
+                .mutate()
+                .option(ConnectionFactoryOptions.USER, reactiveProperties.username())
+                .option(ConnectionFactoryOptions.PASSWORD,
+                        reactiveProperties.password() == null ? "" : reactiveProperties.password())
+                .build();
+        this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration
+                .builder(ConnectionFactories.get(options))
+                .maxSize(reactiveProperties.maxConnections())
+                .build());
+        this.databaseClient = DatabaseClient.create(connectionPool);
+    }
+
+    /**
+     * Reads a product.
+     *
+     * @param id the product ID.
+     * @return the product, or empty if it does not exist.
+     */
+    public Mono<ProductDTO> findById(final int id) {
+        return databaseClient.sql("select " + COLUMNS + " from " + TABLE + " where id = :id")
+                .bind("id", id)
+                .map(ReactiveProductRepository::toDTO)
+                .one();
+    }
+
+    /**
+     * Tells whether a product exists.
+     *
+     * @param id the product ID.
+     * @return {@code true} if it exists.
+     */
+    public Mono<Boolean> existsById(final int id) {
+        return databaseClient.sql("select 1 from " + TABLE + " where id = :id")
+                .bind("id", id)
+                .map(_ -> Boolean.TRUE)
+                .first()
+                .defaultIfEmpty(Boolean.FALSE);
+    }
+
+    /**
+     * Reads the first page of a listing.
+     *
+     * @param sort  the sort order.
+     * @param limit the maximum number of products.
+     * @return the products, in {@code (key, id)} order.
+     */
+    public Flux<ProductDTO> findFirstPage(final ProductSort sort, final int limit) {
+        return find(sort, null, limit, null, null, null);
+    }
+
+    /**
+     * Reads the page of a listing that follows a product.
+     *
+     * @param sort  the sort order.
+     * @param id    the ID of the last product of the previous page.
+     * @param key   the sort key of that product, ignored when sorting by ID.
+     * @param limit the maximum number of products.
+     * @return the products, in {@code (key, id)} order.
+     */
+    public Flux<ProductDTO> findPageAfter(final ProductSort sort, final int id, final Object key, final int limit) {
+        if (sort == ProductSort.ID) {
+            return find(sort, "id > :id", limit, id, null, null);
+        }
+        final String column = column(sort);
+        return find(sort, column + " > :key or (" + column + " = :key and id > :id)", limit, id, key, null);
+    }
+
+    /**
+     * Reads the page of a price range that follows a position.
+     *
+     * @param maxPrice the highest price of the range.
+     * @param price    the price of the position.
+     * @param id       the ID of the position.
+     * @param limit    the maximum number of products.
+     * @return the products, cheapest first.
+     */
+    public Flux<ProductDTO> findPageInPriceRange(final double maxPrice, final double price, final int id,
+            final int limit) {
+        return find(ProductSort.PRICE, "price <= :maxPrice and (price > :key or (price = :key and id > :id))",
+                limit, id, price, maxPrice);
+    }
+
+    /**
+     * Streams the whole catalog in ID order. Rows are fetched as the
+     * subscriber requests them.
+     *
+     * @return every product.
+     */
+    public Flux<ProductDTO> streamAll() {
+        return databaseClient.sql("select " + COLUMNS + " from " + TABLE + " order by id")
+                .map(ReactiveProductRepository::toDTO)
+                .all();
+    }
+
+    /**
+     * Inserts a product.
+     *
+     * @param product the product to insert.
+     * @return the inserted product, with its ID and version.
+     */
+    public Mono<ProductDTO> insert(final ProductDTO product) {
+        return nextId().flatMap(id -> databaseClient.sql("select " + COLUMNS + " from final table (insert into "
+                + TABLE + " (" + COLUMNS + ") values (:id, :name, :description, :price, 0))")
+                .bind("id", id)
+                .bind("name", product.getName())
+                .bind("description", product.getDescription())
+                .bind("price", product.getPrice())
+                .map(ReactiveProductRepository::toDTO)
+                .one());
+    }
+
+    /**
+     * Updates a product and increments its version.
+     *
+     * @param id      the product ID.
+     * @param version the version the product must be at, or {@code null} for
+     *                any version.
+     * @param product the new name, description and price.
+     * @return the updated product, or empty if no product matched.
+     */
+    public Mono<ProductDTO> update(final int id, final Long version, final ProductDTO product) {
+        final DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("select " + COLUMNS
+                + " from final table (update " + TABLE
+                + " set name = :name, description = :description, price = :price, version = version + 1"
+                + " where id = :id" + (version == null ? "" : " and version = :version") + ")")
+                .bind("id", id)
+                .bind("name", product.getName())
+                .bind("description", product.getDescription())
+                .bind("price", product.getPrice());
+        return (version == null ? spec : spec.bind("version", version))
+                .map(ReactiveProductRepository::toDTO)
+                .one();
+    }
+
+    /**
+     * Deletes a product.
+     *
+     * @param id      the product ID.
+     * @param version the version the product must be at, or {@code null} for
+     *                any version.
+     * @return the number of deleted rows.
+     */
+    public Mono<Long> delete(final int id, final Long version) {
+        final DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("delete from " + TABLE + " where id = :id"
+                + (version == null ? "" : " and version = :version"))
+                .bind("id", id);
+        return (version == null ? spec : spec.bind("version", version))
+                .fetch()
+                .rowsUpdated();
+    }
+
+    @Override
+    public void destroy() {
+        connectionPool.dispose();
+    }
+
+    /**
+     * Hands out the next ID, reserving a new block from the sequence when the
+     * current one is used up.
+     */
+    private Mono<Integer> nextId() {
+        return idAllocator.nextId(databaseClient.sql("select next value for product_seq")
+                .map(row -> row.get(0, Long.class).intValue())
+                .one());
+    }
+
+    /**
+     * Builds and runs a keyset query.
+     */
+    private Flux<ProductDTO> find(final ProductSort sort, final String condition, final int limit, final Integer id,
+            final Object key, final Double maxPrice) {
+        final String order = sort == ProductSort.ID ? "id" : column(sort) + ", id";
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("select " + COLUMNS + " from " + TABLE
+                + (condition == null ? "" : " where " + condition)
+                + " order by " + order + " limit :limit")
+                .bind("limit", limit);
+        if (id != null) {
+            spec = spec.bind("id", id);
+        }
+        if (key != null) {
+            spec = spec.bind("key", key);
+        }
+        if (maxPrice != null) {
+            spec = spec.bind("maxPrice", maxPrice);
+        }
+        return spec.map(ReactiveProductRepository::toDTO).all();
+    }
+
+    private static String column(final ProductSort sort) {
+        return switch (sort) {
+            case ID -> "id";
+            case PRICE -> "price";
+            case NAME -> "name";
+        };
+    }
+
+    private static ProductDTO toDTO(final Readable row) {
+        return ProductDTO.builder()
+                .id(row.get("id", Integer.class))
+                .name(row.get("name", String.class))
+                .description(row.get("description", String.class))
+                .price(row.get("price", Double.class))
+                .version(row.get("version", Long.class))
+                .build();
+    }
+}
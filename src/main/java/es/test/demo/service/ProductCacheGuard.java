@@ -0,0 +1,71 @@
+package es.test.demo.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.cache.Cache;
+import org.springframework.stereotype.Component;
+
+import es.test.demo.model.ProductDTO;
+
+/**
+ * {@link ProductCacheGuard}
+ * Keeps reads from storing stale products in
+ * {@link es.test.demo.config.CacheConfig#PRODUCTS}.
+ * <p>
+ * A read that loaded a product before a write committed could store it after
+ * the write refreshed or evicted the entry, and the old product would then be
+ * served until it expires. Every write bumps the generation of the product
+ * before it updates the cache, and a read stores its product only if the
+ * generation it read before querying is still current: otherwise it evicts
+ * the entry again, so the next read loads the product anew.
+ * <p>
+ * Generations are kept per stripe of IDs, so writes to other products rarely
+ * discard a read.
+ */
+@Component
+public class ProductCacheGuard {
+
+    private static final int STRIPES = 1024;
+
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+
+    /**
+     * The current generation of a product, to read before loading it.
+     *
+     * @param id the product ID.
+     * @return a value that changes whenever the product is written.
+     */
+    public long generation(final int id) {
+        return generations.get(stripe(id));
+    }
+
+    /**
+     * Marks a product as written. Must be called before its cached entry is
+     * refreshed or evicted.
+     *
+     * @param id the product ID.
+     */
+    public void written(final int id) {
+        generations.incrementAndGet(stripe(id));
+    }
+
+    /**
+     * Stores a loaded product unless an entry is already cached, and evicts it
+     * again if the product was written since {@code generation}.
+     *
+     * @param cache      the product cache.
+     * @param generation the {@link #generation(int)} read before loading it.
+     * @param product    the loaded product.
+     */
+    public void putLoaded(final Cache cache, final long generation, final ProductDTO product) {
+        final int id = product.getId();
+        cache.putIfAbsent(id, product);
+        if (generation(id) != generation) {
+            cache.evict(id);
+        }
+    }
+
+    private static int stripe(final int id) {
+        return Math.floorMod(id * 0x9E3779B9, STRIPES);
+    }
+}
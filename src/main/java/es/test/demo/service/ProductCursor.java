@@ -0,0 +1,100 @@
+package es.test.demo.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import es.test.demo.exception.product.InvalidPageRequestException;
+import es.test.demo.model.ProductDTO;
+import es.test.demo.model.ProductSort;
+
+/**
+ * {@link ProductCursor}
+ * Position of the last product returned in a page, used to resume a keyset
+ * paginated listing.
+ * <p>
+ * Clients only ever see the encoded form, an URL-safe Base64 token, so the
+ * layout can change without breaking the API contract.
+ *
+ * @param sort  the sort order the cursor belongs to.
+ * @param id    the ID of the last product of the page.
+ * @param value the sort key of the last product, {@code null} when sorting by
+ *              ID.
+ */
+public record ProductCursor(ProductSort sort, int id, String value) {
+
+    private static final char SEPARATOR = '|';
+    private static final String INVALID_CURSOR = "The page cursor is not valid";
+
+    /**
+     * Builds the cursor pointing right after the given product.
+     *
+     * @param sort    the sort order of the page.
+     * @param product the last {@link ProductDTO} of the page, holding at least
+     *                its ID and sort key.
+     * @return the {@link ProductCursor} for the next page.
+     */
+    public static ProductCursor after(final ProductSort sort, final ProductDTO product) {
+        final String value = switch (sort) {
+            case ID -> null;
+            case PRICE -> Double.toString(product.getPrice());
+            case NAME -> product.getName();
+        };
+        return new ProductCursor(sort, product.getId(), value);
+    }
+
+    /**
+     * Builds the price cursor pointing right after the given position.
+     *
+     * @param price the price of the last product of the page.
+     * @param id    the ID of the last product of the page.
+     * @return the {@link ProductCursor} for the next page.
+     */
+    public static ProductCursor ofPrice(final double price, final int id) {
+        return new ProductCursor(ProductSort.PRICE, id, Double.toString(price));
+    }
+
+    /**
+     * Decodes a cursor previously produced by {@link #encode()}.
+     *
+     * @param token the opaque token sent by the client.
+     * @return the decoded {@link ProductCursor}.
+     * @throws InvalidPageRequestException if the token is malformed.
+     */
+    public static ProductCursor decode(final String token) {
+        try {
+            final String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            final String[] parts = raw.split("\\|", 3);
+            if (parts.length != 3) {
+                throw new InvalidPageRequestException(INVALID_CURSOR);
+            }
+            final ProductSort sort = ProductSort.valueOf(parts[0]);
+            final int id = Integer.parseInt(parts[1]);
+            final String value = sort == ProductSort.ID ? null : parts[2];
+            if (sort == ProductSort.PRICE) {
+                Double.parseDouble(value);
+            }
+            return new ProductCursor(sort, id, value);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidPageRequestException(INVALID_CURSOR);
+        }
+    }
+
+    /**
+     * Encodes this cursor as an opaque, URL-safe token.
+     *
+     * @return the encoded cursor.
+     */
+    public String encode() {
+        final String raw = sort.name() + SEPARATOR + id + SEPARATOR + (value == null ? "" : value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the sort key as a price.
+     *
+     * @return the price of the last product of the page.
+     */
+    public double price() {
+        return Double.parseDouble(value);
+    }
+}
@@ -1,8 +1,17 @@
 package es.test.demo.service;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
+import es.test.demo.model.ProductBatchResultDTO;
 import es.test.demo.model.ProductDTO;
+import es.test.demo.model.ProductField;
+import es.test.demo.model.ProductLookupDTO;
+import es.test.demo.model.ProductPageDTO;
+import es.test.demo.model.ProductSort;
+import es.test.demo.model.ProductStatsDTO;
 
 /**
  * {@link ProductService}
@@ -10,11 +19,107 @@ import es.test.demo.model.ProductDTO;
 public interface ProductService {
 
     /**
-     * Retrieves a list of all available products.
+     * Retrieves a page of products using keyset pagination.
      *
-     * @return a {@link List} of {@link ProductDTO} representing all products.
+     * @param sort   the {@link ProductSort} to apply, {@code null} to use the one
+     *               carried by the cursor or {@link ProductSort#ID}.
+     * @param cursor the opaque continuation token returned with the previous
+     *               page, {@code null} to fetch the first page.
+     * @param limit  the requested page size, {@code null} to use the configured
+     *               default.
+     * @return a {@link ProductPageDTO} with the products of the page and the
+     *         cursor of the next one.
+     * @throws InvalidPageRequestException if the cursor is malformed, belongs to
+     *                                     a different sort order or the page size
+     *                                     is not valid.
      */
-    List<ProductDTO> getProducts();
+    default ProductPageDTO getProducts(ProductSort sort, String cursor, Integer limit) {
+        return getProducts(sort, cursor, limit, ProductField.ALL);
+    }
+
+    /**
+     * Retrieves a page of products using keyset pagination, with only the
+     * selected fields.
+     * <p>
+     * Products are read straight into {@link ProductDTO} projections, leaving
+     * the fields not selected {@code null}.
+     *
+     * @param sort   the {@link ProductSort} to apply, {@code null} to use the one
+     *               carried by the cursor or {@link ProductSort#ID}.
+     * @param cursor the opaque continuation token returned with the previous
+     *               page, {@code null} to fetch the first page.
+     * @param limit  the requested page size, {@code null} to use the configured
+     *               default.
+     * @param fields the fields to include, see {@link ProductField#fromValues}.
+     * @return a {@link ProductPageDTO} with the products of the page and the
+     *         cursor of the next one.
+     * @throws InvalidPageRequestException if the cursor is malformed, belongs to
+     *                                     a different sort order or the page size
+     *                                     is not valid.
+     */
+    ProductPageDTO getProducts(ProductSort sort, String cursor, Integer limit, Set<ProductField> fields);
+
+    /**
+     * Retrieves a page of the products within a price range, cheapest first.
+     * <p>
+     * Pages are keyset paginated in {@code (price, id)} order, so the cheapest
+     * {@code N} products are the first page requested with a limit of {@code N}.
+     *
+     * @param minPrice the inclusive lower bound, {@code null} for no lower bound.
+     * @param maxPrice the inclusive upper bound, {@code null} for no upper bound.
+     * @param cursor   the opaque continuation token returned with the previous
+     *                 page, {@code null} to fetch the first page.
+     * @param limit    the requested page size, {@code null} to use the configured
+     *                 default.
+     * @return a {@link ProductPageDTO} with the products of the page and the
+     *         cursor of the next one.
+     * @throws InvalidPageRequestException if the range is empty, the cursor is
+     *                                     malformed or not a price cursor, or the
+     *                                     page size is not valid.
+     */
+    default ProductPageDTO getProductsByPrice(Double minPrice, Double maxPrice, String cursor, Integer limit) {
+        return getProductsByPrice(minPrice, maxPrice, cursor, limit, ProductField.ALL);
+    }
+
+    /**
+     * Retrieves a page of the products within a price range, cheapest first,
+     * with only the selected fields.
+     *
+     * @param minPrice the inclusive lower bound, {@code null} for no lower bound.
+     * @param maxPrice the inclusive upper bound, {@code null} for no upper bound.
+     * @param cursor   the opaque continuation token returned with the previous
+     *                 page, {@code null} to fetch the first page.
+     * @param limit    the requested page size, {@code null} to use the configured
+     *                 default.
+     * @param fields   the fields to include, see {@link ProductField#fromValues}.
+     * @return a {@link ProductPageDTO} with the products of the page and the
+     *         cursor of the next one.
+     * @throws InvalidPageRequestException if the range is empty, the cursor is
+     *                                     malformed or not a price cursor, or the
+     *                                     page size is not valid.
+     */
+    ProductPageDTO getProductsByPrice(Double minPrice, Double maxPrice, String cursor, Integer limit,
+            Set<ProductField> fields);
+
+    /**
+     * Streams every product, in ID order, to the given consumer.
+     * <p>
+     * Products are read through a database cursor and handed over one at a time,
+     * so memory use does not depend on the size of the catalog.
+     *
+     * @param sink the {@link Consumer} receiving each {@link ProductDTO}.
+     */
+    void exportProducts(Consumer<ProductDTO> sink);
+
+    /**
+     * Retrieves the count, price aggregates and price histogram of the
+     * catalog.
+     *
+     * @return the {@link ProductStatsDTO} of the catalog, maintained in memory.
+     * @throws ProductIndexNotReadyException if the statistics are disabled or
+     *                                       still loading.
+     */
+    ProductStatsDTO getStats();
 
     /**
      * Retrieves a specific product by its ID.
@@ -26,6 +131,34 @@ public interface ProductService {
      */
     ProductDTO getProductById(int id);
 
+    /**
+     * Retrieves many products by their IDs at once.
+     * <p>
+     * Cached products are served from the cache; the rest are loaded with as few
+     * {@code IN} queries as the configured chunk size allows.
+     *
+     * @param ids the IDs of the products to retrieve. Duplicates are ignored.
+     * @return a {@link ProductLookupDTO} with the products found, in the requested
+     *         order, and the IDs that were not found.
+     * @throws InvalidLookupRequestException if more IDs than allowed are
+     *                                       requested.
+     */
+    ProductLookupDTO getProductsByIds(List<Integer> ids);
+
+    /**
+     * Searches the products whose name or description contain every term of the
+     * query.
+     *
+     * @param query the free text query.
+     * @param limit the maximum number of results, {@code null} to use the
+     *              configured default.
+     * @return the matching {@link ProductDTO}, best match first.
+     * @throws InvalidPageRequestException   if the limit is not valid.
+     * @throws ProductIndexNotReadyException if the search index is not available
+     *                                       yet.
+     */
+    List<ProductDTO> searchProducts(String query, Integer limit);
+
     /**
      * Adds a new product to the system.
      *
@@ -35,24 +168,47 @@ public interface ProductService {
      */
     ProductDTO addProduct(ProductDTO product);
 
+    /**
+     * Adds many products at once.
+     * <p>
+     * Each product is validated on its own and valid ones are stored in chunks,
+     * so a rejected item never rolls back the rest of the batch. An item that
+     * cannot be read from the source ends the batch; the products read before it
+     * are still stored.
+     *
+     * @param products an {@link Iterator} over the {@link ProductDTO} to add,
+     *                 consumed lazily.
+     * @return a {@link ProductBatchResultDTO} reporting how many products were
+     *         created and which items were rejected.
+     */
+    ProductBatchResultDTO addProducts(Iterator<ProductDTO> products);
+
     /**
      * Updates an existing product by its ID.
      *
-     * @param product a {@link ProductDTO} containing the updated details of the
-     *                product.
-     * @param id      the ID of the product to update.
-     * @return the updated {@link ProductDTO}.
-     * @throws ProductNotFoundException if no product is found with the specified
-     *                                  ID.
+     * @param product         a {@link ProductDTO} containing the updated details of
+     *                        the product.
+     * @param id              the ID of the product to update.
+     * @param expectedVersion the version the client last saw, {@code null} to
+     *                        update unconditionally.
+     * @return the updated {@link ProductDTO}, with its new version.
+     * @throws ProductNotFoundException        if no product is found with the
+     *                                         specified ID.
+     * @throws ProductVersionMismatchException if the product exists but its
+     *                                         version is not the expected one.
      */
-    ProductDTO updateProductById(ProductDTO product, Integer id);
+    ProductDTO updateProductById(ProductDTO product, Integer id, Long expectedVersion);
 
     /**
      * Deletes a product by its ID.
      *
-     * @param id the ID of the product to delete.
-     * @throws ProductNotFoundException if no product is found with the specified
-     *                                  ID.
+     * @param id              the ID of the product to delete.
+     * @param expectedVersion the version the client last saw, {@code null} to
+     *                        delete unconditionally.
+     * @throws ProductNotFoundException        if no product is found with the
+     *                                         specified ID.
+     * @throws ProductVersionMismatchException if the product exists but its
+     *                                         version is not the expected one.
      */
-    void deleteProductById(Integer id);
+    void deleteProductById(Integer id, Long expectedVersion);
 }
@@ -1,14 +1,61 @@
 package es.test.demo.service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import es.test.demo.concurrent.SingleFlight;
+import es.test.demo.config.CacheConfig;
+import es.test.demo.config.PaginationProperties;
+import es.test.demo.config.ProductBatchProperties;
+import es.test.demo.config.ProductLookupProperties;
+import es.test.demo.config.ProductSearchProperties;
+import es.test.demo.entity.ProductEntity;
+import es.test.demo.event.ProductChangeFeed;
+import es.test.demo.event.ProductChangedEvent;
+import es.test.demo.exception.product.InvalidLookupRequestException;
+import es.test.demo.exception.product.InvalidPageRequestException;
 import es.test.demo.exception.product.ProductNotFoundException;
+import es.test.demo.exception.product.ProductVersionMismatchException;
+import es.test.demo.index.ProductIdFilter;
+import es.test.demo.index.ProductPriceIndex;
+import es.test.demo.index.ProductSearchIndex;
+import es.test.demo.index.ProductStatistics;
 import es.test.demo.mapper.ProductMapper;
+import es.test.demo.model.ProductBatchErrorDTO;
+import es.test.demo.model.ProductBatchResultDTO;
 import es.test.demo.model.ProductDTO;
+import es.test.demo.model.ProductField;
+import es.test.demo.model.ProductLookupDTO;
+import es.test.demo.model.ProductPageDTO;
+import es.test.demo.model.ProductSort;
+import es.test.demo.model.ProductStatsDTO;
 import es.test.demo.repository.ProductRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -16,8 +63,8 @@ import lombok.extern.slf4j.Slf4j;
  * Implementation of {@link ProductService}.
  * <p>
  * Contains all business logic for managing {@link ProductDTO} objects. Handles
- * database interactions through the {@link ProductRepository}, which extends
- * {@link JpaRepository}.
+ * database interactions through the {@link ProductRepository}, backed by JPA
+ * or plain JDBC depending on {@code product.repository.type}.
  * <p>
  * <p>
  * Uses {@link ProductMapper} for mapping between {@link ProductEntity} and
@@ -28,51 +75,488 @@ import lombok.extern.slf4j.Slf4j;
  * <ul>
  * <li>If a product is not found by its ID, an {@link ProductNotFoundException}
  * is thrown.</li>
- * <li>Deletion and updates rely on the existence of the target product.</li>
+ * <li>Deletion and updates rely on the existence of the target product. Both
+ * run as a single statement and use the affected row count to detect a missing
+ * product. When the caller sends the version it expects, the statement only
+ * matches that version and a mismatch raises
+ * {@link ProductVersionMismatchException}.</li>
+ * <li>Products read by ID are cached in {@link CacheConfig#PRODUCTS}; creations
+ * and updates refresh the cached entry and deletions evict it. Multi-gets read
+ * the same cache and only query the database for the misses. Concurrent
+ * misses for the same ID share a single query through {@link SingleFlight},
+ * and IDs that {@link ProductIdFilter} knows do not exist are rejected without
+ * any query. Loaded products are stored through {@link ProductCacheGuard}, so
+ * a read racing with a write never caches the product it replaced.</li>
+ * <li>Listings are keyset paginated: each page is fetched with one extra row to
+ * know whether a next page exists, without counting the table. Rows are read
+ * in read-only transactions as {@link ProductDTO} projections of the selected
+ * fields, without entities or mapping.</li>
+ * <li>Exports detach every row once it has been handed over, so the
+ * persistence context never grows with the catalog.</li>
+ * <li>Bulk creations commit every chunk in its own transaction. When a chunk
+ * fails, its products are retried one by one so only the offending ones are
+ * rejected.</li>
+ * <li>Every committed creation, update and deletion publishes a
+ * {@link ProductChangedEvent}, which keeps the in-memory indexes such as
+ * {@link ProductSearchIndex} in sync and is streamed to clients by
+ * {@link ProductChangeFeed}. Searches only resolve IDs from the index
+ * and read the products through the cached multi-get.</li>
+ * <li>Price listings and price ranges are answered from
+ * {@link ProductPriceIndex} once it is loaded, reading the page products
+ * through the cached multi-get, and from the {@code (price, id)} database index
+ * otherwise.</li>
+ * <li>Catalog statistics are read from {@link ProductStatistics}, which the
+ * change events keep up to date.</li>
  * </ul>
+ * <p>
+ * Every public method is timed as {@value #TIMER_NAME}, tagged with the method
+ * name and the exception thrown, if any.
  */
 @Slf4j
 @Service
+@Timed(ProductServiceImpl.TIMER_NAME)
 @AllArgsConstructor
 public class ProductServiceImpl implements ProductService {
 
     private final ProductMapper productMapper;
     private final ProductRepository productRepository;
+    private final PaginationProperties paginationProperties;
+    private final EntityManager entityManager;
+    private final ProductBatchProperties batchProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ProductLookupProperties lookupProperties;
+    private final CacheManager cacheManager;
+    private final ProductSearchIndex searchIndex;
+    private final ProductSearchProperties searchProperties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductPriceIndex priceIndex;
+    private final SingleFlight<Integer, ProductDTO> productLoads;
+    private final ProductIdFilter idFilter;
+    private final ProductStatistics statistics;
+    private final ProductCacheGuard cacheGuard;
+
+    static final String TIMER_NAME = "product.service";
+
+    static final String NOT_FOUND_EXCEPTION = "Could not find product by that id";
+    private static final String NULL_PRODUCT = "The product cannot be null";
+    private static final String TOO_MANY_IDS = "Cannot look up more than %d products at once";
+    static final String VERSION_MISMATCH_EXCEPTION = "The product has been modified since that version";
+    static final String CURSOR_SORT_MISMATCH = "The page cursor belongs to a different sort order";
+    static final String INVALID_PRICE_RANGE = "The minimum price cannot be greater than the maximum price";
+
+    @Override
+    @Transactional(readOnly = true)
+    public ProductPageDTO getProducts(final ProductSort sort, final String cursor, final Integer limit,
+            final Set<ProductField> fields) {
+        final int pageSize = paginationProperties.resolvePageSize(limit);
+        final ProductCursor after = cursor == null ? null : ProductCursor.decode(cursor);
+        if (after != null && sort != null && after.sort() != sort) {
+            throw new InvalidPageRequestException(CURSOR_SORT_MISMATCH);
+        }
+        final ProductSort order = after != null ? after.sort() : sort != null ? sort : ProductSort.ID;
+        if (order == ProductSort.PRICE && priceIndex.isReady()) {
+            return after == null
+                    ? indexedPricePage(-Double.MAX_VALUE, Integer.MIN_VALUE, Double.MAX_VALUE, pageSize, fields)
+                    : indexedPricePage(after.price(), after.id(), Double.MAX_VALUE, pageSize, fields);
+        }
+
+        final List<ProductDTO> rows = after == null
+                ? productRepository.findFirstPage(order, fields, pageSize + 1)
+                : productRepository.findPageAfter(order, after.id(), sortKey(after), fields, pageSize + 1);
+        return toPage(order, rows, pageSize, fields);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ProductPageDTO getProductsByPrice(final Double minPrice, final Double maxPrice, final String cursor,
+            final Integer limit, final Set<ProductField> fields) {
+        final int pageSize = paginationProperties.resolvePageSize(limit);
+        final double min = minPrice == null ? -Double.MAX_VALUE : minPrice;
+        final double max = maxPrice == null ? Double.MAX_VALUE : maxPrice;
+        if (Double.isNaN(min) || Double.isNaN(max) || min > max) {
+            throw new InvalidPageRequestException(INVALID_PRICE_RANGE);
+        }
+        final ProductCursor after = cursor == null ? null : ProductCursor.decode(cursor);
+        if (after != null && after.sort() != ProductSort.PRICE) {
+            throw new InvalidPageRequestException(CURSOR_SORT_MISMATCH);
+        }
+
+        // A range starts at its lowest price, before any product of that price
+        final boolean fromStart = after == null || after.price() < min;
+        final double afterPrice = fromStart ? min : after.price();
+        final int afterId = fromStart ? Integer.MIN_VALUE : after.id();
+        if (priceIndex.isReady()) {
+            return indexedPricePage(afterPrice, afterId, max, pageSize, fields);
+        }
+        return toPage(ProductSort.PRICE,
+                productRepository.findPageInPriceRange(max, afterPrice, afterId, fields, pageSize + 1),
+                pageSize, fields);
+    }
 
-    private static final String NOT_FOUND_EXCEPTION = "Could not find product by that id";
+    @Override
+    @Transactional(readOnly = true)
+    public void exportProducts(final Consumer<ProductDTO> sink) {
+        try (Stream<ProductEntity> products = productRepository.streamAll()) {
+            products.forEach(product -> {
+                sink.accept(productMapper.toDTO(product));
+                entityManager.detach(product);
+            });
+        }
+    }
 
     @Override
-    public List<ProductDTO> getProducts() {
-        return productMapper.toDTO(
-                productRepository.findAll()
-                        .stream()
-                        .toList());
+    public ProductStatsDTO getStats() {
+        return statistics.snapshot();
     }
 
     @Override
     public ProductDTO getProductById(final int id) {
-        return productRepository.findById(id)
-                .map(productMapper::toDTO)
-                .orElseThrow(() -> new ProductNotFoundException(NOT_FOUND_EXCEPTION));
+        if (!idFilter.mightExist(id)) {
+            throw new ProductNotFoundException(NOT_FOUND_EXCEPTION);
+        }
+        final Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS);
+        final ProductDTO cached = cache == null ? null : cache.get(id, ProductDTO.class);
+        if (cached != null) {
+            return cached;
+        }
+        return productLoads.load(id, () -> {
+            // Read by the load that queries, so callers sharing it never cache an older product
+            final long generation = cacheGuard.generation(id);
+            final ProductDTO product = productRepository.findById(id)
+                    .map(productMapper::toDTO)
+                    .orElseThrow(() -> new ProductNotFoundException(NOT_FOUND_EXCEPTION));
+            if (cache != null) {
+                cacheGuard.putLoaded(cache, generation, product);
+            }
+            return product;
+        });
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public ProductLookupDTO getProductsByIds(final List<Integer> ids) {
+        final Set<Integer> requested = new LinkedHashSet<>(ids);
+        requested.remove(null);
+        if (requested.size() > lookupProperties.maxIds()) {
+            throw new InvalidLookupRequestException(TOO_MANY_IDS.formatted(lookupProperties.maxIds()));
+        }
+
+        final Map<Integer, ProductDTO> found = findProducts(requested);
+        return ProductLookupDTO.builder()
+                .products(requested.stream().map(found::get).filter(Objects::nonNull).toList())
+                .missing(requested.stream().filter(id -> !found.containsKey(id)).toList())
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductDTO> searchProducts(final String query, final Integer limit) {
+        final int[] ids = searchIndex.search(query, searchProperties.resolveLimit(limit));
+        if (ids.length == 0) {
+            return List.of();
+        }
+        // Products deleted since the index answered are simply left out
+        return inOrder(ids, ids.length);
+    }
+
+    /**
+     * Reads products by ID from {@link CacheConfig#PRODUCTS}, and the misses
+     * from the database in chunks of {@code product.lookup.chunk-size}. Unlike
+     * {@link #getProductsByIds(List)}, the number of IDs is not limited: it
+     * serves callers that already bounded them, such as an index page.
+     *
+     * @param ids the product IDs, without duplicates.
+     * @return the products found, by ID.
+     */
+    private Map<Integer, ProductDTO> findProducts(final Collection<Integer> ids) {
+        final Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS);
+        final Map<Integer, ProductDTO> found = new HashMap<>(ids.size());
+        final List<Integer> misses = new ArrayList<>();
+        for (final Integer id : ids) {
+            final ProductDTO cached = cache == null ? null : cache.get(id, ProductDTO.class);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                misses.add(id);
+            }
+        }
+
+        final int chunkSize = lookupProperties.chunkSize();
+        for (int from = 0; from < misses.size(); from += chunkSize) {
+            final List<Integer> chunk = misses.subList(from, Math.min(from + chunkSize, misses.size()));
+            final Map<Integer, Long> generations = new HashMap<>(chunk.size());
+            chunk.forEach(id -> generations.put(id, cacheGuard.generation(id)));
+            for (final ProductEntity entity : productRepository.findAllById(chunk)) {
+                final ProductDTO product = productMapper.toDTO(entity);
+                found.put(product.getId(), product);
+                if (cache != null) {
+                    cacheGuard.putLoaded(cache, generations.get(product.getId()), product);
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Resolves the first {@code size} IDs an index answered, in the order of
+     * the index, leaving out products deleted since.
+     */
+    private List<ProductDTO> inOrder(final int[] ids, final int size) {
+        final List<Integer> page = Arrays.stream(ids, 0, size).boxed().toList();
+        final Map<Integer, ProductDTO> found = findProducts(page);
+        return page.stream().map(found::get).filter(Objects::nonNull).toList();
+    }
+
+    @Override
+    @CachePut(cacheNames = CacheConfig.PRODUCTS, key = "#result.id")
     public ProductDTO addProduct(final ProductDTO product) {
-        return productMapper.toDTO(
+        final ProductDTO created = productMapper.toDTO(
                 productRepository.saveAndFlush(productMapper.toEntity(product)));
+        cacheGuard.written(created.getId());
+        eventPublisher.publishEvent(ProductChangedEvent.created(created));
+        return created;
     }
 
     @Override
-    public ProductDTO updateProductById(ProductDTO product, Integer id) {
-        return productRepository.findById(id)
-                .map(_ -> productMapper.toDTO(productRepository.saveAndFlush(productMapper.toEntity(product))))
-                .orElseThrow(() -> new ProductNotFoundException(NOT_FOUND_EXCEPTION));
+    public ProductBatchResultDTO addProducts(final Iterator<ProductDTO> products) {
+        final int chunkSize = batchProperties.chunkSize();
+        final List<ProductBatchErrorDTO> errors = new ArrayList<>();
+        final List<PendingProduct> chunk = new ArrayList<>(chunkSize);
+        int received = 0;
+        int created = 0;
+
+        while (true) {
+            final ProductDTO product;
+            try {
+                if (!products.hasNext()) {
+                    break;
+                }
+                product = products.next();
+            } catch (RuntimeException e) {
+                // The source cannot be resumed after a malformed item
+                log.warn("Stopped reading products at index {}: {}", received, e.getLocalizedMessage());
+                errors.add(error(received, List.of(e.getLocalizedMessage())));
+                received++;
+                break;
+            }
+
+            final List<String> violations = validate(product);
+            if (violations.isEmpty()) {
+                chunk.add(new PendingProduct(received, productMapper.toEntity(product)));
+            } else {
+                errors.add(error(received, violations));
+            }
+            received++;
+
+            if (chunk.size() == chunkSize) {
+                created += saveChunk(chunk, errors);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            created += saveChunk(chunk, errors);
+        }
+
+        errors.sort(Comparator.comparingInt(ProductBatchErrorDTO::getIndex));
+        return ProductBatchResultDTO.builder()
+                .received(received)
+                .created(created)
+                .errors(errors)
+                .build();
     }
 
     @Override
-    public void deleteProductById(Integer id) {
-        productRepository.findById(id).ifPresentOrElse(productRepository::delete, () -> {
-            throw new ProductNotFoundException(NOT_FOUND_EXCEPTION);
-        });
+    @CachePut(cacheNames = CacheConfig.PRODUCTS, key = "#id")
+    @Transactional
+    public ProductDTO updateProductById(final ProductDTO product, final Integer id, final Long expectedVersion) {
+        final long version;
+        if (expectedVersion == null) {
+            if (productRepository.updateById(id, product.getName(), product.getDescription(),
+                    product.getPrice()) == 0) {
+                throw new ProductNotFoundException(NOT_FOUND_EXCEPTION);
+            }
+            // The row stays locked by the update, so this is the version just written
+            version = productRepository.findVersionById(id)
+                    .orElseThrow(() -> new ProductNotFoundException(NOT_FOUND_EXCEPTION));
+        } else {
+            if (productRepository.updateByIdAndVersion(id, expectedVersion, product.getName(),
+                    product.getDescription(), product.getPrice()) == 0) {
+                throw conditionalFailure(id);
+            }
+            version = expectedVersion + 1;
+        }
+        final ProductEntity entity = productMapper.toEntity(product);
+        entity.setId(id);
+        entity.setVersion(version);
+        final ProductDTO updated = productMapper.toDTO(entity);
+        cacheGuard.written(id);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(updated));
+        return updated;
+    }
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#id")
+    public void deleteProductById(final Integer id, final Long expectedVersion) {
+        if (expectedVersion == null) {
+            if (productRepository.removeById(id) == 0) {
+                throw new ProductNotFoundException(NOT_FOUND_EXCEPTION);
+            }
+        } else if (productRepository.removeByIdAndVersion(id, expectedVersion) == 0) {
+            throw conditionalFailure(id);
+        }
+        cacheGuard.written(id);
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
+    }
+
+    /**
+     * Tells apart why a conditional statement matched no row: the product is
+     * either gone or at another version. Only runs on the failure path.
+     */
+    private RuntimeException conditionalFailure(final int id) {
+        return productRepository.existsById(id)
+                ? new ProductVersionMismatchException(VERSION_MISMATCH_EXCEPTION)
+                : new ProductNotFoundException(NOT_FOUND_EXCEPTION);
+    }
+
+    /**
+     * Validates a product of a bulk creation.
+     *
+     * @return the constraint violation messages, empty when the product is valid.
+     */
+    private List<String> validate(final ProductDTO product) {
+        if (product == null) {
+            return List.of(NULL_PRODUCT);
+        }
+        return validator.validate(product).stream()
+                .map(ProductServiceImpl::describe)
+                .sorted()
+                .toList();
+    }
+
+    private static String describe(final ConstraintViolation<ProductDTO> violation) {
+        return violation.getPropertyPath() + ": " + violation.getMessage();
+    }
+
+    /**
+     * Stores a chunk of products in a single transaction, letting Hibernate send
+     * the inserts in JDBC batches. If the chunk fails, each product is retried in
+     * its own transaction and the failing ones are added to {@code errors}.
+     *
+     * @return the number of products stored.
+     */
+    private int saveChunk(final List<PendingProduct> chunk, final List<ProductBatchErrorDTO> errors) {
+        try {
+            transactionTemplate.executeWithoutResult(_ -> {
+                productRepository.saveAll(chunk.stream().map(PendingProduct::entity).toList());
+                productRepository.flush();
+                entityManager.clear();
+            });
+            chunk.forEach(pending -> publishCreated(pending.entity()));
+            return chunk.size();
+        } catch (DataAccessException | TransactionException e) {
+            log.warn("Bulk chunk of {} products failed, retrying one by one: {}", chunk.size(),
+                    e.getLocalizedMessage());
+        }
+
+        int created = 0;
+        for (final PendingProduct pending : chunk) {
+            // Drop the ID and version assigned by the rolled back chunk so the retry inserts
+            pending.entity().setId(null);
+            pending.entity().setVersion(null);
+            try {
+                transactionTemplate.executeWithoutResult(_ -> productRepository.saveAndFlush(pending.entity()));
+                publishCreated(pending.entity());
+                created++;
+            } catch (DataAccessException | TransactionException e) {
+                errors.add(error(pending.index(), List.of(e.getMostSpecificCause().getLocalizedMessage())));
+            } finally {
+                entityManager.clear();
+            }
+        }
+        return created;
+    }
+
+    private void publishCreated(final ProductEntity entity) {
+        eventPublisher.publishEvent(ProductChangedEvent.created(productMapper.toDTO(entity)));
+    }
+
+    private static ProductBatchErrorDTO error(final int index, final List<String> messages) {
+        return ProductBatchErrorDTO.builder()
+                .index(index)
+                .messages(messages)
+                .build();
+    }
+
+    /**
+     * A valid product of a bulk creation, with its position in the request.
+     */
+    private record PendingProduct(int index, ProductEntity entity) {
+    }
+
+    /**
+     * Builds a page from keyset query rows fetched with one extra row, which
+     * only tells whether a next page exists. The rows also hold the sort key,
+     * which is dropped once the cursor is built unless it was selected.
+     */
+    private ProductPageDTO toPage(final ProductSort sort, final List<ProductDTO> rows, final int pageSize,
+            final Set<ProductField> fields) {
+        final boolean hasNext = rows.size() > pageSize;
+        final List<ProductDTO> items = hasNext ? rows.subList(0, pageSize) : rows;
+
+        return ProductPageDTO.builder()
+                .items(project(items, fields))
+                .nextCursor(hasNext ? ProductCursor.after(sort, items.getLast()).encode() : null)
+                .build();
+    }
+
+    /**
+     * Leaves only the selected fields of the products.
+     */
+    static List<ProductDTO> project(final List<ProductDTO> products, final Set<ProductField> fields) {
+        if (fields.containsAll(ProductField.ALL)) {
+            return products;
+        }
+        return products.stream()
+                .map(product -> ProductDTO.builder()
+                        .id(product.getId())
+                        .name(fields.contains(ProductField.NAME) ? product.getName() : null)
+                        .description(fields.contains(ProductField.DESCRIPTION) ? product.getDescription() : null)
+                        .price(fields.contains(ProductField.PRICE) ? product.getPrice() : null)
+                        .version(fields.contains(ProductField.VERSION) ? product.getVersion() : null)
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Reads a page of a price listing from {@link ProductPriceIndex}, starting
+     * right after {@code (afterPrice, afterId)}. The IDs come from the index and
+     * the products from the cache or the database, without the limits of the
+     * multi-get; a product deleted in between is simply left out of the page.
+     */
+    private ProductPageDTO indexedPricePage(final double afterPrice, final int afterId, final double maxPrice,
+            final int pageSize, final Set<ProductField> fields) {
+        final int[] ids = new int[pageSize + 1];
+        final double[] prices = new double[pageSize + 1];
+        final int count = priceIndex.range(afterPrice, afterId, maxPrice, ids, prices);
+        final int size = Math.min(count, pageSize);
+
+        return ProductPageDTO.builder()
+                .items(size == 0
+                        ? List.of()
+                        : project(inOrder(ids, size), fields))
+                .nextCursor(count > pageSize ? ProductCursor.ofPrice(prices[size - 1], ids[size - 1]).encode() : null)
+                .build();
+    }
+
+    /**
+     * Returns the sort key of a cursor as the type of its column.
+     */
+    static Object sortKey(final ProductCursor after) {
+        return switch (after.sort()) {
+            case ID -> null;
+            case PRICE -> after.price();
+            case NAME -> after.value();
+        };
     }
 }
@@ -0,0 +1,494 @@
+package es.test.demo.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import es.test.demo.config.CacheConfig;
+import es.test.demo.config.ProductWriteBehindProperties;
+import es.test.demo.entity.ProductEntity;
+import es.test.demo.event.ProductChangedEvent;
+import es.test.demo.exception.product.ProductWriteNotFoundException;
+import es.test.demo.exception.product.ProductWriteQueueFullException;
+import es.test.demo.mapper.ProductMapper;
+import es.test.demo.model.ProductDTO;
+import es.test.demo.model.ProductWriteDTO;
+import es.test.demo.model.ProductWriteState;
+import es.test.demo.repository.ProductRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link ProductWriteBehind}
+ * Asynchronous write-behind queue for product creations and updates.
+ * <p>
+ * Accepted writes are stored in a bounded queue and acknowledged right away
+ * with a tracking ID. A single writer thread takes every write waiting in the
+ * queue, up to the batch size, and commits them in one transaction: creations
+ * are inserted in JDBC batches and updates run in their queue order. The more
+ * writes arrive, the larger the batches get, so throughput is bound by the
+ * commit speed instead of one round trip per request. When a batch fails, its
+ * writes are retried one by one so only the offending ones fail.
+ * <p>
+ * Committed writes refresh {@link CacheConfig#PRODUCTS} and publish a
+ * {@link ProductChangedEvent}, like their synchronous counterparts in
+ * {@link ProductServiceImpl}. The status of every write can be polled through
+ * its tracking ID for a while after it was accepted.
+ * <p>
+ * A full queue rejects new writes instead of blocking the request. On
+ * shutdown the queue stops accepting writes once the web server has stopped,
+ * and the writer drains it before the persistence layer closes.
+ * <p>
+ * Queue size, batches and write outcomes are reported as
+ * {@code product.write.behind.*}.
+ */
+@Slf4j
+@Component
+public class ProductWriteBehind implements SmartLifecycle, MeterBinder {
+
+    /**
+     * Lower than the phases of the web server lifecycles, so the queue stops
+     * after them and no request can queue a write once the drain has started.
+     */
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+    private static final long POLL_MILLIS = 100;
+
+    private static final String QUEUE_FULL = "Too many pending writes, retry later";
+    private static final String NOT_ACCEPTING = "Writes are not being accepted, retry later";
+    private static final String UNKNOWN_WRITE = "Could not find a write by that tracking id";
+    private static final String NOT_FOUND_EXCEPTION = "Could not find product by that id";
+    private static final String VERSION_MISMATCH_EXCEPTION = "The product has been modified since that version";
+    private static final String NOT_APPLIED = "The write was not applied before shutdown";
+
+    private final ProductMapper productMapper;
+    private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final ProductCacheGuard cacheGuard;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductWriteBehindProperties writeBehindProperties;
+
+    private final BlockingQueue<PendingWrite> queue;
+    private final com.github.benmanes.caffeine.cache.Cache<String, ProductWriteDTO> statuses;
+
+    /**
+     * Guards {@link #accepting}: submissions hold the read lock while they
+     * queue, so once shutdown clears the flag under the write lock no write can
+     * land behind the drain.
+     */
+    private final ReadWriteLock acceptLock = new ReentrantReadWriteLock();
+    private boolean accepting;
+
+    private volatile Thread writer;
+    private volatile Runnable onStopped;
+    private volatile long drainDeadline;
+
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+    public ProductWriteBehind(final ProductMapper productMapper, final ProductRepository productRepository,
+            final EntityManager entityManager, final TransactionTemplate transactionTemplate,
+            final CacheManager cacheManager, final ProductCacheGuard cacheGuard,
+            final ApplicationEventPublisher eventPublisher, final ProductWriteBehindProperties writeBehindProperties) {
+        this.productMapper = productMapper;
+        this.productRepository = productRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.cacheManager = cacheManager;
+        this.cacheGuard = cacheGuard;
+        this.eventPublisher = eventPublisher;
+        this.writeBehindProperties = writeBehindProperties;
+        this.queue = new ArrayBlockingQueue<>(writeBehindProperties.queueCapacity());
+        this.statuses = Caffeine.newBuilder()
+                .expireAfterWrite(writeBehindProperties.statusRetention())
+                .maximumSize(writeBehindProperties.statusCapacity())
+                .build();
+    }
+
+    /**
+     * Whether requests may opt in to asynchronous writes.
+     */
+    public boolean isEnabled() {
+        return writeBehindProperties.enabled();
+    }
+
+    /**
+     * Queues the creation of a product.
+     *
+     * @param product the product to create, already validated.
+     * @return the {@link ProductWriteState#PENDING} status of the write.
+     * @throws ProductWriteQueueFullException if the queue is full or not
+     *                                        accepting writes.
+     */
+    public ProductWriteDTO submitCreate(final ProductDTO product) {
+        return submit(null, null, product);
+    }
+
+    /**
+     * Queues the update of a product.
+     *
+     * @param id              the ID of the product to update.
+     * @param product         the new details of the product, already validated.
+     * @param expectedVersion the version the update is conditional on, or
+     *                        {@code null} for an unconditional update.
+     * @return the {@link ProductWriteState#PENDING} status of the write.
+     * @throws ProductWriteQueueFullException if the queue is full or not
+     *                                        accepting writes.
+     */
+    public ProductWriteDTO submitUpdate(final int id, final ProductDTO product, final Long expectedVersion) {
+        return submit(id, expectedVersion, product);
+    }
+
+    /**
+     * Reads the status of a write.
+     *
+     * @param trackingId the tracking ID returned when the write was accepted.
+     * @return the current status of the write.
+     * @throws ProductWriteNotFoundException if the ID is unknown or its status
+     *                                       has expired.
+     */
+    public ProductWriteDTO getStatus(final String trackingId) {
+        final ProductWriteDTO status = statuses.getIfPresent(trackingId);
+        if (status == null) {
+            throw new ProductWriteNotFoundException(UNKNOWN_WRITE);
+        }
+        return status;
+    }
+
+    /**
+     * Number of writes waiting to be applied.
+     */
+    public int pending() {
+        return queue.size();
+    }
+
+    private ProductWriteDTO submit(final Integer productId, final Long expectedVersion, final ProductDTO product) {
+        final ProductWriteDTO status = ProductWriteDTO.builder()
+                .id(UUID.randomUUID().toString())
+                .state(ProductWriteState.PENDING)
+                .productId(productId)
+                .build();
+        final PendingWrite write = new PendingWrite(status.getId(), productId, expectedVersion, product);
+
+        acceptLock.readLock().lock();
+        try {
+            if (!accepting) {
+                rejected.increment();
+                throw new ProductWriteQueueFullException(NOT_ACCEPTING);
+            }
+            // Recorded first so a write applied right away never finds its status missing
+            statuses.put(status.getId(), status);
+            if (!queue.offer(write)) {
+                statuses.invalidate(status.getId());
+                rejected.increment();
+                throw new ProductWriteQueueFullException(QUEUE_FULL);
+            }
+        } finally {
+            acceptLock.readLock().unlock();
+        }
+        return status;
+    }
+
+    @Override
+    public void start() {
+        acceptLock.writeLock().lock();
+        try {
+            if (writer != null) {
+                return;
+            }
+            accepting = true;
+            writer = Thread.ofPlatform().name("product-write-behind").start(this::drain);
+        } finally {
+            acceptLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void stop() {
+        stop(() -> {
+        });
+    }
+
+    /**
+     * Stops accepting writes and lets the writer apply the queued ones, for up
+     * to the configured shutdown timeout. The callback runs once the writer has
+     * exited.
+     */
+    @Override
+    public void stop(final Runnable callback) {
+        acceptLock.writeLock().lock();
+        try {
+            if (writer == null) {
+                callback.run();
+                return;
+            }
+            onStopped = callback;
+            drainDeadline = System.nanoTime() + writeBehindProperties.shutdownTimeout().toNanos();
+            accepting = false;
+        } finally {
+            acceptLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The writer only runs when the write-behind mode is enabled.
+     */
+    @Override
+    public boolean isAutoStartup() {
+        return writeBehindProperties.enabled();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return writer != null;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder("product.write.behind.queue.size", queue, BlockingQueue::size)
+                .description("Writes waiting to be applied")
+                .register(registry);
+        FunctionCounter.builder("product.write.behind.applied", applied, LongAdder::sum)
+                .description("Writes committed")
+                .register(registry);
+        FunctionCounter.builder("product.write.behind.failed", failed, LongAdder::sum)
+                .description("Writes that could not be applied")
+                .register(registry);
+        FunctionCounter.builder("product.write.behind.rejected", rejected, LongAdder::sum)
+                .description("Writes rejected because the queue was full or stopped")
+                .register(registry);
+        FunctionCounter.builder("product.write.behind.batches", batches, LongAdder::sum)
+                .description("Transactions committed by the writer")
+                .register(registry);
+    }
+
+    /**
+     * Writer loop: applies the queued writes in batches until the queue is
+     * stopped and empty, or the shutdown timeout expires.
+     */
+    private void drain() {
+        final int batchSize = writeBehindProperties.batchSize();
+        final List<PendingWrite> batch = new ArrayList<>(batchSize);
+        try {
+            while (true) {
+                final PendingWrite first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (!isAccepting()) {
+                        break;
+                    }
+                    continue;
+                }
+                if (!isAccepting() && System.nanoTime() - drainDeadline > 0) {
+                    batch.add(first);
+                    queue.drainTo(batch);
+                    log.warn("Shutdown timeout reached with {} writes not applied", batch.size());
+                    batch.forEach(write -> fail(write, NOT_APPLIED));
+                    break;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                apply(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            writer = null;
+            final Runnable callback = onStopped;
+            onStopped = null;
+            if (callback != null) {
+                callback.run();
+            }
+        }
+    }
+
+    private boolean isAccepting() {
+        acceptLock.readLock().lock();
+        try {
+            return accepting;
+        } finally {
+            acceptLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Commits a batch in a single transaction. If it fails, each write is
+     * retried in its own transaction and the failing ones are marked as such.
+     */
+    private void apply(final List<PendingWrite> batch) {
+        List<Outcome> outcomes = null;
+        try {
+            outcomes = transactionTemplate.execute(_ -> applyAll(batch));
+        } catch (RuntimeException e) {
+            log.warn("Write-behind batch of {} writes failed, retrying one by one: {}", batch.size(),
+                    e.getLocalizedMessage());
+        } finally {
+            entityManager.clear();
+        }
+        if (outcomes != null) {
+            // Committed: nothing past this point may send the batch again
+            batches.increment();
+            complete(outcomes);
+            return;
+        }
+
+        for (final PendingWrite write : batch) {
+            final List<Outcome> outcome;
+            try {
+                outcome = transactionTemplate.execute(_ -> applyAll(List.of(write)));
+            } catch (DataAccessException | TransactionException e) {
+                fail(write, e.getMostSpecificCause().getLocalizedMessage());
+                continue;
+            } catch (RuntimeException e) {
+                log.error("Unexpected failure applying write {}", write.trackingId(), e);
+                fail(write, e.getLocalizedMessage());
+                continue;
+            } finally {
+                entityManager.clear();
+            }
+            batches.increment();
+            complete(outcome);
+        }
+    }
+
+    /**
+     * Runs the writes of a batch inside the current transaction. Creations have
+     * IDs no other write can refer to yet, so they are inserted together first
+     * to keep them in one JDBC batch; updates then run in their queue order.
+     *
+     * @return the outcome of every write.
+     */
+    private List<Outcome> applyAll(final List<PendingWrite> writes) {
+        final List<Outcome> outcomes = new ArrayList<>(writes.size());
+        final List<PendingWrite> creations = new ArrayList<>();
+        final List<ProductEntity> entities = new ArrayList<>();
+        for (final PendingWrite write : writes) {
+            if (write.productId() == null) {
+                creations.add(write);
+                entities.add(productMapper.toEntity(write.product()));
+            }
+        }
+        if (!entities.isEmpty()) {
+            productRepository.saveAll(entities);
+            productRepository.flush();
+            for (int i = 0; i < creations.size(); i++) {
+                outcomes.add(new Outcome(creations.get(i), productMapper.toDTO(entities.get(i)), null));
+            }
+        }
+        for (final PendingWrite write : writes) {
+            if (write.productId() != null) {
+                outcomes.add(update(write));
+            }
+        }
+        return outcomes;
+    }
+
+    private Outcome update(final PendingWrite write) {
+        final int id = write.productId();
+        final ProductDTO product = write.product();
+        final long version;
+        if (write.expectedVersion() == null) {
+            if (productRepository.updateById(id, product.getName(), product.getDescription(),
+                    product.getPrice()) == 0) {
+                return new Outcome(write, null, NOT_FOUND_EXCEPTION);
+            }
+            version = productRepository.findVersionById(id).orElseThrow();
+        } else {
+            if (productRepository.updateByIdAndVersion(id, write.expectedVersion(), product.getName(),
+                    product.getDescription(), product.getPrice()) == 0) {
+                return new Outcome(write, null,
+                        productRepository.existsById(id) ? VERSION_MISMATCH_EXCEPTION : NOT_FOUND_EXCEPTION);
+            }
+            version = write.expectedVersion() + 1;
+        }
+        final ProductEntity entity = productMapper.toEntity(product);
+        entity.setId(id);
+        entity.setVersion(version);
+        return new Outcome(write, productMapper.toDTO(entity), null);
+    }
+
+    /**
+     * Publishes the committed writes and records the outcome of every write.
+     * Runs after the commit, so a failing listener is only logged: the write
+     * is applied all the same and must not be sent again.
+     */
+    private void complete(final List<Outcome> outcomes) {
+        final Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS);
+        for (final Outcome outcome : outcomes) {
+            if (outcome.error() != null) {
+                fail(outcome.write(), outcome.error());
+                continue;
+            }
+            final ProductDTO product = outcome.product();
+            cacheGuard.written(product.getId());
+            if (cache != null) {
+                cache.put(product.getId(), product);
+            }
+            try {
+                eventPublisher.publishEvent(outcome.write().productId() == null
+                        ? ProductChangedEvent.created(product)
+                        : ProductChangedEvent.updated(product));
+            } catch (RuntimeException e) {
+                log.error("Listener failed for committed write {}", outcome.write().trackingId(), e);
+            }
+            statuses.put(outcome.write().trackingId(), ProductWriteDTO.builder()
+                    .id(outcome.write().trackingId())
+                    .state(ProductWriteState.APPLIED)
+                    .productId(product.getId())
+                    .build());
+            applied.increment();
+        }
+    }
+
+    private void fail(final PendingWrite write, final String error) {
+        statuses.put(write.trackingId(), ProductWriteDTO.builder()
+                .id(write.trackingId())
+                .state(ProductWriteState.FAILED)
+                .productId(write.productId())
+                .error(error)
+                .build());
+        failed.increment();
+    }
+
+    /**
+     * A queued write. Creations have no product ID.
+     */
+    private record PendingWrite(String trackingId, Integer productId, Long expectedVersion, ProductDTO product) {
+    }
+
+    /**
+     * The result of a write inside a batch: the written product, or the reason
+     * it was not applied.
+     */
+    private record Outcome(PendingWrite write, ProductDTO product, String error) {
+    }
+}
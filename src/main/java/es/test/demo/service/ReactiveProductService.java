@@ -0,0 +1,107 @@
+package es.test.demo.service;
+
+import java.util.Set;
+
+import es.test.demo.model.ProductDTO;
+import es.test.demo.model.ProductField;
+import es.test.demo.model.ProductPageDTO;
+import es.test.demo.model.ProductSort;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link ReactiveProductService}
+ * Non-blocking counterpart of {@link ProductService}, with the same contract:
+ * every error is signalled with the exception {@link ProductService} throws
+ * for it.
+ */
+public interface ReactiveProductService {
+
+    /**
+     * Retrieves a page of products using keyset pagination, with only the
+     * selected fields.
+     *
+     * @param sort   the {@link ProductSort} to apply, {@code null} to use the one
+     *               carried by the cursor or {@link ProductSort#ID}.
+     * @param cursor the opaque continuation token returned with the previous
+     *               page, {@code null} to fetch the first page.
+     * @param limit  the requested page size, {@code null} to use the configured
+     *               default.
+     * @param fields the fields to include, see {@link ProductField#fromValues}.
+     * @return the {@link ProductPageDTO}, or an
+     *         {@link es.test.demo.exception.product.InvalidPageRequestException}
+     *         if the cursor is malformed, belongs to a different sort order or
+     *         the page size is not valid.
+     */
+    Mono<ProductPageDTO> getProducts(ProductSort sort, String cursor, Integer limit, Set<ProductField> fields);
+
+    /**
+     * Retrieves a page of the products within a price range, cheapest first,
+     * with only the selected fields.
+     *
+     * @param minPrice the inclusive lower bound, {@code null} for no lower bound.
+     * @param maxPrice the inclusive upper bound, {@code null} for no upper bound.
+     * @param cursor   the opaque continuation token returned with the previous
+     *                 page, {@code null} to fetch the first page.
+     * @param limit    the requested page size, {@code null} to use the configured
+     *                 default.
+     * @param fields   the fields to include, see {@link ProductField#fromValues}.
+     * @return the {@link ProductPageDTO}, or an
+     *         {@link es.test.demo.exception.product.InvalidPageRequestException}
+     *         if the range is empty, the cursor is malformed or not a price
+     *         cursor, or the page size is not valid.
+     */
+    Mono<ProductPageDTO> getProductsByPrice(Double minPrice, Double maxPrice, String cursor, Integer limit,
+            Set<ProductField> fields);
+
+    /**
+     * Streams every product in ID order. Rows are read from the database as the
+     * subscriber requests them.
+     *
+     * @return the products of the catalog.
+     */
+    Flux<ProductDTO> exportProducts();
+
+    /**
+     * Retrieves a specific product by its ID.
+     *
+     * @param id the ID of the product.
+     * @return the {@link ProductDTO}, or a
+     *         {@link es.test.demo.exception.product.ProductNotFoundException} if
+     *         it does not exist.
+     */
+    Mono<ProductDTO> getProductById(int id);
+
+    /**
+     * Adds a new product.
+     *
+     * @param product the {@link ProductDTO} to add, already validated.
+     * @return the created {@link ProductDTO}, with its ID and version.
+     */
+    Mono<ProductDTO> addProduct(ProductDTO product);
+
+    /**
+     * Updates an existing product by its ID.
+     *
+     * @param product         the new details of the product, already validated.
+     * @param id              the ID of the product to update.
+     * @param expectedVersion the version the caller last saw, {@code null} for an
+     *                        unconditional update.
+     * @return the updated {@link ProductDTO}, or a
+     *         {@link es.test.demo.exception.product.ProductNotFoundException} or
+     *         {@link es.test.demo.exception.product.ProductVersionMismatchException}.
+     */
+    Mono<ProductDTO> updateProductById(ProductDTO product, Integer id, Long expectedVersion);
+
+    /**
+     * Deletes a product by its ID.
+     *
+     * @param id              the ID of the product to delete.
+     * @param expectedVersion the version the caller last saw, {@code null} for an
+     *                        unconditional deletion.
+     * @return completes once deleted, or signals a
+     *         {@link es.test.demo.exception.product.ProductNotFoundException} or
+     *         {@link es.test.demo.exception.product.ProductVersionMismatchException}.
+     */
+    Mono<Void> deleteProductById(Integer id, Long expectedVersion);
+}
@@ -0,0 +1,198 @@
+package es.test.demo.service;
+
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import es.test.demo.config.CacheConfig;
+import es.test.demo.config.PaginationProperties;
+import es.test.demo.config.ReactiveProductProperties;
+import es.test.demo.event.ProductChangedEvent;
+import es.test.demo.exception.product.InvalidPageRequestException;
+import es.test.demo.exception.product.ProductNotFoundException;
+import es.test.demo.exception.product.ProductVersionMismatchException;
+import es.test.demo.index.ProductIdFilter;
+import es.test.demo.model.ProductDTO;
+import es.test.demo.model.ProductField;
+import es.test.demo.model.ProductPageDTO;
+import es.test.demo.model.ProductSort;
+import es.test.demo.repository.ReactiveProductRepository;
+import lombok.AllArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Implementation of {@link ReactiveProductService} over
+ * {@link ReactiveProductRepository}.
+ * <p>
+ * It follows the rules of {@link ProductServiceImpl}, so both APIs can serve
+ * the same catalog side by side:
+ * <ul>
+ * <li>Listings use the same keyset pagination and cursors.</li>
+ * <li>Reads by ID go through {@link CacheConfig#PRODUCTS}, guarded by
+ * {@link ProductCacheGuard}, and {@link ProductIdFilter}, which are in-memory
+ * and never block.</li>
+ * <li>Writes refresh or evict the cached product and publish a
+ * {@link ProductChangedEvent}, which keeps the in-memory indexes, the response
+ * cache and the change feed in sync with the servlet API.</li>
+ * </ul>
+ * <p>
+ * Nothing here blocks: every statement is a single non-blocking R2DBC call, and
+ * validation errors are signalled instead of thrown.
+ */
+@Service
+@AllArgsConstructor
+public class ReactiveProductServiceImpl implements ReactiveProductService {
+
+    private final ReactiveProductRepository productRepository;
+    private final PaginationProperties paginationProperties;
+    private final ReactiveProductProperties reactiveProperties;
+    private final CacheManager cacheManager;
+    private final ProductIdFilter idFilter;
+    private final ProductCacheGuard cacheGuard;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public Mono<ProductPageDTO> getProducts(final ProductSort sort, final String cursor, final Integer limit,
+            final Set<ProductField> fields) {
+        return Mono.defer(() -> {
+            final int pageSize = paginationProperties.resolvePageSize(limit);
+            final ProductCursor after = cursor == null ? null : ProductCursor.decode(cursor);
+            if (after != null && sort != null && after.sort() != sort) {
+                throw new InvalidPageRequestException(ProductServiceImpl.CURSOR_SORT_MISMATCH);
+            }
+            final ProductSort order = after != null ? after.sort() : sort != null ? sort : ProductSort.ID;
+            final Flux<ProductDTO> rows = after == null
+                    ? productRepository.findFirstPage(order, pageSize + 1)
+                    : productRepository.findPageAfter(order, after.id(), ProductServiceImpl.sortKey(after),
+                            pageSize + 1);
+            return toPage(order, rows, pageSize, fields);
+        });
+    }
+
+    @Override
+    public Mono<ProductPageDTO> getProductsByPrice(final Double minPrice, final Double maxPrice, final String cursor,
+            final Integer limit, final Set<ProductField> fields) {
+        return Mono.defer(() -> {
+            final int pageSize = paginationProperties.resolvePageSize(limit);
+            final double min = minPrice == null ? -Double.MAX_VALUE : minPrice;
+            final double max = maxPrice == null ? Double.MAX_VALUE : maxPrice;
+            if (Double.isNaN(min) || Double.isNaN(max) || min > max) {
+                throw new InvalidPageRequestException(ProductServiceImpl.INVALID_PRICE_RANGE);
+            }
+            final ProductCursor after = cursor == null ? null : ProductCursor.decode(cursor);
+            if (after != null && after.sort() != ProductSort.PRICE) {
+                throw new InvalidPageRequestException(ProductServiceImpl.CURSOR_SORT_MISMATCH);
+            }
+
+            // A range starts at its lowest price, before any product of that price
+            final boolean fromStart = after == null || after.price() < min;
+            return toPage(ProductSort.PRICE,
+                    productRepository.findPageInPriceRange(max, fromStart ? min : after.price(),
+                            fromStart ? Integer.MIN_VALUE : after.id(), pageSize + 1),
+                    pageSize, fields);
+        });
+    }
+
+    @Override
+    public Flux<ProductDTO> exportProducts() {
+        return productRepository.streamAll().limitRate(reactiveProperties.exportPrefetch());
+    }
+
+    @Override
+    public Mono<ProductDTO> getProductById(final int id) {
+        return Mono.defer(() -> {
+            if (!idFilter.mightExist(id)) {
+                throw new ProductNotFoundException(ProductServiceImpl.NOT_FOUND_EXCEPTION);
+            }
+            final Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS);
+            final ProductDTO cached = cache == null ? null : cache.get(id, ProductDTO.class);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            final long generation = cacheGuard.generation(id);
+            return productRepository.findById(id)
+                    .switchIfEmpty(Mono.error(() -> new ProductNotFoundException(
+                            ProductServiceImpl.NOT_FOUND_EXCEPTION)))
+                    .doOnNext(product -> {
+                        if (cache != null) {
+                            cacheGuard.putLoaded(cache, generation, product);
+                        }
+                    });
+        });
+    }
+
+    @Override
+    public Mono<ProductDTO> addProduct(final ProductDTO product) {
+        return productRepository.insert(product)
+                .doOnNext(created -> changed(created.getId(), created, ProductChangedEvent.created(created)));
+    }
+
+    @Override
+    public Mono<ProductDTO> updateProductById(final ProductDTO product, final Integer id,
+            final Long expectedVersion) {
+        return productRepository.update(id, expectedVersion, product)
+                .switchIfEmpty(Mono.defer(() -> conditionalFailure(id, expectedVersion)))
+                .doOnNext(updated -> changed(id, updated, ProductChangedEvent.updated(updated)));
+    }
+
+    @Override
+    public Mono<Void> deleteProductById(final Integer id, final Long expectedVersion) {
+        return productRepository.delete(id, expectedVersion)
+                .flatMap(deleted -> deleted == 0 ? conditionalFailure(id, expectedVersion) : Mono.just(deleted))
+                .doOnNext(_ -> changed(id, null, ProductChangedEvent.deleted(id)))
+                .then();
+    }
+
+    /**
+     * Tells apart why a write matched no row, like
+     * {@link ProductServiceImpl}: without an expected version the product is
+     * gone, otherwise it is either gone or at another version.
+     */
+    private <T> Mono<T> conditionalFailure(final int id, final Long expectedVersion) {
+        if (expectedVersion == null) {
+            return Mono.error(new ProductNotFoundException(ProductServiceImpl.NOT_FOUND_EXCEPTION));
+        }
+        return productRepository.existsById(id)
+                .flatMap(exists -> Mono.error(exists
+                        ? new ProductVersionMismatchException(ProductServiceImpl.VERSION_MISMATCH_EXCEPTION)
+                        : new ProductNotFoundException(ProductServiceImpl.NOT_FOUND_EXCEPTION)));
+    }
+
+    /**
+     * Refreshes the cached product, evicting it when deleted, and publishes the
+     * change.
+     */
+    private void changed(final int id, final ProductDTO product, final ProductChangedEvent event) {
+        cacheGuard.written(id);
+        final Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS);
+        if (cache != null) {
+            if (product == null) {
+                cache.evict(id);
+            } else {
+                cache.put(id, product);
+            }
+        }
+        eventPublisher.publishEvent(event);
+    }
+
+    /**
+     * Builds a page from keyset query rows fetched with one extra row, like
+     * {@link ProductServiceImpl}.
+     */
+    private static Mono<ProductPageDTO> toPage(final ProductSort sort, final Flux<ProductDTO> rows,
+            final int pageSize, final Set<ProductField> fields) {
+        return rows.collectList().map(list -> {
+            final boolean hasNext = list.size() > pageSize;
+            final List<ProductDTO> items = hasNext ? list.subList(0, pageSize) : list;
+            return ProductPageDTO.builder()
+                    .items(ProductServiceImpl.project(items, fields))
+                    .nextCursor(hasNext ? ProductCursor.after(sort, items.getLast()).encode() : null)
+                    .build();
+        });
+    }
+}
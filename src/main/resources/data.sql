@@ -1,11 +1,18 @@
-INSERT INTO product (description, name, price) VALUES
-('A classic white t-shirt, 100% cotton', 'Basic White T-Shirt', 19.99),
-('A cozy wool sweater in various colors', 'Wool Sweater', 39.99),
-('Slim fit jeans with stretch fabric for comfort', 'Slim Fit Jeans', 49.99),
-('A stylish leather jacket perfect for any season', 'Leather Jacket', 149.99),
-('Running shoes designed for high performance', 'Performance Running Shoes', 89.99),
-('Casual denim jacket with button details', 'Denim Jacket', 59.99),
-('Cotton dress with floral print for summer', 'Floral Summer Dress', 29.99),
-('Classic black boots made of premium leather', 'Black Leather Boots', 119.99),
-('Comfortable and breathable tank top for hot days', 'Breathable Tank Top', 14.99),
-('Cozy fleece hoodie with a front pocket', 'Fleece Hoodie', 34.99);
+-- Safe to run again on a database that is already seeded, as happens when
+-- several Spring test contexts share one in-memory H2 URL.
+MERGE INTO product (id, description, name, price, version) KEY(id) VALUES
+(1, 'A classic white t-shirt, 100% cotton', 'Basic White T-Shirt', 19.99, 0),
+(2, 'A cozy wool sweater in various colors', 'Wool Sweater', 39.99, 0),
+(3, 'Slim fit jeans with stretch fabric for comfort', 'Slim Fit Jeans', 49.99, 0),
+(4, 'A stylish leather jacket perfect for any season', 'Leather Jacket', 149.99, 0),
+(5, 'Running shoes designed for high performance', 'Performance Running Shoes', 89.99, 0),
+(6, 'Casual denim jacket with button details', 'Denim Jacket', 59.99, 0),
+(7, 'Cotton dress with floral print for summer', 'Floral Summer Dress', 29.99, 0),
+(8, 'Classic black boots made of premium leather', 'Black Leather Boots', 119.99, 0),
+(9, 'Comfortable and breathable tank top for hot days', 'Breathable Tank Top', 14.99, 0),
+(10, 'Cozy fleece hoodie with a front pocket', 'Fleece Hoodie', 34.99, 0);
+
+-- Start after the seeded IDs, but never move the sequence back: blocks
+-- reserved from it may still be handed out.
+ALTER SEQUENCE product_seq RESTART WITH (
+    SELECT GREATEST(BASE_VALUE, 11) FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'PRODUCT_SEQ');
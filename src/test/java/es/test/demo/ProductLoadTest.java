@@ -0,0 +1,71 @@
+package es.test.demo;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import es.test.demo.loadtest.LatencyReport;
+import es.test.demo.loadtest.LoadGenerator;
+import es.test.demo.loadtest.LoadTestOptions;
+import es.test.demo.loadtest.ProductSeeder;
+
+/**
+ * ProductLoadTest
+ * Boots the application on a random port, seeds the H2 database and drives the
+ * {@code /product} API with {@link LoadGenerator}.
+ * <p>
+ * Skipped by the regular build. Run it either as a test:
+ *
+ * <pre>
+ * mvn test -Dtest=ProductLoadTest -Dloadtest.enabled=true -Dloadtest.rate=2000
+ * </pre>
+ *
+ * or through its {@code main} method, passing the same {@code loadtest.*}
+ * system properties and any Spring argument such as
+ * {@code --spring.profiles.active=virtual}. Percentiles are printed to the
+ * standard output and the full distributions written to
+ * {@code target/loadtest}.
+ */
+public class ProductLoadTest {
+
+    public static void main(final String[] args) throws IOException {
+        run(LoadTestOptions.fromSystemProperties(), args);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "loadtest.enabled", matches = "true")
+    public void when_loadTest_runs_sendsRequestsAtTheConfiguredRate() throws IOException {
+        final LatencyReport report = run(LoadTestOptions.fromSystemProperties(), new String[0]);
+
+        assertTrue(report.totalCount() > 0);
+    }
+
+    static LatencyReport run(final LoadTestOptions options, final String[] args) throws IOException {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DemoApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+                        "spring.sql.init.mode=never",
+                        "logging.level.root=WARN")
+                .run(args)) {
+            ProductSeeder.seed(context, options.rows());
+
+            final int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            System.out.printf("Sending %d req/s for %s (warm-up %s) to %d products%n",
+                    options.rate(), options.duration(), options.warmup(), options.rows());
+            final LatencyReport report = new LoadGenerator(URI.create("http://localhost:" + port), options).run();
+
+            report.print(System.out);
+            report.writeDistributions(Path.of("target", "loadtest"));
+            return report;
+        }
+    }
+}
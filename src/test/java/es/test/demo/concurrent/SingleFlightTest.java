@@ -0,0 +1,97 @@
+package es.test.demo.concurrent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * SingleFlightTest
+ */
+public class SingleFlightTest {
+
+    private final SingleFlight<Integer, String> singleFlight = new SingleFlight<>("test", Duration.ofSeconds(5),
+            IllegalStateException::new);
+
+    @Test
+    public void when_load_concurrentCallersSameKey_runs_loaderOnce() throws Exception {
+        final int callers = 50;
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<Future<String>> results = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> singleFlight.load(1, () -> {
+                    calls.incrementAndGet();
+                    await(release);
+                    return "value";
+                })));
+            }
+            // Let every caller join the flight before the leader completes
+            while (singleFlight.coalesced() < callers - 1) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            for (final Future<String> result : results) {
+                assertEquals("value", result.get(5, TimeUnit.SECONDS));
+            }
+        }
+
+        assertEquals(1, calls.get());
+        assertEquals(1, singleFlight.loads());
+        assertEquals(callers - 1, singleFlight.coalesced());
+    }
+
+    @Test
+    public void when_load_fails_rethrows_toEveryCaller_and_nextCallLoadsAgain() {
+        final IllegalArgumentException failure = new IllegalArgumentException("boom");
+
+        assertSame(failure, assertThrows(IllegalArgumentException.class, () -> singleFlight.load(1, () -> {
+            throw failure;
+        })));
+        assertEquals("retried", singleFlight.load(1, () -> "retried"));
+        assertEquals(2, singleFlight.loads());
+    }
+
+    @Test
+    public void when_load_leaderTooSlow_throws_timeoutException() throws Exception {
+        final SingleFlight<Integer, String> impatient = new SingleFlight<>("test", Duration.ofMillis(10),
+                IllegalStateException::new);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            final Future<String> leader = executor.submit(() -> impatient.load(1, () -> {
+                started.countDown();
+                await(release);
+                return "value";
+            }));
+            started.await();
+
+            assertThrows(IllegalStateException.class, () -> impatient.load(1, () -> "unused"));
+            release.countDown();
+            assertEquals("value", leader.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, impatient.timeouts());
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package es.test.demo.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import es.test.demo.config.BinaryFormatConfig;
+import es.test.demo.model.ProductDTO;
+
+/**
+ * ProductBinaryFormatTest
+ * Round trips of the product endpoints in the formats registered by
+ * {@link BinaryFormatConfig}, against the products of {@code data.sql}.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:binaryformat")
+@AutoConfigureMockMvc
+public class ProductBinaryFormatTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void when_getProduct_acceptCbor_return_cborProduct() throws Exception {
+        assertReadsProduct(MediaType.APPLICATION_CBOR, new CBORFactory());
+    }
+
+    @Test
+    public void when_getProduct_acceptSmile_return_smileProduct() throws Exception {
+        assertReadsProduct(BinaryFormatConfig.APPLICATION_SMILE, new SmileFactory());
+    }
+
+    @Test
+    public void when_addProduct_cborBody_return_cborProduct() throws Exception {
+        assertCreatesProduct(MediaType.APPLICATION_CBOR, new CBORFactory());
+    }
+
+    @Test
+    public void when_addProduct_smileBody_return_smileProduct() throws Exception {
+        assertCreatesProduct(BinaryFormatConfig.APPLICATION_SMILE, new SmileFactory());
+    }
+
+    @Test
+    public void when_addProduct_unsupportedContentType_return_415() throws Exception {
+        mockMvc.perform(post("/product")
+                .contentType(MediaType.APPLICATION_XML)
+                .content("<product/>"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+
+    @Test
+    public void when_getProduct_unsupportedAccept_return_406() throws Exception {
+        mockMvc.perform(get("/product/{id}", 1)
+                .accept(MediaType.APPLICATION_XML))
+                .andExpect(status().isNotAcceptable());
+    }
+
+    private void assertReadsProduct(final MediaType mediaType, final JsonFactory factory) throws Exception {
+        final byte[] body = mockMvc.perform(get("/product/{id}", 1)
+                .accept(mediaType))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(mediaType))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+
+        final JsonNode product = new ObjectMapper(factory).readTree(body);
+        assertEquals(1, product.get("id").asInt());
+        assertEquals("Basic White T-Shirt", product.get("name").asText());
+        assertEquals(19.99, product.get("price").asDouble());
+    }
+
+    private void assertCreatesProduct(final MediaType mediaType, final JsonFactory factory) throws Exception {
+        final ObjectMapper objectMapper = new ObjectMapper(factory);
+        final String description = "Product sent as " + mediaType.getSubtype() + " by the test";
+        final ProductDTO product = ProductDTO.builder()
+                .name("Binary product")
+                .description(description)
+                .price(12.5)
+                .build();
+
+        final byte[] body = mockMvc.perform(post("/product")
+                .contentType(mediaType)
+                .accept(mediaType)
+                .content(objectMapper.writeValueAsBytes(product)))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentTypeCompatibleWith(mediaType))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+
+        final JsonNode created = objectMapper.readTree(body);
+        assertTrue(created.get("id").isIntegralNumber());
+        assertEquals("Binary product", created.get("name").asText());
+        assertEquals(description, created.get("description").asText());
+        assertEquals(12.5, created.get("price").asDouble());
+
+        final byte[] stored = mockMvc.perform(get("/product/{id}", created.get("id").asInt())
+                .accept(mediaType))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+        assertEquals(description, objectMapper.readTree(stored).get("description").asText());
+    }
+}
@@ -0,0 +1,89 @@
+package es.test.demo.controller;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import es.test.demo.config.ProductResponseCacheProperties;
+import es.test.demo.event.ProductChangedEvent;
+import es.test.demo.model.ProductDTO;
+
+/**
+ * ProductResponseCacheTest
+ */
+public class ProductResponseCacheTest {
+
+    private ProductResponseCache responseCache;
+
+    private ProductDTO product;
+
+    @BeforeEach
+    public void setup() {
+        responseCache = new ProductResponseCache(new ObjectMapper(),
+                new ProductResponseCacheProperties(true, 100, 100, true));
+        product = new ProductDTO(1, "Test product", "Test product description", 1.23, 0L);
+    }
+
+    @Test
+    public void when_serves_jsonOrAnything_return_true() {
+        assertTrue(responseCache.serves(null));
+        assertTrue(responseCache.serves("*/*"));
+        assertTrue(responseCache.serves("application/json"));
+    }
+
+    @Test
+    public void when_serves_otherFormat_return_false() {
+        assertFalse(responseCache.serves("application/cbor"));
+        assertFalse(responseCache.serves("application/cbor, */*;q=0.5"));
+    }
+
+    @Test
+    public void when_putProduct_return_cachedJson() throws Exception {
+        responseCache.putProduct(1, responseCache.generation(), product, "\"0\"");
+
+        final ResponseEntity<byte[]> response = responseCache.getProduct(1).toResponse(null);
+        assertArrayEquals(new ObjectMapper().writeValueAsBytes(product), response.getBody());
+        assertEquals("\"0\"", response.getHeaders().getETag());
+        assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    public void when_acceptsGzip_return_gzippedBody() {
+        responseCache.putProduct(1, responseCache.generation(), product, "\"0\"");
+
+        final ResponseEntity<byte[]> response = responseCache.getProduct(1).toResponse("gzip, deflate");
+        assertEquals("gzip", response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    public void when_productChanged_drop_productAndPages() {
+        final ProductResponseCache.PageKey key = new ProductResponseCache.PageKey(null, null, null, null, null,
+                null);
+        responseCache.putProduct(1, responseCache.generation(), product, "\"0\"");
+        responseCache.putPage(key, responseCache.generation(), product, "\"1\"");
+
+        responseCache.onProductChanged(ProductChangedEvent.updated(product));
+
+        assertNull(responseCache.getProduct(1));
+        assertNull(responseCache.getPage(key));
+    }
+
+    @Test
+    public void when_putProduct_loadedBeforeChange_not_cache_it() {
+        final long generation = responseCache.generation();
+        responseCache.onProductChanged(ProductChangedEvent.updated(product));
+
+        responseCache.putProduct(1, generation, product, "\"0\"");
+
+        assertNull(responseCache.getProduct(1));
+    }
+}
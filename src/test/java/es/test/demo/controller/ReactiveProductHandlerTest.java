@@ -0,0 +1,190 @@
+package es.test.demo.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import es.test.demo.exception.product.ProductNotFoundException;
+import es.test.demo.exception.product.ProductVersionMismatchException;
+import es.test.demo.model.ProductDTO;
+import es.test.demo.service.ReactiveProductService;
+import jakarta.validation.Validation;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * ReactiveProductHandlerTest
+ * Requests against the routes of {@link ReactiveProductHandler}, as
+ * {@link ReactiveProductServer} serves them.
+ */
+public class ReactiveProductHandlerTest {
+
+    @Mock
+    private ReactiveProductService productService;
+
+    private WebTestClient client;
+
+    private ProductDTO productDTO;
+
+    @BeforeEach
+    public void setup() {
+        openMocks(this);
+        final ReactiveProductHandler handler = new ReactiveProductHandler(productService,
+                Validation.buildDefaultValidatorFactory().getValidator());
+        client = WebTestClient.bindToRouterFunction(handler.routes()).build();
+        productDTO = new ProductDTO(1, "Test product", "Test product description", 1.23, 2L);
+    }
+
+    @Test
+    public void when_getProductById_return_product_with_eTag() {
+        when(productService.getProductById(1)).thenReturn(Mono.just(productDTO));
+
+        client.get().uri("/product/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, ProductETags.of(productDTO))
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(1)
+                .jsonPath("$.name").isEqualTo("Test product");
+    }
+
+    @Test
+    public void when_getProductById_ifNoneMatch_return_304() {
+        when(productService.getProductById(1)).thenReturn(Mono.just(productDTO));
+
+        client.get().uri("/product/1")
+                .header(HttpHeaders.IF_NONE_MATCH, ProductETags.of(productDTO))
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, ProductETags.of(productDTO))
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    public void when_getProductById_notFound_return_404() {
+        when(productService.getProductById(1)).thenReturn(Mono.error(new ProductNotFoundException("Not found")));
+
+        client.get().uri("/product/1")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(404)
+                .jsonPath("$.error").isEqualTo("NOT_FOUND")
+                .jsonPath("$.message").isEqualTo("Not found")
+                .jsonPath("$.path").isEqualTo("/product/1");
+    }
+
+    @Test
+    public void when_getProductById_invalidId_return_400() {
+        client.get().uri("/product/abc")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Invalid value for parameter 'id'");
+    }
+
+    @Test
+    public void when_getAllProducts_priceRangeSortedByName_return_400() {
+        client.get().uri("/product?minPrice=1&sort=name")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Price ranges can only be sorted by price");
+    }
+
+    @Test
+    public void when_addProduct_invalidBody_return_400_withoutCallingService() {
+        client.post().uri("/product")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\" \"}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("BAD_REQUEST")
+                .jsonPath("$.message").isEqualTo("description: The product description cannot be blank, "
+                        + "name: The product name cannot be blank, price: The product price cannot be null");
+        verify(productService, never()).addProduct(any());
+    }
+
+    @Test
+    public void when_addProduct_malformedBody_return_400() {
+        client.post().uri("/product")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("The request body is missing or malformed");
+    }
+
+    @Test
+    public void when_addProduct_return_201_with_eTag() {
+        when(productService.addProduct(any())).thenReturn(Mono.just(productDTO));
+
+        client.post().uri("/product")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"Test product\",\"description\":\"Test product description\",\"price\":1.23}")
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, ProductETags.of(productDTO))
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(1);
+    }
+
+    @Test
+    public void when_deleteProductById_staleIfMatch_return_412() {
+        when(productService.deleteProductById(1, 1L))
+                .thenReturn(Mono.error(new ProductVersionMismatchException("Stale version")));
+
+        client.delete().uri("/product/1")
+                .header(HttpHeaders.IF_MATCH, "\"1\"")
+                .exchange()
+                .expectStatus().isEqualTo(412)
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("PRECONDITION_FAILED")
+                .jsonPath("$.message").isEqualTo("Stale version");
+    }
+
+    @Test
+    public void when_unexpectedError_return_500_withoutItsMessage() {
+        when(productService.getProductById(1)).thenReturn(Mono.error(new IllegalStateException("internal detail")));
+
+        client.get().uri("/product/1")
+                .exchange()
+                .expectStatus().is5xxServerError()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("An unexpected error occurred");
+    }
+
+    @Test
+    public void when_exportProducts_return_ndjson() {
+        final ProductDTO other = new ProductDTO(2, "Other product", "Other product description", 4.56, 0L);
+        when(productService.exportProducts()).thenReturn(Flux.just(productDTO, other));
+
+        final String body = client.get().uri("/product/export")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        final List<String> lines = body.lines().toList();
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains("\"id\":1"));
+        assertTrue(lines.get(1).contains("\"id\":2"));
+    }
+}
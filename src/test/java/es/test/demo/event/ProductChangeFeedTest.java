@@ -0,0 +1,191 @@
+package es.test.demo.event;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import es.test.demo.config.ProductChangeFeedProperties;
+import es.test.demo.model.ProductDTO;
+
+/**
+ * ProductChangeFeedTest
+ */
+public class ProductChangeFeedTest {
+
+    private ProductChangeFeed changeFeed;
+
+    private ProductDTO product;
+
+    @BeforeEach
+    public void setup() {
+        changeFeed = new ProductChangeFeed(new ProductChangeFeedProperties(4, 2, Duration.ofMinutes(1)));
+        product = new ProductDTO(1, "Test product", "Test product description", 1.23, 0L);
+    }
+
+    @Test
+    public void when_productChanged_assign_increasing_sequences() {
+        changeFeed.onProductChanged(ProductChangedEvent.created(product));
+        changeFeed.onProductChanged(ProductChangedEvent.updated(product));
+        changeFeed.onProductChanged(ProductChangedEvent.deleted(1));
+
+        assertEquals(3, changeFeed.lastSequence());
+    }
+
+    @Test
+    public void when_subscribe_register_subscriber() {
+        assertNotNull(changeFeed.subscribe(null));
+        assertNotNull(changeFeed.subscribe(changeFeed.epoch() + "-0"));
+
+        assertEquals(2, changeFeed.subscribers());
+    }
+
+    @Test
+    public void when_subscribe_newClient_send_onlyNewChanges() throws InterruptedException {
+        changeFeed.onProductChanged(ProductChangedEvent.created(product));
+        final RecordingEmitter emitter = new RecordingEmitter();
+
+        changeFeed.subscribe(null, emitter);
+        changeFeed.onProductChanged(ProductChangedEvent.updated(product));
+
+        assertEquals(List.of("updated " + changeFeed.epoch() + "-2"), emitter.take(1));
+    }
+
+    @Test
+    public void when_subscribe_lastEventIdBuffered_replay_missedChanges() throws InterruptedException {
+        changeFeed.onProductChanged(ProductChangedEvent.created(product));
+        changeFeed.onProductChanged(ProductChangedEvent.updated(product));
+        changeFeed.onProductChanged(ProductChangedEvent.deleted(1));
+        final RecordingEmitter emitter = new RecordingEmitter();
+
+        changeFeed.subscribe(changeFeed.epoch() + "-1", emitter);
+        changeFeed.onProductChanged(ProductChangedEvent.created(product));
+
+        final String epoch = changeFeed.epoch();
+        assertEquals(List.of("updated " + epoch + "-2", "deleted " + epoch + "-3", "created " + epoch + "-4"),
+                emitter.take(3));
+    }
+
+    @Test
+    public void when_subscribe_lastEventIdOlderThanBuffer_send_reset() throws InterruptedException {
+        for (int i = 0; i < 6; i++) {
+            changeFeed.onProductChanged(ProductChangedEvent.updated(product));
+        }
+        final RecordingEmitter emitter = new RecordingEmitter();
+
+        changeFeed.subscribe(changeFeed.epoch() + "-1", emitter);
+        changeFeed.onProductChanged(ProductChangedEvent.deleted(1));
+
+        final String epoch = changeFeed.epoch();
+        assertEquals(List.of("reset " + epoch + "-6", "deleted " + epoch + "-7"), emitter.take(2));
+    }
+
+    @Test
+    public void when_subscribe_lastEventIdFromAnotherEpoch_send_reset() throws InterruptedException {
+        changeFeed.onProductChanged(ProductChangedEvent.created(product));
+        final RecordingEmitter previousRun = new RecordingEmitter();
+        final RecordingEmitter malformed = new RecordingEmitter();
+
+        changeFeed.subscribe("0-1", previousRun);
+        changeFeed.subscribe("1", malformed);
+
+        assertEquals(List.of("reset " + changeFeed.epoch() + "-1"), previousRun.take(1));
+        assertEquals(List.of("reset " + changeFeed.epoch() + "-1"), malformed.take(1));
+    }
+
+    @Test
+    public void when_subscriberFallsBehind_disconnect_it() throws InterruptedException {
+        final RecordingEmitter emitter = new RecordingEmitter();
+        emitter.blockSends();
+        changeFeed.subscribe(null, emitter);
+
+        changeFeed.onProductChanged(ProductChangedEvent.created(product));
+        assertTrue(emitter.sending.await(5, TimeUnit.SECONDS));
+        // One change is being sent and the queue holds two more
+        changeFeed.onProductChanged(ProductChangedEvent.updated(product));
+        changeFeed.onProductChanged(ProductChangedEvent.updated(product));
+        assertEquals(1, changeFeed.subscribers());
+        changeFeed.onProductChanged(ProductChangedEvent.updated(product));
+
+        assertEquals(0, changeFeed.subscribers());
+        emitter.unblockSends();
+        assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("created " + changeFeed.epoch() + "-1"), emitter.take(1));
+    }
+
+    /**
+     * An {@link SseEmitter} recording every event as {@code "<name> <id>"},
+     * optionally holding each send until released.
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private volatile CountDownLatch released = new CountDownLatch(0);
+
+        @Override
+        public void send(final SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            final String text = builder.build().stream()
+                    .map(data -> String.valueOf(data.getData()))
+                    .collect(Collectors.joining());
+            String id = null;
+            String name = null;
+            for (final String line : text.split("\n")) {
+                if (line.startsWith("id:")) {
+                    id = line.substring("id:".length());
+                } else if (line.startsWith("event:")) {
+                    name = line.substring("event:".length());
+                }
+            }
+            events.add(name + " " + id);
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+            super.complete();
+        }
+
+        private void blockSends() {
+            released = new CountDownLatch(1);
+        }
+
+        private void unblockSends() {
+            released.countDown();
+        }
+
+        /**
+         * Waits for the next {@code count} events.
+         */
+        private List<String> take(final int count) throws InterruptedException {
+            final List<String> taken = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                final String event = events.poll(5, TimeUnit.SECONDS);
+                assertNotNull(event, "Missing event " + (i + 1) + " of " + count);
+                taken.add(event);
+            }
+            return taken;
+        }
+    }
+}
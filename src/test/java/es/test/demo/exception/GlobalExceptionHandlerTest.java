@@ -0,0 +1,118 @@
+package es.test.demo.exception;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.request.async.AsyncRequestNotUsableException;
+
+import es.test.demo.model.ErrorResponseDTO;
+
+/**
+ * GlobalExceptionHandlerTest
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:exceptionhandler")
+@AutoConfigureMockMvc
+public class GlobalExceptionHandlerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private GlobalExceptionHandler exceptionHandler;
+
+    @Test
+    public void when_bodyFailsValidation_return_400_listingEveryField() throws Exception {
+        mockMvc.perform(post("/product")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\" \"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400))
+                .andExpect(jsonPath("$.error").value("BAD_REQUEST"))
+                .andExpect(jsonPath("$.message").value("description: The product description cannot be blank, "
+                        + "name: The product name cannot be blank, price: The product price cannot be null"))
+                .andExpect(jsonPath("$.path").value("/product"))
+                .andExpect(jsonPath("$.timestamp").exists());
+    }
+
+    @Test
+    public void when_bodyValuesOutOfRange_return_400_withTheirMessages() throws Exception {
+        mockMvc.perform(post("/product")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Short\",\"description\":\"Too short\",\"price\":-1}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("description: The product description must be between 20 "
+                        + "and 200 characters, price: The product price cannot be lower than 0"));
+    }
+
+    @Test
+    public void when_bodyIsValid_return_201() throws Exception {
+        mockMvc.perform(post("/product")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Valid product\",\"description\":\"Valid product description\",\"price\":1}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.name").value("Valid product"));
+    }
+
+    @Test
+    public void when_pathVariableHasWrongType_return_400_namingTheParameter() throws Exception {
+        mockMvc.perform(get("/product/{id}", "abc"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400))
+                .andExpect(jsonPath("$.error").value("BAD_REQUEST"))
+                .andExpect(jsonPath("$.message").value("Invalid value for parameter 'id'"))
+                .andExpect(jsonPath("$.path").value("/product/abc"));
+    }
+
+    @Test
+    public void when_bodyIsMalformed_return_400_withoutParserDetails() throws Exception {
+        mockMvc.perform(post("/product")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400))
+                .andExpect(jsonPath("$.error").value("BAD_REQUEST"))
+                .andExpect(jsonPath("$.message").value("The request body is missing or malformed"))
+                .andExpect(jsonPath("$.path").value("/product"));
+    }
+
+    @Test
+    public void when_bodyIsMissing_return_400() throws Exception {
+        mockMvc.perform(post("/product")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("The request body is missing or malformed"));
+    }
+
+    @Test
+    public void when_clientDisconnected_return_noResponse() {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/product/changes");
+
+        assertNull(exceptionHandler.handleException(
+                new AsyncRequestNotUsableException("ServletOutputStream failed to write"), request));
+        assertNull(exceptionHandler.handleException(new IOException("Broken pipe"), request));
+    }
+
+    @Test
+    public void when_unexpectedException_return_500_withoutItsMessage() {
+        final ResponseEntity<ErrorResponseDTO> response = exceptionHandler.handleException(
+                new IllegalStateException("internal detail"), new MockHttpServletRequest("GET", "/product"));
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertEquals("An unexpected error occurred", response.getBody().getMessage());
+    }
+}
@@ -0,0 +1,115 @@
+package es.test.demo.filter;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import es.test.demo.config.CompressionProperties;
+import jakarta.servlet.FilterChain;
+
+/**
+ * CompressionFilterTest
+ */
+public class CompressionFilterTest {
+
+    private CompressionFilter filter;
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    public void setup() {
+        filter = new CompressionFilter(new CompressionProperties(true, 6, DataSize.ofBytes(100),
+                List.of(MediaType.APPLICATION_JSON_VALUE)));
+        request = new MockHttpServletRequest("GET", "/product");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+        response = new MockHttpServletResponse();
+    }
+
+    @Test
+    public void when_largeJson_return_gzippedBody() throws Exception {
+        final byte[] body = body(1000);
+
+        filter.doFilter(request, response, chain(MediaType.APPLICATION_JSON_VALUE, body));
+
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(response.getContentAsByteArray().length < body.length);
+        assertArrayEquals(body, gunzip(response.getContentAsByteArray()));
+    }
+
+    @Test
+    public void when_smallJson_return_plainBody() throws Exception {
+        final byte[] body = body(50);
+
+        filter.doFilter(request, response, chain(MediaType.APPLICATION_JSON_VALUE, body));
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(body, response.getContentAsByteArray());
+        assertEquals(50, response.getContentLength());
+    }
+
+    @Test
+    public void when_otherContentType_return_plainBody() throws Exception {
+        final byte[] body = body(1000);
+
+        filter.doFilter(request, response, chain(MediaType.APPLICATION_CBOR_VALUE, body));
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(body, response.getContentAsByteArray());
+    }
+
+    @Test
+    public void when_gzipNotAccepted_return_plainBody() throws Exception {
+        request.removeHeader(HttpHeaders.ACCEPT_ENCODING);
+        final byte[] body = body(1000);
+
+        filter.doFilter(request, response, chain(MediaType.APPLICATION_JSON_VALUE, body));
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(body, response.getContentAsByteArray());
+    }
+
+    @Test
+    public void when_acceptsGzip_parse_qualityValues() {
+        assertTrue(CompressionFilter.acceptsGzip("br, gzip;q=0.5"));
+        assertFalse(CompressionFilter.acceptsGzip("gzip;q=0"));
+        assertFalse(CompressionFilter.acceptsGzip("identity"));
+    }
+
+    private static byte[] body(final int length) {
+        final byte[] body = new byte[length];
+        Arrays.fill(body, (byte) 'a');
+        return body;
+    }
+
+    private static FilterChain chain(final String contentType, final byte[] body) {
+        return (_, servletResponse) -> {
+            servletResponse.setContentType(contentType);
+            servletResponse.setContentLength(body.length);
+            servletResponse.getOutputStream().write(body);
+        };
+    }
+
+    private static byte[] gunzip(final byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package es.test.demo.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+
+/**
+ * StatementMetricsFilterTest
+ */
+public class StatementMetricsFilterTest {
+
+    private static final String ROUTE = "/product/{id}";
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private StatementMetricsFilter filter;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new StatementMetricsFilter(meterRegistry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void when_request_sendsStatements_record_countForRoute() throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", "/product/1"), new MockHttpServletResponse(), chain(3));
+
+        final DistributionSummary summary = summary(ROUTE);
+        assertEquals(1, summary.count());
+        assertEquals(3, summary.totalAmount());
+    }
+
+    @Test
+    public void when_severalRequests_record_eachCountSeparately() throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", "/product/1"), new MockHttpServletResponse(), chain(3));
+        filter.doFilter(new MockHttpServletRequest("GET", "/product/2"), new MockHttpServletResponse(), chain(1));
+        filter.doFilter(new MockHttpServletRequest("GET", "/product/3"), new MockHttpServletResponse(), chain(0));
+
+        final DistributionSummary summary = summary(ROUTE);
+        assertEquals(3, summary.count());
+        assertEquals(4, summary.totalAmount());
+        assertEquals(3, summary.max());
+    }
+
+    @Test
+    public void when_noRouteMatched_record_countForUnknownRoute() throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", "/missing"), new MockHttpServletResponse(),
+                (request, _) -> {
+                    RequestContextHolder.setRequestAttributes(
+                            new ServletRequestAttributes((MockHttpServletRequest) request));
+                    StatementMetricsFilter.countStatement();
+                });
+
+        assertEquals(1, summary("UNKNOWN").totalAmount());
+        assertNull(meterRegistry.find(StatementMetricsFilter.METRIC_NAME).tag("uri", ROUTE).summary());
+    }
+
+    @Test
+    public void when_statementOutsideRequest_doNothing() {
+        StatementMetricsFilter.countStatement();
+
+        assertNull(meterRegistry.find(StatementMetricsFilter.METRIC_NAME).summary());
+    }
+
+    /**
+     * A chain matching {@link #ROUTE} and sending {@code statements} statements
+     * from the request thread, as the Hibernate statement inspector would.
+     */
+    private static FilterChain chain(final int statements) {
+        return (request, _) -> {
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes((MockHttpServletRequest) request));
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, ROUTE);
+            for (int i = 0; i < statements; i++) {
+                StatementMetricsFilter.countStatement();
+            }
+            RequestContextHolder.resetRequestAttributes();
+        };
+    }
+
+    private DistributionSummary summary(final String route) {
+        return meterRegistry.get(StatementMetricsFilter.METRIC_NAME).tag("uri", route).summary();
+    }
+}
@@ -0,0 +1,40 @@
+package es.test.demo.index;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * BloomFilterTest
+ */
+public class BloomFilterTest {
+
+    @Test
+    public void when_mightContain_addedKeys_return_true() {
+        final BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int key = 1; key <= 10_000; key++) {
+            filter.add(key);
+        }
+
+        for (int key = 1; key <= 10_000; key++) {
+            assertTrue(filter.mightContain(key));
+        }
+    }
+
+    @Test
+    public void when_mightContain_unknownKeys_falsePositiveRate_staysNearTarget() {
+        final BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int key = 1; key <= 10_000; key++) {
+            filter.add(key);
+        }
+
+        int falsePositives = 0;
+        for (int key = 1_000_001; key <= 1_100_000; key++) {
+            if (filter.mightContain(key)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2_000, "False positives: " + falsePositives);
+        assertTrue(filter.falsePositiveRate(10_000) < 0.02);
+    }
+}
@@ -0,0 +1,94 @@
+package es.test.demo.index;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * InvertedIndexTest
+ */
+public class InvertedIndexTest {
+
+    private InvertedIndex index;
+
+    @BeforeEach
+    public void setup() {
+        index = new InvertedIndex();
+        index.put(1, "Wireless Mouse", "Ergonomic mouse with USB receiver");
+        index.put(2, "Mouse Pad", "Large pad for any mouse");
+        index.put(3, "USB Keyboard", "Mechanical keyboard, wired USB");
+    }
+
+    @Test
+    public void when_search_multipleTerms_return_onlyProductsWithEveryTerm() {
+        assertArrayEquals(new int[] { 1 }, index.search("usb mouse", 10));
+    }
+
+    @Test
+    public void when_search_termInName_ranksBefore_termOnlyInDescription() {
+        index.put(4, "Cable", "Spare cable for a keyboard");
+
+        assertArrayEquals(new int[] { 3, 4 }, index.search("keyboard", 10));
+    }
+
+    @Test
+    public void when_search_isCaseAndAccentInsensitive() {
+        index.put(4, "Café Mug", "Ceramic mug");
+
+        assertArrayEquals(new int[] { 4 }, index.search("CAFE", 10));
+    }
+
+    @Test
+    public void when_search_unknownTerm_return_noResults() {
+        assertArrayEquals(new int[0], index.search("mouse monitor", 10));
+    }
+
+    @Test
+    public void when_search_limitLowerThanMatches_return_bestMatches() {
+        assertEquals(1, index.search("mouse", 1).length);
+    }
+
+    @Test
+    public void when_put_existingProduct_replaces_previousTerms() {
+        index.put(2, "Desk Mat", "Large mat for the desk");
+
+        assertArrayEquals(new int[] { 1 }, index.search("mouse", 10));
+        assertArrayEquals(new int[] { 2 }, index.search("desk", 10));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    public void when_remove_product_isNoLongerFound() {
+        index.remove(1);
+
+        assertArrayEquals(new int[] { 2 }, index.search("mouse", 10));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    public void when_manyUpdates_triggerCompaction_searchStillMatchesLiveProducts() {
+        for (int i = 0; i < 5000; i++) {
+            index.put(1, "Wireless Mouse " + i, "Ergonomic mouse");
+        }
+
+        assertArrayEquals(new int[] { 1 }, index.search("wireless", 10));
+        assertArrayEquals(new int[] { 1, 2 }, index.search("mouse", 10));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    public void when_search_commonTerms_return_best_matches_up_to_the_limit() {
+        for (int id = 10; id < 2000; id++) {
+            index.put(id, "Mouse " + id,
+                    id % 3 == 0 ? "Wireless mouse, wireless receiver, wireless charging" : "Wired mouse");
+        }
+
+        final int[] results = index.search("wireless mouse", 5);
+
+        assertEquals(5, results.length);
+        // Three wireless mentions rank before the two of product 1
+        assertArrayEquals(new int[] { 12, 15, 18, 21, 24 }, results);
+    }
+}
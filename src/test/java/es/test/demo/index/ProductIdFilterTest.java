@@ -0,0 +1,145 @@
+package es.test.demo.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import es.test.demo.model.ProductDTO;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * ProductIdFilterTest
+ * Reads through the API against the products of {@code data.sql}, with a false
+ * positive rate low enough for unknown IDs to be reliably filtered out.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:idfilter",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "product.id-filter.false-positive-rate=0.000001" })
+@AutoConfigureMockMvc
+public class ProductIdFilterTest {
+
+    private static final int UNKNOWN_ID = 900_000;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductIdFilter idFilter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setup() {
+        idFilter.rebuild();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void when_getProduct_unknownId_return_404_withoutQuerying() throws Exception {
+        mockMvc.perform(get("/product/{id}", UNKNOWN_ID))
+                .andExpect(status().isNotFound());
+
+        assertFalse(idFilter.mightExist(UNKNOWN_ID));
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void when_getProduct_knownId_return_product() throws Exception {
+        assertTrue(idFilter.mightExist(1));
+
+        mockMvc.perform(get("/product/{id}", 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1));
+    }
+
+    @Test
+    public void when_productCreated_return_it_beforeAnyRebuild() throws Exception {
+        final int id = create("Created product");
+
+        assertTrue(idFilter.mightExist(id));
+        mockMvc.perform(get("/product/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Created product"));
+    }
+
+    @Test
+    public void when_productDeleted_keepId_untilRebuild() throws Exception {
+        final int id = create("Deleted product");
+
+        mockMvc.perform(delete("/product/{id}", id))
+                .andExpect(status().isNoContent());
+
+        // A Bloom filter cannot forget: the read is answered by the database
+        assertTrue(idFilter.mightExist(id));
+        statistics.clear();
+        mockMvc.perform(get("/product/{id}", id))
+                .andExpect(status().isNotFound());
+        assertTrue(statistics.getPrepareStatementCount() > 0);
+
+        idFilter.rebuild();
+
+        assertFalse(idFilter.mightExist(id));
+    }
+
+    @Test
+    public void when_rowsInsertedBehindTheApplication_return_them_afterRebuild() throws Exception {
+        final int id = UNKNOWN_ID + 1;
+        jdbcTemplate.update("INSERT INTO product (id, description, name, price, version) VALUES (?, ?, ?, ?, 0)",
+                id, "Seeded product description", "Seeded product", 1.5);
+
+        mockMvc.perform(get("/product/{id}", id))
+                .andExpect(status().isNotFound());
+
+        idFilter.rebuild();
+
+        mockMvc.perform(get("/product/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(id));
+    }
+
+    private int create(final String name) throws Exception {
+        final ProductDTO product = ProductDTO.builder()
+                .name(name)
+                .description(name + " description")
+                .price(9.99)
+                .build();
+        final String response = mockMvc.perform(post("/product")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(product)))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        // The ID is read-only, so it is read from the tree rather than into a ProductDTO
+        return objectMapper.readTree(response).get("id").asInt();
+    }
+}
@@ -0,0 +1,114 @@
+package es.test.demo.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import es.test.demo.config.ProductStatsProperties;
+import es.test.demo.entity.ProductEntity;
+import es.test.demo.event.ProductChangedEvent;
+import es.test.demo.exception.product.ProductIndexNotReadyException;
+import es.test.demo.model.ProductDTO;
+import es.test.demo.model.ProductStatsDTO;
+import es.test.demo.repository.ProductPriceAggregate;
+import es.test.demo.repository.ProductRepository;
+
+/**
+ * ProductStatisticsTest
+ */
+public class ProductStatisticsTest {
+
+    @Mock
+    private ProductCatalogScanner catalogScanner;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductStatistics statistics;
+
+    @BeforeEach
+    public void setup() {
+        openMocks(this);
+        statistics = new ProductStatistics(catalogScanner, productRepository,
+                new ProductStatsProperties(true, List.of(10D, 100D), Duration.ofMinutes(5)));
+        doAnswer(invocation -> {
+            final Consumer<ProductEntity> sink = invocation.getArgument(0);
+            sink.accept(new ProductEntity(1, "A", "A", 5D, 0L));
+            sink.accept(new ProductEntity(2, "B", "B", 50D, 0L));
+            sink.accept(new ProductEntity(3, "C", "C", 500D, 0L));
+            return null;
+        }).when(catalogScanner).scan(any());
+    }
+
+    @Test
+    public void when_snapshot_notBuilt_throw_ProductIndexNotReadyException() {
+        assertThrows(ProductIndexNotReadyException.class, () -> statistics.snapshot());
+    }
+
+    @Test
+    public void when_snapshot_afterBuild_return_catalogStatistics() {
+        statistics.rebuild();
+
+        final ProductStatsDTO stats = statistics.snapshot();
+        assertEquals(3, stats.getCount());
+        assertEquals(5D, stats.getMinPrice());
+        assertEquals(500D, stats.getMaxPrice());
+        assertEquals(185D, stats.getAvgPrice());
+        assertEquals(List.of(new ProductStatsDTO.Bucket(null, 10D, 1), new ProductStatsDTO.Bucket(10D, 100D, 1),
+                new ProductStatsDTO.Bucket(100D, null, 1)), stats.getHistogram());
+    }
+
+    @Test
+    public void when_productChanged_return_updatedStatistics() {
+        statistics.rebuild();
+
+        statistics.onProductChanged(ProductChangedEvent.updated(new ProductDTO(3, "C", "C", 20D, 1L)));
+        statistics.onProductChanged(ProductChangedEvent.deleted(1));
+        statistics.onProductChanged(ProductChangedEvent.created(new ProductDTO(4, "D", "D", 80D, 0L)));
+
+        final ProductStatsDTO stats = statistics.snapshot();
+        assertEquals(3, stats.getCount());
+        assertEquals(20D, stats.getMinPrice());
+        assertEquals(80D, stats.getMaxPrice());
+        assertEquals(150D, stats.getSumPrice());
+        assertEquals(List.of(0L, 3L, 0L), stats.getHistogram().stream().map(ProductStatsDTO.Bucket::count).toList());
+    }
+
+    @Test
+    public void when_allProductsDeleted_return_emptyStatistics() {
+        statistics.rebuild();
+
+        statistics.onProductChanged(ProductChangedEvent.deleted(1));
+        statistics.onProductChanged(ProductChangedEvent.deleted(2));
+        statistics.onProductChanged(ProductChangedEvent.deleted(3));
+
+        final ProductStatsDTO stats = statistics.snapshot();
+        assertEquals(0, stats.getCount());
+        assertNull(stats.getMinPrice());
+        assertNull(stats.getAvgPrice());
+    }
+
+    @Test
+    public void when_reconcile_drifted_rebuild() {
+        statistics.rebuild();
+        when(productRepository.aggregatePrices()).thenReturn(new ProductPriceAggregate(2, 55D, 5D, 50D));
+
+        statistics.reconcile();
+
+        verify(catalogScanner, times(2)).scan(any());
+    }
+}
@@ -0,0 +1,82 @@
+package es.test.demo.index;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * SortedPriceIndexTest
+ */
+public class SortedPriceIndexTest {
+
+    private SortedPriceIndex index;
+
+    @BeforeEach
+    public void setup() {
+        index = new SortedPriceIndex();
+        index.put(3, 30D);
+        index.put(1, 10D);
+        index.put(4, 10D);
+        index.put(2, 20D);
+    }
+
+    @Test
+    public void when_range_return_productsWithinRange_inPriceAndIdOrder() {
+        assertArrayEquals(new int[] { 1, 4, 2 }, range(10D, Integer.MIN_VALUE, 20D, 10));
+    }
+
+    @Test
+    public void when_range_afterPosition_resumes_afterThatProduct() {
+        assertArrayEquals(new int[] { 4, 2, 3 }, range(10D, 1, Double.MAX_VALUE, 10));
+    }
+
+    @Test
+    public void when_range_limitReached_stops() {
+        assertArrayEquals(new int[] { 1, 4 }, range(-Double.MAX_VALUE, Integer.MIN_VALUE, Double.MAX_VALUE, 2));
+    }
+
+    @Test
+    public void when_put_existingProduct_moves_itToItsNewPrice() {
+        index.put(1, 25D);
+
+        assertArrayEquals(new int[] { 4, 2, 1, 3 }, range(-Double.MAX_VALUE, Integer.MIN_VALUE, Double.MAX_VALUE, 10));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    public void when_remove_product_isNoLongerListed() {
+        index.remove(4);
+
+        assertArrayEquals(new int[] { 1 }, range(10D, Integer.MIN_VALUE, 10D, 10));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    public void when_manyProducts_spanBlocks_rangeStaysSorted() {
+        index.clear();
+        final int count = SortedPriceIndex.BLOCK_SIZE * 5;
+        for (int id = 1; id <= count; id++) {
+            index.put(id, (id * 7919) % count);
+        }
+        for (int id = 1; id <= count; id += 2) {
+            index.remove(id);
+        }
+
+        final int[] ids = range(-Double.MAX_VALUE, Integer.MIN_VALUE, Double.MAX_VALUE, count);
+        assertEquals(count / 2, ids.length);
+        for (int i = 1; i < ids.length; i++) {
+            assertTrue((ids[i - 1] * 7919) % count < (ids[i] * 7919) % count);
+        }
+    }
+
+    private int[] range(final double afterPrice, final int afterId, final double maxPrice, final int limit) {
+        final int[] ids = new int[limit];
+        final int count = index.range(afterPrice, afterId, maxPrice, ids, new double[limit]);
+        return Arrays.copyOf(ids, count);
+    }
+}
@@ -0,0 +1,37 @@
+package es.test.demo.loadtest;
+
+/**
+ * Endpoint
+ * The {@code /product} operations driven by the load generator.
+ */
+public enum Endpoint {
+    GET("get", "GET /product/{id}"),
+    LIST("list", "GET /product"),
+    POST("post", "POST /product"),
+    PUT("put", "PUT /product/{id}"),
+    DELETE("delete", "DELETE /product/{id}");
+
+    private final String key;
+    private final String route;
+
+    Endpoint(final String key, final String route) {
+        this.key = key;
+        this.route = route;
+    }
+
+    /**
+     * The route template, used as the label of the report rows.
+     */
+    public String route() {
+        return route;
+    }
+
+    static Endpoint fromKey(final String key) {
+        for (final Endpoint endpoint : values()) {
+            if (endpoint.key.equalsIgnoreCase(key)) {
+                return endpoint;
+            }
+        }
+        throw new IllegalArgumentException("Unknown endpoint: " + key);
+    }
+}
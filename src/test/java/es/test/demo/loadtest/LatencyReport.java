@@ -0,0 +1,112 @@
+package es.test.demo.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * LatencyReport
+ * Latency histograms and error counts per endpoint, in microseconds.
+ * <p>
+ * Latencies are measured from the moment a request was due to be sent, not
+ * from when it actually left, so a stalled server is charged for the requests
+ * it delayed.
+ */
+public class LatencyReport {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Map<Endpoint, Histogram> histograms = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, LongAdder> errors = new EnumMap<>(Endpoint.class);
+    private final Histogram total = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+    private long measuredNanos;
+
+    public LatencyReport() {
+        for (final Endpoint endpoint : Endpoint.values()) {
+            histograms.put(endpoint, new ConcurrentHistogram(MAX_LATENCY_MICROS, 3));
+            errors.put(endpoint, new LongAdder());
+        }
+    }
+
+    void record(final Endpoint endpoint, final long latencyNanos, final boolean success) {
+        final long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), MAX_LATENCY_MICROS);
+        histograms.get(endpoint).recordValue(micros);
+        total.recordValue(micros);
+        if (!success) {
+            errors.get(endpoint).increment();
+        }
+    }
+
+    void setMeasuredNanos(final long measuredNanos) {
+        this.measuredNanos = measuredNanos;
+    }
+
+    /**
+     * Total number of recorded requests.
+     */
+    public long totalCount() {
+        return total.getTotalCount();
+    }
+
+    /**
+     * Total number of recorded requests that failed or timed out.
+     */
+    public long totalErrors() {
+        return errors.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    /**
+     * Prints the throughput and latency percentiles of every endpoint, in
+     * milliseconds.
+     */
+    public void print(final PrintStream out) {
+        out.printf("%-22s %9s %8s %10s %9s %9s %9s %9s %9s%n",
+                "endpoint", "count", "errors", "req/s", "p50", "p90", "p99", "p99.9", "max");
+        histograms.forEach((endpoint, histogram) -> {
+            if (histogram.getTotalCount() > 0) {
+                printRow(out, endpoint.route(), histogram, errors.get(endpoint).sum());
+            }
+        });
+        printRow(out, "total", total, totalErrors());
+    }
+
+    /**
+     * Writes the full percentile distribution of every endpoint as {@code .hgrm}
+     * files, which HdrHistogram plotters can load.
+     */
+    public void writeDistributions(final Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (final Map.Entry<Endpoint, Histogram> entry : histograms.entrySet()) {
+            if (entry.getValue().getTotalCount() == 0) {
+                continue;
+            }
+            final Path file = directory.resolve(entry.getKey().name().toLowerCase() + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+                entry.getValue().outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+
+    private void printRow(final PrintStream out, final String label, final Histogram histogram,
+            final long errorCount) {
+        final double seconds = measuredNanos / 1e9;
+        out.printf("%-22s %9d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                label,
+                histogram.getTotalCount(),
+                errorCount,
+                seconds > 0 ? histogram.getTotalCount() / seconds : 0,
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(90) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0);
+    }
+}
@@ -0,0 +1,150 @@
+package es.test.demo.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * LoadGenerator
+ * Open-loop HTTP load generator for the {@code /product} API.
+ * <p>
+ * Requests are scheduled at a fixed arrival rate whatever the response times,
+ * each one on its own virtual thread, so a slow server builds up concurrent
+ * requests instead of slowing the generator down. Every latency is measured
+ * from the scheduled start of its request, which avoids coordinated omission.
+ * <p>
+ * Reads and updates target the seeded products; deletions only target the
+ * products created by the run, so the seeded catalog stays intact.
+ */
+public class LoadGenerator {
+
+    private static final Pattern CREATED_ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+    private final URI baseUri;
+    private final LoadTestOptions options;
+    private final HttpClient client;
+    private final Endpoint[] schedule;
+    private final Queue<Integer> createdIds = new ConcurrentLinkedQueue<>();
+
+    public LoadGenerator(final URI baseUri, final LoadTestOptions options) {
+        this.baseUri = baseUri;
+        this.options = options;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(options.timeout())
+                .build();
+        this.schedule = expand(options.mix());
+    }
+
+    /**
+     * Sends requests at the configured rate for the configured duration and
+     * waits for the last responses.
+     *
+     * @return the {@link LatencyReport} of the requests sent after the warm-up.
+     */
+    public LatencyReport run() {
+        final LatencyReport report = new LatencyReport();
+        final SplittableRandom random = new SplittableRandom(42);
+        final double nanosPerRequest = 1e9 / options.rate();
+        final long warmupNanos = options.warmup().toNanos();
+        final long durationNanos = options.duration().toNanos();
+
+        final long start = System.nanoTime();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long sequence = 0;; sequence++) {
+                final long offset = (long) (sequence * nanosPerRequest);
+                if (offset >= durationNanos) {
+                    break;
+                }
+                final long scheduled = start + offset;
+                for (long wait = scheduled - System.nanoTime(); wait > 0; wait = scheduled - System.nanoTime()) {
+                    LockSupport.parkNanos(wait);
+                }
+                final Endpoint endpoint = schedule[random.nextInt(schedule.length)];
+                final int productId = 1 + random.nextInt(options.rows());
+                final boolean measured = offset >= warmupNanos;
+                clients.execute(() -> call(endpoint, productId, scheduled, measured ? report : null));
+            }
+        }
+        report.setMeasuredNanos(durationNanos - warmupNanos);
+        return report;
+    }
+
+    private void call(final Endpoint endpoint, final int productId, final long scheduled,
+            final LatencyReport report) {
+        boolean success;
+        try {
+            final HttpRequest request = request(endpoint, productId);
+            if (request == null) {
+                // Nothing created yet to delete; keep the arrival rate with a read instead
+                call(Endpoint.GET, productId, scheduled, report);
+                return;
+            }
+            final HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            success = response.statusCode() / 100 == 2;
+            if (success && endpoint == Endpoint.POST) {
+                final Matcher matcher = CREATED_ID.matcher(response.body());
+                if (matcher.find()) {
+                    createdIds.add(Integer.valueOf(matcher.group(1)));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            success = false;
+        } catch (Exception e) {
+            success = false;
+        }
+        if (report != null) {
+            report.record(endpoint, System.nanoTime() - scheduled, success);
+        }
+    }
+
+    private HttpRequest request(final Endpoint endpoint, final int productId) {
+        final HttpRequest.Builder builder = HttpRequest.newBuilder().timeout(options.timeout());
+        return switch (endpoint) {
+            case GET -> builder.uri(baseUri.resolve("/product/" + productId)).GET().build();
+            case LIST -> builder.uri(baseUri.resolve("/product?limit=20")).GET().build();
+            case POST -> builder.uri(baseUri.resolve("/product"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body(productId)))
+                    .build();
+            case PUT -> builder.uri(baseUri.resolve("/product/" + productId))
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(body(productId)))
+                    .build();
+            case DELETE -> {
+                final Integer createdId = createdIds.poll();
+                yield createdId == null
+                        ? null
+                        : builder.uri(baseUri.resolve("/product/" + createdId)).DELETE().build();
+            }
+        };
+    }
+
+    private static String body(final int seed) {
+        return "{\"name\":\"Load test product " + seed + "\",\"description\":\"Created by the load generator\","
+                + "\"price\":" + (seed % 10_000) / 100.0 + "}";
+    }
+
+    /**
+     * Expands the weights into a table where every endpoint appears as many
+     * times as its weight, so picking one is a single random index.
+     */
+    private static Endpoint[] expand(final Map<Endpoint, Integer> mix) {
+        return mix.entrySet().stream()
+                .flatMap(entry -> Collections.nCopies(entry.getValue(), entry.getKey()).stream())
+                .toArray(Endpoint[]::new);
+    }
+}
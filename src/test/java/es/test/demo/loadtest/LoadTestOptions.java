@@ -0,0 +1,67 @@
+package es.test.demo.loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * LoadTestOptions
+ * Settings of a load test run, read from {@code loadtest.*} system properties.
+ *
+ * @param rate     the fixed arrival rate, in requests per second.
+ * @param duration how long requests are sent, including the warm-up.
+ * @param warmup   the initial period whose requests are not recorded.
+ * @param rows     the number of products seeded before the run.
+ * @param timeout  the response timeout of every request.
+ * @param mix      the relative weight of every endpoint.
+ */
+public record LoadTestOptions(int rate, Duration duration, Duration warmup, int rows, Duration timeout,
+        Map<Endpoint, Integer> mix) {
+
+    private static final String DEFAULT_MIX = "get=60,list=20,post=10,put=7,delete=3";
+
+    /**
+     * Reads the options from the system properties, using the defaults for the
+     * missing ones:
+     * <ul>
+     * <li>{@code loadtest.rate} - 500 requests per second.</li>
+     * <li>{@code loadtest.duration} - 30 seconds.</li>
+     * <li>{@code loadtest.warmup} - 5 seconds.</li>
+     * <li>{@code loadtest.rows} - 10000 products.</li>
+     * <li>{@code loadtest.timeout} - 5 seconds.</li>
+     * <li>{@code loadtest.mix} - {@value #DEFAULT_MIX}.</li>
+     * </ul>
+     *
+     * @return the {@link LoadTestOptions}.
+     */
+    public static LoadTestOptions fromSystemProperties() {
+        return new LoadTestOptions(
+                Integer.getInteger("loadtest.rate", 500),
+                Duration.ofSeconds(Long.getLong("loadtest.duration", 30)),
+                Duration.ofSeconds(Long.getLong("loadtest.warmup", 5)),
+                Integer.getInteger("loadtest.rows", 10_000),
+                Duration.ofSeconds(Long.getLong("loadtest.timeout", 5)),
+                parseMix(System.getProperty("loadtest.mix", DEFAULT_MIX)));
+    }
+
+    /**
+     * Parses an endpoint mix such as {@code get=60,list=20}.
+     */
+    static Map<Endpoint, Integer> parseMix(final String mix) {
+        final Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+        for (final String entry : mix.split(",")) {
+            final String[] parts = entry.trim().split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + entry);
+            }
+            final int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(Endpoint.fromKey(parts[0].trim()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("The endpoint mix is empty");
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,65 @@
+package es.test.demo.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import es.test.demo.index.ProductIdFilter;
+import es.test.demo.index.ProductIndexSupport;
+
+/**
+ * ProductSeeder
+ * Fills the product table of a running application with deterministic
+ * products, for the load test and the benchmarks.
+ * <p>
+ * Rows are inserted with plain JDBC batches, behind the back of the
+ * application, so every structure derived from the catalog is rebuilt
+ * afterwards: the in-memory indexes and the {@link ProductIdFilter}, which
+ * would otherwise answer reads of the seeded IDs with 404.
+ */
+public final class ProductSeeder {
+
+    private static final int SEED_BATCH_SIZE = 10_000;
+
+    private ProductSeeder() {
+    }
+
+    public static String name(final int id) {
+        return "Product " + id;
+    }
+
+    public static String description(final int id) {
+        return "Description of seeded product number " + id + ", long enough to look like a real one";
+    }
+
+    public static double price(final int id) {
+        return (id * 7919L % 100_000) / 100D;
+    }
+
+    /**
+     * Inserts products {@code 1..rows}, moves {@code product_seq} past them and
+     * rebuilds the enabled indexes.
+     *
+     * @param context the running application.
+     * @param rows    the number of products to insert.
+     */
+    public static void seed(final ApplicationContext context, final int rows) {
+        final JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        for (int from = 1; from <= rows; from += SEED_BATCH_SIZE) {
+            final int to = Math.min(from + SEED_BATCH_SIZE, rows + 1);
+            final List<Object[]> batch = new ArrayList<>(to - from);
+            for (int id = from; id < to; id++) {
+                batch.add(new Object[] { id, description(id), name(id), price(id) });
+            }
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO product (id, description, name, price, version) VALUES (?, ?, ?, ?, 0)", batch);
+        }
+        jdbcTemplate.execute("ALTER SEQUENCE product_seq RESTART WITH " + (rows + 1));
+
+        // Same as at startup: indexes disabled by configuration stay unbuilt
+        context.getBeansOfType(ProductIndexSupport.class).values().forEach(ProductIndexSupport::onApplicationReady);
+        context.getBeansOfType(ProductIdFilter.class).values().forEach(ProductIdFilter::onApplicationReady);
+    }
+}
@@ -0,0 +1,80 @@
+package es.test.demo.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import es.test.demo.entity.ProductEntity;
+import es.test.demo.model.ProductDTO;
+import es.test.demo.model.ProductField;
+import es.test.demo.model.ProductSort;
+
+/**
+ * JdbcProductRepositoryTest
+ */
+@SpringBootTest(properties = {
+        "product.repository.type=jdbc",
+        "spring.datasource.url=jdbc:h2:mem:jdbcrepository"
+})
+public class JdbcProductRepositoryTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    public void when_type_jdbc_inject_JdbcProductRepository() {
+        assertInstanceOf(JdbcProductRepository.class, productRepository);
+    }
+
+    @Test
+    public void when_saveAll_assign_ids_and_versions() {
+        final List<ProductEntity> saved = productRepository.saveAll(List.of(
+                new ProductEntity(null, "First product", "First product description", 1D, null),
+                new ProductEntity(null, "Second product", "Second product description", 2D, null)));
+
+        assertEquals(saved.get(0).getId() + 1, saved.get(1).getId());
+        assertEquals(0L, saved.get(0).getVersion());
+        assertEquals("Second product", productRepository.findById(saved.get(1).getId()).orElseThrow().getName());
+    }
+
+    @Test
+    public void when_updateByIdAndVersion_staleVersion_return_zero() {
+        final ProductEntity created = productRepository.saveAndFlush(
+                new ProductEntity(null, "Test product", "Test product description", 1D, null));
+
+        assertEquals(1, productRepository.updateByIdAndVersion(created.getId(), 0L, "Test product",
+                "Test product description", 2D));
+        assertEquals(0, productRepository.updateByIdAndVersion(created.getId(), 0L, "Test product",
+                "Test product description", 3D));
+        assertEquals(1L, productRepository.findVersionById(created.getId()).orElseThrow());
+    }
+
+    @Test
+    public void when_removeById_return_affected_rows() {
+        final ProductEntity created = productRepository.saveAndFlush(
+                new ProductEntity(null, "Test product", "Test product description", 1D, null));
+
+        assertEquals(1, productRepository.removeById(created.getId()));
+        assertEquals(0, productRepository.removeById(created.getId()));
+        assertFalse(productRepository.existsById(created.getId()));
+    }
+
+    @Test
+    public void when_findPageAfter_return_selected_fields_after_the_key() {
+        final List<ProductDTO> first = productRepository.findFirstPage(ProductSort.ID, ProductField.ALL, 2);
+        final List<ProductDTO> next = productRepository.findPageAfter(ProductSort.ID, first.getLast().getId(), null,
+                ProductField.fromValues("name"), 2);
+
+        assertEquals(2, next.size());
+        assertTrue(next.getFirst().getId() > first.getLast().getId());
+        assertNull(next.getFirst().getPrice());
+    }
+}
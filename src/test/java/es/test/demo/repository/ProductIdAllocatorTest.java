@@ -0,0 +1,84 @@
+package es.test.demo.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import es.test.demo.entity.ProductEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * ProductIdAllocatorTest
+ */
+public class ProductIdAllocatorTest {
+
+    private ProductIdAllocator idAllocator;
+
+    private AtomicInteger sequenceReads;
+
+    @BeforeEach
+    public void setup() {
+        idAllocator = new ProductIdAllocator();
+        sequenceReads = new AtomicInteger();
+    }
+
+    @Test
+    public void when_nextId_blocking_readSequence_oncePerBlock() {
+        for (int i = 0; i < ProductEntity.ID_ALLOCATION_SIZE; i++) {
+            assertEquals(101 + i, idAllocator.nextId(() -> read(101)));
+        }
+        assertEquals(1, sequenceReads.get());
+
+        assertEquals(151, idAllocator.nextId(() -> read(151)));
+        assertEquals(2, sequenceReads.get());
+    }
+
+    @Test
+    public void when_nextId_reactive_readSequence_oncePerBlock() {
+        final Mono<Integer> sequence = Mono.fromSupplier(() -> read(101));
+
+        for (int i = 0; i < ProductEntity.ID_ALLOCATION_SIZE; i++) {
+            assertEquals(101 + i, idAllocator.nextId(sequence).block());
+        }
+        assertEquals(1, sequenceReads.get());
+    }
+
+    @Test
+    public void when_nextId_reactive_duringReservation_shareIt() {
+        final Sinks.One<Integer> pending = Sinks.one();
+        final Mono<Integer> sequence = pending.asMono().doOnSubscribe(_ -> sequenceReads.incrementAndGet());
+        final List<Integer> ids = new ArrayList<>();
+
+        Flux.range(0, ProductEntity.ID_ALLOCATION_SIZE)
+                .flatMap(_ -> idAllocator.nextId(sequence))
+                .subscribe(ids::add);
+        pending.tryEmitValue(1);
+
+        assertEquals(1, sequenceReads.get());
+        assertEquals(IntStream.rangeClosed(1, ProductEntity.ID_ALLOCATION_SIZE).boxed().toList(),
+                ids.stream().sorted().toList());
+    }
+
+    @Test
+    public void when_nextId_reactive_sequenceFails_retryOnNextCall() {
+        final Mono<Integer> failing = Mono.error(new IllegalStateException("sequence unavailable"));
+
+        assertThrows(IllegalStateException.class, () -> idAllocator.nextId(failing).block());
+
+        assertEquals(1, idAllocator.nextId(Mono.fromSupplier(() -> read(1))).block());
+    }
+
+    private int read(final int value) {
+        sequenceReads.incrementAndGet();
+        return value;
+    }
+}
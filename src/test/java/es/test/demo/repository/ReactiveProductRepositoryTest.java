@@ -0,0 +1,40 @@
+package es.test.demo.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import es.test.demo.model.ProductDTO;
+
+/**
+ * ReactiveProductRepositoryTest
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:reactiverepository",
+        "product.reactive.url=r2dbc:h2:mem:///reactiverepository"
+})
+public class ReactiveProductRepositoryTest {
+
+    @Autowired
+    private ReactiveProductRepository reactiveRepository;
+
+    @Test
+    public void when_insert_assign_consecutive_ids_and_initialVersion() {
+        final ProductDTO first = reactiveRepository.insert(product("First product")).block();
+        final ProductDTO second = reactiveRepository.insert(product("Second product")).block();
+
+        assertEquals(first.getId() + 1, second.getId());
+        assertEquals(0L, second.getVersion());
+        assertEquals("Second product", reactiveRepository.findById(second.getId()).block().getName());
+    }
+
+    private static ProductDTO product(final String name) {
+        return ProductDTO.builder()
+                .name(name)
+                .description(name + " description")
+                .price(1D)
+                .build();
+    }
+}
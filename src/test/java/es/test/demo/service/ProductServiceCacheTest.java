@@ -0,0 +1,63 @@
+package es.test.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import es.test.demo.config.CacheConfig;
+import es.test.demo.entity.ProductEntity;
+import es.test.demo.model.ProductDTO;
+import es.test.demo.repository.ProductRepository;
+
+/**
+ * ProductServiceCacheTest
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:productcache",
+        "product.id-filter.enabled=false" })
+public class ProductServiceCacheTest {
+
+    @MockitoBean
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private ProductEntity productEntity;
+
+    @BeforeEach
+    public void setup() {
+        cacheManager.getCache(CacheConfig.PRODUCTS).clear();
+
+        productEntity = ProductEntity.builder()
+                .id(1)
+                .name("Test Product")
+                .price(1D)
+                .description("Test product description")
+                .build();
+    }
+
+    @Test
+    public void when_getProductById_calledTwice_readsDatabaseOnce() {
+        when(productRepository.findById(1)).thenReturn(Optional.of(productEntity));
+
+        final ProductDTO first = productService.getProductById(1);
+        final ProductDTO second = productService.getProductById(1);
+
+        assertEquals(first, second);
+        verify(productRepository, times(1)).findById(1);
+    }
+}
@@ -2,25 +2,68 @@ package es.test.demo.service;
 
 import static org.mockito.MockitoAnnotations.openMocks;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.mockStatic;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
+import org.mockito.Spy;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import es.test.demo.concurrent.SingleFlight;
+import es.test.demo.config.CacheConfig;
+import es.test.demo.config.PaginationProperties;
+import es.test.demo.config.ProductBatchProperties;
+import es.test.demo.config.ProductLookupProperties;
+import es.test.demo.config.ProductSearchProperties;
 import es.test.demo.entity.ProductEntity;
+import es.test.demo.event.ProductChangedEvent;
+import es.test.demo.exception.product.InvalidLookupRequestException;
+import es.test.demo.exception.product.InvalidPageRequestException;
 import es.test.demo.exception.product.ProductNotFoundException;
+import es.test.demo.exception.product.ProductVersionMismatchException;
+import es.test.demo.index.ProductIdFilter;
+import es.test.demo.index.ProductPriceIndex;
+import es.test.demo.index.ProductSearchIndex;
+import es.test.demo.index.ProductStatistics;
 import es.test.demo.mapper.ProductMapper;
+import es.test.demo.model.ProductBatchResultDTO;
 import es.test.demo.model.ProductDTO;
+import es.test.demo.model.ProductField;
+import es.test.demo.model.ProductLookupDTO;
+import es.test.demo.model.ProductPageDTO;
+import es.test.demo.model.ProductSort;
 import es.test.demo.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
 
 /**
  * ProductServiceTest
@@ -33,6 +76,55 @@ public class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private Validator validator;
+
+    @Spy
+    private PaginationProperties paginationProperties = new PaginationProperties(1, 100);
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache cache;
+
+    @Spy
+    private ProductBatchProperties batchProperties = new ProductBatchProperties(2);
+
+    @Spy
+    private ProductLookupProperties lookupProperties = new ProductLookupProperties(3, 500);
+
+    @Spy
+    private ProductSearchProperties searchProperties = new ProductSearchProperties(true, 20, 2);
+
+    @Mock
+    private ProductSearchIndex searchIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ProductPriceIndex priceIndex;
+
+    @Mock
+    private ProductIdFilter idFilter;
+
+    @Mock
+    private ProductStatistics statistics;
+
+    @Spy
+    private SingleFlight<Integer, ProductDTO> productLoads = new SingleFlight<>("test", Duration.ofSeconds(1),
+            IllegalStateException::new);
+
+    @Spy
+    private ProductCacheGuard cacheGuard = new ProductCacheGuard();
+
     @InjectMocks
     private ProductServiceImpl productService;
 
@@ -56,6 +148,7 @@ public class ProductServiceTest {
                 .build();
 
         openMocks(this);
+        when(idFilter.mightExist(anyInt())).thenReturn(true);
     }
 
     @Test
@@ -69,6 +162,30 @@ public class ProductServiceTest {
         verify(productRepository, times(1)).findById(1);
     }
 
+    @Test
+    public void when_getProductById_cached_return_cached_ProductDTO_withoutQuerying() {
+        when(cacheManager.getCache(CacheConfig.PRODUCTS)).thenReturn(cache);
+        when(cache.get(1, ProductDTO.class)).thenReturn(productDTO);
+
+        assertEquals(productDTO, productService.getProductById(1));
+        verify(productRepository, times(0)).findById(1);
+    }
+
+    @Test
+    public void when_getProductById_writtenWhileLoading_evict_loaded_ProductDTO() {
+        when(cacheManager.getCache(CacheConfig.PRODUCTS)).thenReturn(cache);
+        when(productRepository.findById(1)).thenAnswer(_ -> {
+            // A write commits while the product is being read
+            cacheGuard.written(1);
+            return Optional.of(productEntity);
+        });
+        when(productMapper.toDTO(productEntity)).thenReturn(productDTO);
+
+        assertEquals(productDTO, productService.getProductById(1));
+        verify(cache, times(1)).putIfAbsent(1, productDTO);
+        verify(cache, times(1)).evict(1);
+    }
+
     @Test
     public void when_getProductById_productDoesNotExists_throws_ProductNotFoundException() {
         when(productRepository.findById(1)).thenReturn(Optional.empty());
@@ -77,6 +194,14 @@ public class ProductServiceTest {
         verify(productRepository, times(1)).findById(1);
     }
 
+    @Test
+    public void when_getProductById_filteredOut_throws_ProductNotFoundException_withoutQuerying() {
+        when(idFilter.mightExist(42)).thenReturn(false);
+
+        assertThrows(ProductNotFoundException.class, () -> productService.getProductById(42));
+        verify(productRepository, times(0)).findById(42);
+    }
+
     @Test
     public void when_addProduct_return_ProductDTO() {
         when(productMapper.toEntity(productDTO)).thenReturn(productEntity);
@@ -88,4 +213,302 @@ public class ProductServiceTest {
         assertEquals(productDTO, response);
         verify(productRepository, times(1)).saveAndFlush(productEntity);
     }
+
+    @Test
+    public void when_getProducts_moreRowsThanPageSize_return_pageWithNextCursor() {
+        final ProductDTO nextDTO = ProductDTO.builder()
+                .id(2)
+                .name("Next Product")
+                .price(2D)
+                .description("Next product description")
+                .build();
+        when(productRepository.findFirstPage(ProductSort.PRICE, ProductField.ALL, 2))
+                .thenReturn(List.of(productDTO, nextDTO));
+
+        final ProductPageDTO response = productService.getProducts(ProductSort.PRICE, null, null);
+
+        assertEquals(List.of(productDTO), response.getItems());
+        assertNotNull(response.getNextCursor());
+        assertEquals(new ProductCursor(ProductSort.PRICE, 1, "1.0"), ProductCursor.decode(response.getNextCursor()));
+    }
+
+    @Test
+    public void when_getProducts_withFields_return_onlySelectedFields_and_cursorOnSortKey() {
+        final Set<ProductField> fields = ProductField.fromValues("name");
+        final ProductDTO firstDTO = ProductDTO.builder().id(1).name("Test Product").price(1D).version(0L).build();
+        final ProductDTO nextDTO = ProductDTO.builder().id(2).name("Next Product").price(2D).version(0L).build();
+        when(productRepository.findFirstPage(ProductSort.PRICE, fields, 2)).thenReturn(List.of(firstDTO, nextDTO));
+
+        final ProductPageDTO response = productService.getProducts(ProductSort.PRICE, null, null, fields);
+
+        assertEquals(List.of(ProductDTO.builder().id(1).name("Test Product").version(0L).build()),
+                response.getItems());
+        assertEquals(new ProductCursor(ProductSort.PRICE, 1, "1.0"), ProductCursor.decode(response.getNextCursor()));
+    }
+
+    @Test
+    public void when_getProducts_withCursor_resumes_afterCursorAndReturnsLastPage() {
+        final String cursor = new ProductCursor(ProductSort.PRICE, 1, "1.0").encode();
+        when(productRepository.findPageAfter(ProductSort.PRICE, 1, 1D, ProductField.ALL, 2)).thenReturn(List.of());
+
+        final ProductPageDTO response = productService.getProducts(null, cursor, null);
+
+        assertEquals(List.of(), response.getItems());
+        assertNull(response.getNextCursor());
+        verify(productRepository, times(1)).findPageAfter(ProductSort.PRICE, 1, 1D, ProductField.ALL, 2);
+    }
+
+    @Test
+    public void when_getProductsByPrice_indexReady_return_pageFromIndex() {
+        when(priceIndex.isReady()).thenReturn(true);
+        doAnswer(invocation -> {
+            final int[] ids = invocation.getArgument(3);
+            final double[] prices = invocation.getArgument(4);
+            ids[0] = 1;
+            prices[0] = 1D;
+            ids[1] = 2;
+            prices[1] = 2D;
+            return 2;
+        }).when(priceIndex).range(eq(1D), eq(Integer.MIN_VALUE), eq(5D), any(int[].class), any(double[].class));
+        when(productRepository.findAllById(List.of(1))).thenReturn(List.of(productEntity));
+        when(productMapper.toDTO(productEntity)).thenReturn(productDTO);
+
+        final ProductPageDTO response = productService.getProductsByPrice(1D, 5D, null, null);
+
+        assertEquals(List.of(productDTO), response.getItems());
+        assertEquals(ProductCursor.ofPrice(1D, 1), ProductCursor.decode(response.getNextCursor()));
+        verify(productRepository, times(0)).findPageInPriceRange(anyDouble(), anyDouble(), anyInt(), anySet(),
+                anyInt());
+    }
+
+    @Test
+    public void when_getProductsByPrice_indexPageLargerThanLookupLimit_return_pageFromIndex() {
+        when(priceIndex.isReady()).thenReturn(true);
+        doAnswer(invocation -> {
+            final int[] ids = invocation.getArgument(3);
+            final double[] prices = invocation.getArgument(4);
+            for (int i = 0; i < 4; i++) {
+                ids[i] = i + 1;
+                prices[i] = i + 1D;
+            }
+            return 4;
+        }).when(priceIndex).range(eq(1D), eq(Integer.MIN_VALUE), eq(5D), any(int[].class), any(double[].class));
+        when(productRepository.findAllById(List.of(1, 2, 3, 4))).thenReturn(List.of(productEntity));
+        when(productMapper.toDTO(productEntity)).thenReturn(productDTO);
+
+        final ProductPageDTO response = productService.getProductsByPrice(1D, 5D, null, 4);
+
+        assertEquals(List.of(productDTO), response.getItems());
+        assertNull(response.getNextCursor());
+    }
+
+    @Test
+    public void when_getProductsByPrice_indexNotReady_queries_priceRangeFromCursor() {
+        final String cursor = ProductCursor.ofPrice(2D, 7).encode();
+        when(productRepository.findPageInPriceRange(5D, 2D, 7, ProductField.ALL, 2)).thenReturn(List.of());
+
+        final ProductPageDTO response = productService.getProductsByPrice(1D, 5D, cursor, null);
+
+        assertEquals(List.of(), response.getItems());
+        assertNull(response.getNextCursor());
+    }
+
+    @Test
+    public void when_getProductsByPrice_minGreaterThanMax_throws_InvalidPageRequestException() {
+        assertThrows(InvalidPageRequestException.class,
+                () -> productService.getProductsByPrice(5D, 1D, null, null));
+    }
+
+    @Test
+    public void when_getProducts_cursorOfAnotherSort_throws_InvalidPageRequestException() {
+        final String cursor = new ProductCursor(ProductSort.ID, 1, null).encode();
+
+        assertThrows(InvalidPageRequestException.class,
+                () -> productService.getProducts(ProductSort.NAME, cursor, null));
+        verify(productRepository, times(0)).findPageAfter(any(), anyInt(), any(), anySet(), anyInt());
+    }
+
+    @Test
+    public void when_getProducts_malformedCursor_throws_InvalidPageRequestException() {
+        assertThrows(InvalidPageRequestException.class,
+                () -> productService.getProducts(null, "not a cursor", null));
+    }
+
+    @Test
+    public void when_exportProducts_sendsEveryProduct_and_detachesEntities() {
+        final List<ProductDTO> exported = new ArrayList<>();
+        when(productRepository.streamAll()).thenReturn(Stream.of(productEntity));
+        when(productMapper.toDTO(productEntity)).thenReturn(productDTO);
+
+        productService.exportProducts(exported::add);
+
+        assertEquals(List.of(productDTO), exported);
+        verify(entityManager, times(1)).detach(productEntity);
+    }
+
+    @Test
+    public void when_addProducts_withInvalidItem_savesValidOnes_and_reportsInvalidOne() {
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(validator.validate(productDTO)).thenReturn(Set.of());
+        when(productMapper.toEntity(productDTO)).thenReturn(productEntity);
+        when(productMapper.toDTO(productEntity)).thenReturn(productDTO);
+
+        final ProductBatchResultDTO response = productService.addProducts(
+                Arrays.asList(productDTO, null, productDTO).iterator());
+
+        assertEquals(3, response.getReceived());
+        assertEquals(2, response.getCreated());
+        assertEquals(1, response.getErrors().size());
+        assertEquals(1, response.getErrors().getFirst().getIndex());
+        verify(productRepository, times(1)).saveAll(anyList());
+        verify(productRepository, times(1)).flush();
+        verify(eventPublisher, times(2)).publishEvent(ProductChangedEvent.created(productDTO));
+    }
+
+    @Test
+    public void when_updateProductById_productExists_return_ProductDTOWithId() {
+        final ProductDTO update = ProductDTO.builder()
+                .name("Test Product")
+                .price(1D)
+                .description("Test product description")
+                .build();
+        productEntity.setVersion(3L);
+        when(productRepository.updateById(1, "Test Product", "Test product description", 1D)).thenReturn(1);
+        when(productRepository.findVersionById(1)).thenReturn(Optional.of(3L));
+        when(productMapper.toEntity(update)).thenReturn(ProductEntity.builder()
+                .name("Test Product")
+                .price(1D)
+                .description("Test product description")
+                .build());
+        when(productMapper.toDTO(productEntity)).thenReturn(productDTO);
+
+        final ProductDTO response = productService.updateProductById(update, 1, null);
+
+        assertEquals(productDTO, response);
+        verify(productRepository, times(0)).findById(1);
+        verify(productRepository, times(0)).saveAndFlush(any(ProductEntity.class));
+    }
+
+    @Test
+    public void when_updateProductById_productDoesNotExists_throws_ProductNotFoundException() {
+        when(productRepository.updateById(1, "Test Product", "Test product description", 1D)).thenReturn(0);
+
+        assertThrows(ProductNotFoundException.class, () -> productService.updateProductById(productDTO, 1, null));
+    }
+
+    @Test
+    public void when_updateProductById_expectedVersionMatches_return_ProductDTOWithNextVersion() {
+        productEntity.setVersion(3L);
+        when(productRepository.updateByIdAndVersion(1, 2L, "Test Product", "Test product description", 1D))
+                .thenReturn(1);
+        when(productMapper.toEntity(productDTO)).thenReturn(ProductEntity.builder()
+                .name("Test Product")
+                .price(1D)
+                .description("Test product description")
+                .build());
+        when(productMapper.toDTO(productEntity)).thenReturn(productDTO);
+
+        final ProductDTO response = productService.updateProductById(productDTO, 1, 2L);
+
+        assertEquals(productDTO, response);
+        verify(productRepository, times(0)).findVersionById(1);
+    }
+
+    @Test
+    public void when_updateProductById_expectedVersionIsStale_throws_ProductVersionMismatchException() {
+        when(productRepository.updateByIdAndVersion(1, 2L, "Test Product", "Test product description", 1D))
+                .thenReturn(0);
+        when(productRepository.existsById(1)).thenReturn(true);
+
+        assertThrows(ProductVersionMismatchException.class,
+                () -> productService.updateProductById(productDTO, 1, 2L));
+    }
+
+    @Test
+    public void when_deleteProductById_productExists_runs_singleDelete() {
+        when(productRepository.removeById(1)).thenReturn(1);
+
+        productService.deleteProductById(1, null);
+
+        verify(productRepository, times(1)).removeById(1);
+        verify(productRepository, times(0)).findById(1);
+        verify(eventPublisher, times(1)).publishEvent(ProductChangedEvent.deleted(1));
+    }
+
+    @Test
+    public void when_deleteProductById_productDoesNotExists_throws_ProductNotFoundException() {
+        when(productRepository.removeById(1)).thenReturn(0);
+
+        assertThrows(ProductNotFoundException.class, () -> productService.deleteProductById(1, null));
+    }
+
+    @Test
+    public void when_deleteProductById_expectedVersionIsStale_throws_ProductVersionMismatchException() {
+        when(productRepository.removeByIdAndVersion(1, 2L)).thenReturn(0);
+        when(productRepository.existsById(1)).thenReturn(true);
+
+        assertThrows(ProductVersionMismatchException.class, () -> productService.deleteProductById(1, 2L));
+    }
+
+    @Test
+    public void when_getProductsByIds_readsCacheFirst_and_queriesOnlyMisses() {
+        final ProductDTO cachedDTO = ProductDTO.builder()
+                .id(2)
+                .name("Cached Product")
+                .price(2D)
+                .description("Cached product description")
+                .build();
+        when(cacheManager.getCache(CacheConfig.PRODUCTS)).thenReturn(cache);
+        when(cache.get(2, ProductDTO.class)).thenReturn(cachedDTO);
+        when(productRepository.findAllById(List.of(1, 3))).thenReturn(List.of(productEntity));
+        when(productMapper.toDTO(productEntity)).thenReturn(productDTO);
+
+        final ProductLookupDTO response = productService.getProductsByIds(List.of(2, 1, 3, 2));
+
+        assertEquals(List.of(cachedDTO, productDTO), response.getProducts());
+        assertEquals(List.of(3), response.getMissing());
+        verify(productRepository, times(1)).findAllById(List.of(1, 3));
+        verify(cache, times(1)).putIfAbsent(1, productDTO);
+    }
+
+    @Test
+    public void when_getProductsByIds_tooManyIds_throws_InvalidLookupRequestException() {
+        assertThrows(InvalidLookupRequestException.class,
+                () -> productService.getProductsByIds(List.of(1, 2, 3, 4)));
+    }
+
+    @Test
+    public void when_searchProducts_return_indexMatchesInRankOrder() {
+        final ProductEntity otherEntity = ProductEntity.builder()
+                .id(2)
+                .name("Other Product")
+                .price(2D)
+                .description("Other product description")
+                .build();
+        final ProductDTO otherDTO = ProductDTO.builder()
+                .id(2)
+                .name("Other Product")
+                .price(2D)
+                .description("Other product description")
+                .build();
+        when(searchIndex.search("product", 2)).thenReturn(new int[] { 2, 1 });
+        when(productRepository.findAllById(List.of(2, 1))).thenReturn(List.of(productEntity, otherEntity));
+        when(productMapper.toDTO(productEntity)).thenReturn(productDTO);
+        when(productMapper.toDTO(otherEntity)).thenReturn(otherDTO);
+
+        final List<ProductDTO> response = productService.searchProducts("product", 50);
+
+        assertEquals(List.of(otherDTO, productDTO), response);
+    }
+
+    @Test
+    public void when_searchProducts_noMatches_return_emptyList_withoutQuerying() {
+        when(searchIndex.search("missing", 2)).thenReturn(new int[0]);
+
+        assertEquals(List.of(), productService.searchProducts("missing", null));
+        verify(productRepository, times(0)).findAllById(anyList());
+    }
 }
@@ -0,0 +1,171 @@
+package es.test.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import es.test.demo.config.CacheConfig;
+import es.test.demo.config.ProductWriteBehindProperties;
+import es.test.demo.entity.ProductEntity;
+import es.test.demo.event.ProductChangedEvent;
+import es.test.demo.exception.product.ProductWriteNotFoundException;
+import es.test.demo.exception.product.ProductWriteQueueFullException;
+import es.test.demo.mapper.ProductMapper;
+import es.test.demo.model.ProductDTO;
+import es.test.demo.model.ProductWriteDTO;
+import es.test.demo.model.ProductWriteState;
+import es.test.demo.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+
+/**
+ * ProductWriteBehindTest
+ */
+public class ProductWriteBehindTest {
+
+    @Mock
+    private ProductMapper productMapper;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache cache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ProductWriteBehind writeBehind;
+
+    private ProductDTO productDTO;
+
+    @BeforeEach
+    public void setup() {
+        openMocks(this);
+        writeBehind = new ProductWriteBehind(productMapper, productRepository, entityManager, transactionTemplate,
+                cacheManager, new ProductCacheGuard(), eventPublisher,
+                new ProductWriteBehindProperties(true, 2, 10, Duration.ofMinutes(1), 100, Duration.ofSeconds(5)));
+        productDTO = new ProductDTO(null, "Test product", "Test product description", 1.23, null);
+
+        when(cacheManager.getCache(CacheConfig.PRODUCTS)).thenReturn(cache);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        stop();
+    }
+
+    @Test
+    public void when_submitCreate_notStarted_throw_ProductWriteQueueFullException() {
+        assertThrows(ProductWriteQueueFullException.class, () -> writeBehind.submitCreate(productDTO));
+    }
+
+    @Test
+    public void when_getStatus_unknownId_throw_ProductWriteNotFoundException() {
+        assertThrows(ProductWriteNotFoundException.class, () -> writeBehind.getStatus("unknown"));
+    }
+
+    @Test
+    public void when_submitCreate_return_pending_and_apply_it_in_background() throws InterruptedException {
+        final ProductEntity entity = new ProductEntity(null, "Test product", "Test product description", 1.23, null);
+        final ProductDTO created = new ProductDTO(7, "Test product", "Test product description", 1.23, 0L);
+        when(productMapper.toEntity(productDTO)).thenReturn(entity);
+        when(productMapper.toDTO(entity)).thenReturn(created);
+
+        writeBehind.start();
+        final ProductWriteDTO pending = writeBehind.submitCreate(productDTO);
+        assertEquals(ProductWriteState.PENDING, pending.getState());
+        stop();
+
+        final ProductWriteDTO status = writeBehind.getStatus(pending.getId());
+        assertEquals(ProductWriteState.APPLIED, status.getState());
+        assertEquals(7, status.getProductId());
+        verify(productRepository).saveAll(anyList());
+        verify(cache).put(7, created);
+        verify(eventPublisher).publishEvent(ProductChangedEvent.created(created));
+    }
+
+    @Test
+    public void when_listenerFailsAfterCommit_mark_applied_withoutApplyingAgain() throws InterruptedException {
+        final ProductEntity entity = new ProductEntity(null, "Test product", "Test product description", 1.23, null);
+        final ProductDTO created = new ProductDTO(7, "Test product", "Test product description", 1.23, 0L);
+        when(productMapper.toEntity(productDTO)).thenReturn(entity);
+        when(productMapper.toDTO(entity)).thenReturn(created);
+        doThrow(new IllegalStateException("Listener failed")).when(eventPublisher)
+                .publishEvent(any(ProductChangedEvent.class));
+
+        writeBehind.start();
+        final ProductWriteDTO pending = writeBehind.submitCreate(productDTO);
+        stop();
+
+        final ProductWriteDTO status = writeBehind.getStatus(pending.getId());
+        assertEquals(ProductWriteState.APPLIED, status.getState());
+        assertEquals(7, status.getProductId());
+        verify(transactionTemplate, times(1)).execute(any());
+        verify(productRepository, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    public void when_submitUpdate_missingProduct_mark_failed() throws InterruptedException {
+        when(productRepository.updateById(5, "Test product", "Test product description", 1.23)).thenReturn(0);
+
+        writeBehind.start();
+        final ProductWriteDTO pending = writeBehind.submitUpdate(5, productDTO, null);
+        stop();
+
+        final ProductWriteDTO status = writeBehind.getStatus(pending.getId());
+        assertEquals(ProductWriteState.FAILED, status.getState());
+        assertEquals(5, status.getProductId());
+        assertEquals("Could not find product by that id", status.getError());
+    }
+
+    @Test
+    public void when_stopped_reject_new_writes() throws InterruptedException {
+        writeBehind.start();
+        stop();
+
+        assertFalse(writeBehind.isRunning());
+        assertThrows(ProductWriteQueueFullException.class, () -> writeBehind.submitCreate(productDTO));
+    }
+
+    /**
+     * Stops the queue and waits for the writer to drain it.
+     */
+    private void stop() throws InterruptedException {
+        final CountDownLatch stopped = new CountDownLatch(1);
+        writeBehind.stop(stopped::countDown);
+        assertTrue(stopped.await(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,120 @@
+package es.test.demo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+
+import es.test.demo.config.CacheConfig;
+import es.test.demo.config.PaginationProperties;
+import es.test.demo.config.ReactiveProductProperties;
+import es.test.demo.event.ProductChangedEvent;
+import es.test.demo.exception.product.ProductNotFoundException;
+import es.test.demo.exception.product.ProductVersionMismatchException;
+import es.test.demo.index.ProductIdFilter;
+import es.test.demo.model.ProductDTO;
+import es.test.demo.model.ProductField;
+import es.test.demo.model.ProductSort;
+import es.test.demo.repository.ReactiveProductRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ * ReactiveProductServiceImplTest
+ */
+public class ReactiveProductServiceImplTest {
+
+    @Mock
+    private ReactiveProductRepository productRepository;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache cache;
+
+    @Mock
+    private ProductIdFilter idFilter;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ReactiveProductServiceImpl productService;
+
+    private ProductDTO productDTO;
+
+    @BeforeEach
+    public void setup() {
+        openMocks(this);
+        productService = new ReactiveProductServiceImpl(productRepository, new PaginationProperties(1, 100),
+                new ReactiveProductProperties(false, 8081, "r2dbc:h2:mem:///testdb", "sa", "", 16, 256),
+                cacheManager, idFilter, new ProductCacheGuard(), eventPublisher);
+        productDTO = new ProductDTO(1, "Test product", "Test product description", 1.23, 0L);
+
+        when(cacheManager.getCache(CacheConfig.PRODUCTS)).thenReturn(cache);
+        when(idFilter.mightExist(1)).thenReturn(true);
+    }
+
+    @Test
+    public void when_getProductById_filteredOut_throw_ProductNotFoundException() {
+        StepVerifier.create(productService.getProductById(2))
+                .expectError(ProductNotFoundException.class)
+                .verify();
+        verify(productRepository, never()).findById(2);
+    }
+
+    @Test
+    public void when_getProductById_return_product_and_cache_it() {
+        when(productRepository.findById(1)).thenReturn(Mono.just(productDTO));
+
+        StepVerifier.create(productService.getProductById(1))
+                .expectNext(productDTO)
+                .verifyComplete();
+        verify(cache).putIfAbsent(1, productDTO);
+        verify(cache, never()).evict(1);
+    }
+
+    @Test
+    public void when_getProducts_fullPage_return_next_cursor() {
+        final ProductDTO next = new ProductDTO(2, "Other product", "Other product description", 4.56, 0L);
+        when(productRepository.findFirstPage(ProductSort.ID, 2)).thenReturn(Flux.just(productDTO, next));
+
+        StepVerifier.create(productService.getProducts(null, null, null, ProductField.ALL))
+                .assertNext(page -> {
+                    assertEquals(1, page.getItems().size());
+                    assertNotNull(page.getNextCursor());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    public void when_updateProductById_versionMismatch_throw_ProductVersionMismatchException() {
+        when(productRepository.update(1, 3L, productDTO)).thenReturn(Mono.empty());
+        when(productRepository.existsById(1)).thenReturn(Mono.just(true));
+
+        StepVerifier.create(productService.updateProductById(productDTO, 1, 3L))
+                .expectError(ProductVersionMismatchException.class)
+                .verify();
+        verify(eventPublisher, never()).publishEvent(ProductChangedEvent.updated(productDTO));
+    }
+
+    @Test
+    public void when_deleteProductById_evict_and_publish_change() {
+        when(productRepository.delete(1, null)).thenReturn(Mono.just(1L));
+
+        StepVerifier.create(productService.deleteProductById(1, null))
+                .verifyComplete();
+        verify(cache).evict(1);
+        verify(eventPublisher).publishEvent(ProductChangedEvent.deleted(1));
+    }
+}